@@ -19,6 +19,7 @@
  */
 package jetbrick.bean;
 
+import java.lang.reflect.Type;
 import jetbrick.util.ArrayUtils;
 
 /**
@@ -55,6 +56,23 @@ public final class PropertyInfo implements Getter, Setter {
         throw new IllegalStateException("Invalid PropertyInfo: " + toString());
     }
 
+    public Type getGenericType() {
+        if (getter != null) {
+            return getter.getGenericReturnType();
+        }
+        if (setter != null) {
+            return setter.getParameters().get(0).getGenericType();
+        }
+        throw new IllegalStateException("Invalid PropertyInfo: " + toString());
+    }
+
+    /**
+     * 返回在 declaringClass 中解析了泛型变量之后的属性类型.
+     */
+    public Type getGenericType(Class<?> declaringClass) {
+        return TypeResolverUtils.resolveType(getGenericType(), declaringClass);
+    }
+
     public Class<?> getRawType(KlassInfo declaringKlass) {
         return getRawType(declaringKlass.getType());
     }
@@ -25,6 +25,8 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Objects;
 import jetbrick.util.ArrayUtils;
 
 /**
@@ -153,6 +155,69 @@ public final class TypeResolverUtils {
         return null;
     }
 
+    /**
+     * 将 type 中的所有 <code>TypeVariable</code> 替换为 implClass 中实际的类型.
+     * 例如 <code>class A&lt;T&gt; { List&lt;T&gt; list; }</code>, <code>class B extends A&lt;Integer&gt;</code>,
+     * 那么 <code>List&lt;T&gt;</code> 在 B 中为 <code>List&lt;Integer&gt;</code>.
+     * 不能解析的 <code>TypeVariable</code> 保持不变.
+     *
+     * @param type - given type
+     * @param implClass - implementation class
+     * @return resolved type
+     */
+    public static Type resolveType(Type type, Class<?> implClass) {
+        if (implClass == null || type instanceof Class) {
+            return type;
+        }
+        if (type instanceof TypeVariable) {
+            Type resolved = resolveVariable((TypeVariable<?>) type, implClass);
+            if (resolved == null || resolved == type) {
+                return type;
+            }
+            return resolveType(resolved, implClass);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType pType = (ParameterizedType) type;
+            Type[] args = pType.getActualTypeArguments();
+            Type[] resolvedArgs = null;
+            for (int i = 0; i < args.length; i++) {
+                Type arg = resolveType(args[i], implClass);
+                if (arg != args[i]) {
+                    if (resolvedArgs == null) {
+                        resolvedArgs = args.clone();
+                    }
+                    resolvedArgs[i] = arg;
+                }
+            }
+            if (resolvedArgs == null) {
+                return type;
+            }
+            return new ParameterizedTypeImpl((Class<?>) pType.getRawType(), resolvedArgs, pType.getOwnerType());
+        }
+        if (type instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType) type).getGenericComponentType();
+            Type resolved = resolveType(componentType, implClass);
+            if (resolved instanceof Class) {
+                return Array.newInstance((Class<?>) resolved, 0).getClass();
+            }
+            if (resolved == componentType) {
+                return type;
+            }
+            return new GenericArrayTypeImpl(resolved);
+        }
+        if (type instanceof WildcardType) {
+            // 作为转换的目标类型时，通配符等价于它的边界
+            WildcardType wType = (WildcardType) type;
+            Type[] lowerTypes = wType.getLowerBounds();
+            if (lowerTypes.length > 0) {
+                return resolveType(lowerTypes[0], implClass);
+            }
+            Type[] upperTypes = wType.getUpperBounds();
+            return upperTypes.length > 0 ? resolveType(upperTypes[0], implClass) : Object.class;
+        }
+        return type;
+    }
+
     public static Class<?> getComponentType(Type type) {
         return getComponentType(type, null, -1);
     }
@@ -226,4 +291,87 @@ public final class TypeResolverUtils {
         return getComponentType(type.getGenericSuperclass(), null, index);
     }
 
+    // equals/hashCode 和 JDK 的实现保持一致，可以作为 Map 的 key 和 JDK 创建的 Type 混用
+    static final class ParameterizedTypeImpl implements ParameterizedType {
+        private final Class<?> rawType;
+        private final Type[] actualTypeArguments;
+        private final Type ownerType;
+
+        ParameterizedTypeImpl(Class<?> rawType, Type[] actualTypeArguments, Type ownerType) {
+            this.rawType = rawType;
+            this.actualTypeArguments = actualTypeArguments;
+            this.ownerType = ownerType;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return actualTypeArguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return ownerType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ParameterizedType)) {
+                return false;
+            }
+            ParameterizedType other = (ParameterizedType) obj;
+            return rawType.equals(other.getRawType()) && Objects.equals(ownerType, other.getOwnerType()) && Arrays.equals(actualTypeArguments, other.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(actualTypeArguments) ^ Objects.hashCode(ownerType) ^ Objects.hashCode(rawType);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(rawType.getName());
+            sb.append('<');
+            for (int i = 0; i < actualTypeArguments.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(actualTypeArguments[i].getTypeName());
+            }
+            return sb.append('>').toString();
+        }
+    }
+
+    static final class GenericArrayTypeImpl implements GenericArrayType {
+        private final Type genericComponentType;
+
+        GenericArrayTypeImpl(Type genericComponentType) {
+            this.genericComponentType = genericComponentType;
+        }
+
+        @Override
+        public Type getGenericComponentType() {
+            return genericComponentType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof GenericArrayType && genericComponentType.equals(((GenericArrayType) obj).getGenericComponentType());
+        }
+
+        @Override
+        public int hashCode() {
+            return genericComponentType.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return genericComponentType.getTypeName() + "[]";
+        }
+    }
+
 }
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.io.File;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import jetbrick.io.IoUtils;
+
+/**
+ * Bloom filter，用于在很小的内存中判断一个元素 "可能存在" 或者 "一定不存在".
+ * <p>
+ * 支持 long, CharSequence 和 byte[] 类型的元素，并发 put 是线程安全的 (基于 CAS 设置 bit).
+ * 可以通过 {@link #toByteArray()} / {@link #writeTo(File)} 离线构建，再通过 {@link #readFrom(File)} 加载.
+ *
+ * <pre>
+ * BloomFilter filter = BloomFilter.create(10000000, 0.001);
+ * filter.putAll(ids);
+ * if (!filter.mightContain(id)) {
+ *     // 一定不存在
+ * }
+ * </pre>
+ *
+ * @see CuckooFilter
+ * @author Guoqiang Chen
+ */
+public final class BloomFilter {
+    private static final int MAGIC = 0x424C4F4D; // "BLOM"
+    private static final int HEADER_SIZE = 12;
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int numHashFunctions;
+    private final LongAdder bitCount = new LongAdder();
+
+    private BloomFilter(int numLongs, int numHashFunctions) {
+        this.bits = new AtomicLongArray(numLongs);
+        this.bitSize = (long) numLongs * Long.SIZE;
+        this.numHashFunctions = numHashFunctions;
+    }
+
+    /**
+     * 创建一个 BloomFilter.
+     *
+     * @param expectedInsertions 预计插入的元素个数
+     * @param fpp 期望的误判率 (0 &lt; fpp &lt; 1)
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions < 0) {
+            throw new IllegalArgumentException("expectedInsertions must be >= 0: " + expectedInsertions);
+        }
+        if (!(fpp > 0.0 && fpp < 1.0)) {
+            throw new IllegalArgumentException("fpp must be in (0, 1): " + fpp);
+        }
+        long n = Math.max(expectedInsertions, 1);
+        long m = (long) (-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        long numLongs = Math.max((m + Long.SIZE - 1) / Long.SIZE, 1);
+        if (numLongs > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many bits for bloom filter: " + m);
+        }
+        int k = Math.max(1, (int) Math.round((double) numLongs * Long.SIZE / n * Math.log(2)));
+        return new BloomFilter((int) numLongs, Math.min(k, 64));
+    }
+
+    public boolean put(long value) {
+        return put0(FilterHashing.hash(value));
+    }
+
+    public boolean put(CharSequence value) {
+        return put0(FilterHashing.hash(value));
+    }
+
+    public boolean put(byte[] value) {
+        return put0(FilterHashing.hash(value));
+    }
+
+    public void putAll(long[] values) {
+        for (long value : values) {
+            put0(FilterHashing.hash(value));
+        }
+    }
+
+    public void putAll(Iterable<? extends CharSequence> values) {
+        for (CharSequence value : values) {
+            put0(FilterHashing.hash(value));
+        }
+    }
+
+    public boolean mightContain(long value) {
+        return mightContain0(FilterHashing.hash(value));
+    }
+
+    public boolean mightContain(CharSequence value) {
+        return mightContain0(FilterHashing.hash(value));
+    }
+
+    public boolean mightContain(byte[] value) {
+        return mightContain0(FilterHashing.hash(value));
+    }
+
+    /**
+     * 返回 true 表示至少有一个 bit 发生了变化 (即该元素之前一定不存在).
+     */
+    private boolean put0(long hash) {
+        long combined = hash;
+        long step = Long.rotateLeft(hash, 32) | 1;
+        boolean changed = false;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitSize;
+            int slot = (int) (index >>> 6);
+            long mask = 1L << index;
+            long word = bits.get(slot);
+            while ((word & mask) == 0) {
+                if (bits.compareAndSet(slot, word, word | mask)) {
+                    bitCount.increment();
+                    changed = true;
+                    break;
+                }
+                word = bits.get(slot);
+            }
+            combined += step;
+        }
+        return changed;
+    }
+
+    private boolean mightContain0(long hash) {
+        long combined = hash;
+        long step = Long.rotateLeft(hash, 32) | 1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitSize;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+            combined += step;
+        }
+        return true;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    /**
+     * 根据已经设置的 bit 数量估算当前的误判率.
+     */
+    public double getExpectedFpp() {
+        return Math.pow((double) bitCount.sum() / bitSize, numHashFunctions);
+    }
+
+    /**
+     * 根据已经设置的 bit 数量估算已插入的元素个数.
+     */
+    public long getApproximateElementCount() {
+        double fraction = (double) bitCount.sum() / bitSize;
+        return Math.round(-Math.log1p(-fraction) * bitSize / numHashFunctions);
+    }
+
+    // ----------------------------------------------------------------------
+
+    public byte[] toByteArray() {
+        int numLongs = bits.length();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + numLongs * 8);
+        buffer.putInt(MAGIC);
+        buffer.putInt(numHashFunctions);
+        buffer.putInt(numLongs);
+        for (int i = 0; i < numLongs; i++) {
+            buffer.putLong(bits.get(i));
+        }
+        return buffer.array();
+    }
+
+    public static BloomFilter fromByteArray(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Invalid bloom filter data");
+            }
+            int numHashFunctions = buffer.getInt();
+            int numLongs = buffer.getInt();
+            if (numHashFunctions <= 0 || numLongs <= 0 || buffer.remaining() != (long) numLongs * 8) {
+                throw new IllegalArgumentException("Invalid bloom filter data");
+            }
+            BloomFilter filter = new BloomFilter(numLongs, numHashFunctions);
+            long count = 0;
+            for (int i = 0; i < numLongs; i++) {
+                long word = buffer.getLong();
+                filter.bits.set(i, word);
+                count += Long.bitCount(word);
+            }
+            filter.bitCount.add(count);
+            return filter;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid bloom filter data", e);
+        }
+    }
+
+    public void writeTo(File file) {
+        IoUtils.write(toByteArray(), file);
+    }
+
+    public static BloomFilter readFrom(File file) {
+        return fromByteArray(IoUtils.toByteArray(file));
+    }
+}
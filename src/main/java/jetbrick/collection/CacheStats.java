@@ -0,0 +1,146 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+/**
+ * cache 统计信息的不可变快照.
+ *
+ * @see CacheStatsCounter
+ * @author Guoqiang Chen
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long sizeEvictionCount;
+    private final long expiredCount;
+    private final long collectedCount;
+    private final long weight;
+
+    public CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadTime, long sizeEvictionCount, long expiredCount, long collectedCount, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.sizeEvictionCount = sizeEvictionCount;
+        this.expiredCount = expiredCount;
+        this.collectedCount = collectedCount;
+        this.weight = weight;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return (requestCount == 0) ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    public double getMissRate() {
+        long requestCount = getRequestCount();
+        return (requestCount == 0) ? 0.0 : (double) missCount / requestCount;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * 加载对象的总耗时 (纳秒).
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * 平均每次加载的耗时 (纳秒).
+     */
+    public double getAverageLoadPenalty() {
+        long loadCount = loadSuccessCount + loadFailureCount;
+        return (loadCount == 0) ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    /**
+     * 超出容量限制被淘汰的数量.
+     */
+    public long getSizeEvictionCount() {
+        return sizeEvictionCount;
+    }
+
+    /**
+     * 超时被淘汰的数量.
+     */
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    /**
+     * 被 GC 回收的数量.
+     */
+    public long getCollectedCount() {
+        return collectedCount;
+    }
+
+    /**
+     * 所有原因导致的自动淘汰数量.
+     */
+    public long getEvictionCount() {
+        return sizeEvictionCount + expiredCount + collectedCount;
+    }
+
+    /**
+     * 快照时 cache 中的对象数量.
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(192);
+        sb.append("CacheStats{hitCount=").append(hitCount);
+        sb.append(", missCount=").append(missCount);
+        sb.append(", loadSuccessCount=").append(loadSuccessCount);
+        sb.append(", loadFailureCount=").append(loadFailureCount);
+        sb.append(", totalLoadTime=").append(totalLoadTime);
+        sb.append(", sizeEvictionCount=").append(sizeEvictionCount);
+        sb.append(", expiredCount=").append(expiredCount);
+        sb.append(", collectedCount=").append(collectedCount);
+        sb.append(", weight=").append(weight);
+        sb.append('}');
+        return sb.toString();
+    }
+}
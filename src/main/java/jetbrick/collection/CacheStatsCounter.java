@@ -0,0 +1,113 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于 {@link LongAdder} 的 cache 统计计数器.
+ * <p>
+ * LongAdder 内部按线程分散到不同的 cell 中累加，高并发下的写入几乎没有竞争；
+ * 读取时才进行汇总，因此 {@link #snapshot} 得到的是一个近似一致的快照.
+ * {@link #DISABLED} 不做任何统计，用于关闭统计的 cache.
+ *
+ * @author Guoqiang Chen
+ */
+public class CacheStatsCounter {
+    public static final CacheStatsCounter DISABLED = new CacheStatsCounter() {
+        @Override
+        public void recordHits(int count) {
+        }
+
+        @Override
+        public void recordMisses(int count) {
+        }
+
+        @Override
+        public void recordLoadSuccess(long loadTime) {
+        }
+
+        @Override
+        public void recordLoadFailure(long loadTime) {
+        }
+
+        @Override
+        public void recordRemoval(RemovalCause cause) {
+        }
+    };
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder sizeEvictionCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder collectedCount = new LongAdder();
+
+    public void recordHits(int count) {
+        hitCount.add(count);
+    }
+
+    public void recordMisses(int count) {
+        missCount.add(count);
+    }
+
+    /**
+     * @param loadTime  加载耗时 (纳秒)
+     */
+    public void recordLoadSuccess(long loadTime) {
+        loadSuccessCount.increment();
+        totalLoadTime.add(loadTime);
+    }
+
+    /**
+     * @param loadTime  加载耗时 (纳秒)
+     */
+    public void recordLoadFailure(long loadTime) {
+        loadFailureCount.increment();
+        totalLoadTime.add(loadTime);
+    }
+
+    public void recordRemoval(RemovalCause cause) {
+        switch (cause) {
+        case SIZE:
+            sizeEvictionCount.increment();
+            break;
+        case EXPIRED:
+            expiredCount.increment();
+            break;
+        case COLLECTED:
+            collectedCount.increment();
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * 返回当前统计信息的快照.
+     *
+     * @param weight    cache 中当前的对象数量
+     */
+    public CacheStats snapshot(long weight) {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(), totalLoadTime.sum(), sizeEvictionCount.sum(), expiredCount.sum(), collectedCount.sum(), weight);
+    }
+}
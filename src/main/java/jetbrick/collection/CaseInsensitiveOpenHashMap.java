@@ -0,0 +1,444 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 不区分大小写的开放地址 (线性探测) Map 实现，适用于 HTTP header、JDBC 列名等高频查找的场景.
+ * <p>
+ * 与 {@link CaseInsensitiveHashMap} 不同，查找时直接按照 ASCII 规则在原始字符串上计算 hash 和比较，
+ * 不需要创建小写的 key；只有 key 中包含非 ASCII 字符时，才使用 locale 规则转换为小写.
+ * 每个 entry 只保存一次，保留第一次 put 时的原始 key.
+ * <p>
+ * 不支持 null key，非线程安全.
+ *
+ * @author Guoqiang Chen
+ */
+public class CaseInsensitiveOpenHashMap<V> extends AbstractMap<String, V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final String TOMBSTONE = new String("<removed>");
+
+    private final Locale locale;
+    private String[] keys; // null = empty slot, TOMBSTONE = removed
+    private String[] foldedKeys; // lower-case key for non-ascii keys, null for ascii keys
+    private int[] hashes;
+    private Object[] values;
+    private int size;
+    private int used; // size + tombstones
+    private int threshold;
+    private int modCount;
+    private Set<Map.Entry<String, V>> entrySet;
+
+    public CaseInsensitiveOpenHashMap() {
+        this(DEFAULT_CAPACITY, null);
+    }
+
+    public CaseInsensitiveOpenHashMap(int expectedSize) {
+        this(expectedSize, null);
+    }
+
+    public CaseInsensitiveOpenHashMap(Locale locale) {
+        this(DEFAULT_CAPACITY, locale);
+    }
+
+    /**
+     * @param expectedSize  预期的 entry 数量
+     * @param locale        非 ASCII 字符串转换为小写时使用的 locale，null 表示默认 locale
+     */
+    public CaseInsensitiveOpenHashMap(int expectedSize, Locale locale) {
+        this.locale = (locale != null ? locale : Locale.getDefault());
+        allocate(tableSizeFor(Math.max(expectedSize, 2)));
+    }
+
+    public CaseInsensitiveOpenHashMap(Map<String, ? extends V> map) {
+        this(map.size(), null);
+        putAll(map);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return (key instanceof String) && indexOf((String) key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key instanceof String) {
+            int index = indexOf((String) key);
+            if (index >= 0) {
+                return (V) values[index];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(String key, V value) {
+        if (key == null) {
+            throw new NullPointerException("key is null");
+        }
+        String folded = isAscii(key) ? null : key.toLowerCase(locale);
+        int hash = (folded == null) ? asciiHash(key) : spread(folded.hashCode());
+
+        int mask = keys.length - 1;
+        int index = hash & mask;
+        int tombstone = -1;
+        String k;
+        while ((k = keys[index]) != null) {
+            if (k == TOMBSTONE) {
+                if (tombstone < 0) {
+                    tombstone = index;
+                }
+            } else if (hashes[index] == hash && matches(key, folded, k, foldedKeys[index])) {
+                V old = (V) values[index];
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (tombstone >= 0) {
+            index = tombstone;
+        } else {
+            used++;
+        }
+        keys[index] = key;
+        foldedKeys[index] = folded;
+        hashes[index] = hash;
+        values[index] = value;
+        size++;
+        modCount++;
+        if (used > threshold) {
+            rehash(size > threshold / 2 ? keys.length << 1 : keys.length);
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key instanceof String) {
+            int index = indexOf((String) key);
+            if (index >= 0) {
+                return removeAt(index);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        if (used > 0) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = null;
+                foldedKeys[i] = null;
+                values[i] = null;
+            }
+            size = 0;
+            used = 0;
+            modCount++;
+        }
+    }
+
+    /**
+     * 不创建 entry 对象的遍历.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super String, ? super V> action) {
+        int mc = modCount;
+        String[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++) {
+            String k = keys[i];
+            if (k != null && k != TOMBSTONE) {
+                action.accept(k, (V) values[i]);
+            }
+        }
+        if (mc != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        Set<Map.Entry<String, V>> es = entrySet;
+        if (es == null) {
+            es = new AbstractSet<Map.Entry<String, V>>() {
+                @Override
+                public Iterator<Map.Entry<String, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    CaseInsensitiveOpenHashMap.this.clear();
+                }
+            };
+            entrySet = es;
+        }
+        return es;
+    }
+
+    // ----------------------------------------------------------------------
+
+    private int indexOf(String key) {
+        String folded = isAscii(key) ? null : key.toLowerCase(locale);
+        int hash = (folded == null) ? asciiHash(key) : spread(folded.hashCode());
+
+        int mask = keys.length - 1;
+        int index = hash & mask;
+        String k;
+        while ((k = keys[index]) != null) {
+            if (k != TOMBSTONE && hashes[index] == hash && matches(key, folded, k, foldedKeys[index])) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int index) {
+        V old = (V) values[index];
+        keys[index] = TOMBSTONE;
+        foldedKeys[index] = null;
+        values[index] = null;
+        size--;
+        modCount++;
+        return old;
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        foldedKeys = new String[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+        threshold = (capacity >> 1) + (capacity >> 2); // 0.75
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        String[] oldFoldedKeys = foldedKeys;
+        int[] oldHashes = hashes;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            String k = oldKeys[i];
+            if (k != null && k != TOMBSTONE) {
+                int index = oldHashes[i] & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = k;
+                foldedKeys[index] = oldFoldedKeys[i];
+                hashes[index] = oldHashes[i];
+                values[index] = oldValues[i];
+            }
+        }
+        used = size;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long capacity = (long) expectedSize * 4 / 3 + 1;
+        if (capacity >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) capacity - 1) << 1);
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    // 等价于 s.toLowerCase().hashCode() (只包含 ASCII 字符时)，再进行扰动
+    private static int asciiHash(String s) {
+        int h = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            h = 31 * h + toLowerAscii(s.charAt(i));
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    // 比较两个字符串，ASCII 大写字母被视为小写
+    private static boolean asciiEqualsIgnoreCase(String a, String b) {
+        int n = a.length();
+        if (n != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            char c1 = a.charAt(i);
+            char c2 = b.charAt(i);
+            if (c1 != c2 && toLowerAscii(c1) != toLowerAscii(c2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // folded 为 null 表示 key 只包含 ASCII 字符
+    private static boolean matches(String key, String folded, String k, String kFolded) {
+        if (folded == null) {
+            return asciiEqualsIgnoreCase(key, (kFolded == null) ? k : kFolded);
+        }
+        return asciiEqualsIgnoreCase(folded, (kFolded == null) ? k : kFolded);
+    }
+
+    final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+        private int next;
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        EntryIterator() {
+            next = advance(0);
+        }
+
+        private int advance(int i) {
+            String[] keys = CaseInsensitiveOpenHashMap.this.keys;
+            while (i < keys.length && (keys[i] == null || keys[i] == TOMBSTONE)) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= keys.length) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = advance(next + 1);
+            return new TableEntry(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(current); // tombstone, the table is never rehashed on remove
+            current = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    final class TableEntry implements Map.Entry<String, V> {
+        private final int index;
+        private final String key;
+
+        TableEntry(int index) {
+            this.index = index;
+            this.key = keys[index];
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (keys[index] == key) ? (V) values[index] : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            if (keys[index] != key) {
+                throw new IllegalStateException("entry has been removed");
+            }
+            V old = (V) values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Object value = getValue();
+            return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * 线程安全的计数器 Map，适用于按 route, tenant, status 等维度统计请求数.
+ * <p>
+ * 每个 key 对应一个类似 {@link java.util.concurrent.atomic.LongAdder} 的分段计数器:
+ * 没有竞争时只更新一个 base 值，出现 CAS 竞争后扩展为多个按 cache line 填充的 cell，因此热点 key 不会成为瓶颈.
+ * 每个线程使用自己的 xorshift probe 选择 cell，在 cell 上发生竞争时重新 hash 到另一个 cell.
+ * key 已经存在时 {@link #increment(Object, long)} 不会分配任何对象.
+ * <p>
+ * {@link #snapshotAndReset()} 对每个 cell 使用 getAndSet(0)，和它并发的 increment 不会丢失，只会计入下一次快照.
+ *
+ * <pre>
+ * ConcurrentCounterMap&lt;String&gt; counters = new ConcurrentCounterMap&lt;String&gt;();
+ * counters.increment("/api/users");
+ * ...
+ * Map&lt;String, Long&gt; stats = counters.snapshotAndReset(); // 定时导出
+ * </pre>
+ *
+ * @author Guoqiang Chen
+ */
+public final class ConcurrentCounterMap<K> {
+    private static final int MAX_CELLS = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+    private static final ThreadLocal<Probe> PROBE = new ThreadLocal<Probe>() {
+        @Override
+        protected Probe initialValue() {
+            return new Probe(Thread.currentThread().getId());
+        }
+    };
+
+    private final ConcurrentHashMap<K, Counter> map;
+    private final Function<K, Counter> factory = new Function<K, Counter>() {
+        @Override
+        public Counter apply(K key) {
+            return new Counter();
+        }
+    };
+
+    public ConcurrentCounterMap() {
+        this(16);
+    }
+
+    public ConcurrentCounterMap(int initialCapacity) {
+        this.map = new ConcurrentHashMap<K, Counter>(initialCapacity);
+    }
+
+    public void increment(K key) {
+        counter(key).add(1);
+    }
+
+    public void increment(K key, long delta) {
+        counter(key).add(delta);
+    }
+
+    public void decrement(K key) {
+        counter(key).add(-1);
+    }
+
+    /**
+     * 返回 key 的当前计数，不存在返回 0.
+     */
+    public long get(K key) {
+        Counter counter = map.get(key);
+        return (counter == null) ? 0 : counter.sum();
+    }
+
+    /**
+     * 返回所有 key 的计数之和.
+     */
+    public long sum() {
+        long sum = 0;
+        for (Counter counter : map.values()) {
+            sum += counter.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * 删除 key，返回删除时的计数. 和删除并发的 increment 可能会丢失.
+     */
+    public long remove(K key) {
+        Counter counter = map.remove(key);
+        return (counter == null) ? 0 : counter.sum();
+    }
+
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    public Set<K> keySet() {
+        return map.keySet();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /**
+     * 删除所有的 key. 和清除并发的 increment 可能会丢失，定时导出请使用 {@link #snapshotAndReset()}.
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * 遍历所有 key 的当前计数，不会分配额外的对象.
+     */
+    public void forEach(ObjLongConsumer<? super K> action) {
+        for (Map.Entry<K, Counter> entry : map.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue().sum());
+        }
+    }
+
+    /**
+     * 返回所有 key 的当前计数.
+     */
+    public Map<K, Long> snapshot() {
+        Map<K, Long> result = new HashMap<K, Long>(map.size() * 2);
+        for (Map.Entry<K, Counter> entry : map.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    /**
+     * 返回自上次 reset 以来的计数 (只包含非 0 的 key)，并将所有计数器清零.
+     * key 本身会保留，之后的 increment 依然不需要分配对象.
+     */
+    public Map<K, Long> snapshotAndReset() {
+        Map<K, Long> result = new HashMap<K, Long>(map.size() * 2);
+        for (Map.Entry<K, Counter> entry : map.entrySet()) {
+            long value = entry.getValue().sumThenReset();
+            if (value != 0) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    private Counter counter(K key) {
+        Counter counter = map.get(key);
+        if (counter == null) {
+            counter = map.computeIfAbsent(key, factory);
+        }
+        return counter;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(Math.max(1, x) - 1);
+    }
+
+    // ----------------------------------------------------------------------
+
+    static final class Counter {
+        private static final AtomicLongFieldUpdater<Counter> BASE = AtomicLongFieldUpdater.newUpdater(Counter.class, "base");
+
+        private volatile long base;
+        private volatile Cell[] cells;
+
+        void add(long x) {
+            Cell[] cs = cells;
+            if (cs == null) {
+                long b = base;
+                if (BASE.compareAndSet(this, b, b + x)) {
+                    return;
+                }
+                cs = expand(null);
+            }
+            Probe probe = PROBE.get();
+            int h = probe.hash;
+            boolean rehashed = false;
+            for (;;) {
+                Cell cell = cs[h & (cs.length - 1)];
+                long v = cell.value;
+                if (Cell.VALUE.compareAndSet(cell, v, v + x)) {
+                    return;
+                }
+                if (!rehashed) {
+                    // 出现竞争，先换一个 cell 重试
+                    h = probe.advance();
+                    rehashed = true;
+                } else if (cs.length < MAX_CELLS) {
+                    // 仍然竞争，扩展 cell 数组 (最多为 CPU 数量)
+                    cs = expand(cs);
+                    rehashed = false;
+                } else {
+                    Cell.VALUE.getAndAdd(cell, x);
+                    probe.advance();
+                    return;
+                }
+            }
+        }
+
+        private synchronized Cell[] expand(Cell[] expected) {
+            Cell[] cs = cells;
+            if (cs != expected) {
+                return cs; // 已经被其它线程扩展了
+            }
+            int n = (cs == null) ? 2 : cs.length << 1;
+            Cell[] newCells = new Cell[Math.min(n, Math.max(MAX_CELLS, 2))];
+            int i = 0;
+            if (cs != null) {
+                System.arraycopy(cs, 0, newCells, 0, cs.length);
+                i = cs.length;
+            }
+            for (; i < newCells.length; i++) {
+                newCells[i] = new Cell();
+            }
+            cells = newCells;
+            return newCells;
+        }
+
+        long sum() {
+            long sum = base;
+            Cell[] cs = cells;
+            if (cs != null) {
+                for (Cell cell : cs) {
+                    sum += cell.value;
+                }
+            }
+            return sum;
+        }
+
+        long sumThenReset() {
+            long sum = BASE.getAndSet(this, 0);
+            Cell[] cs = cells;
+            if (cs != null) {
+                for (Cell cell : cs) {
+                    sum += Cell.VALUE.getAndSet(cell, 0);
+                }
+            }
+            return sum;
+        }
+    }
+
+    // 每个线程选择 cell 的 hash 值，只由所属线程访问
+    static final class Probe {
+        int hash;
+
+        Probe(long seed) {
+            int h = (int) (seed ^ (seed >>> 32)) * 0x9E3779B9;
+            h ^= h >>> 16;
+            hash = (h == 0) ? 1 : h; // xorshift 不能从 0 开始
+        }
+
+        int advance() {
+            int h = hash;
+            h ^= h << 13;
+            h ^= h >>> 17;
+            h ^= h << 5;
+            hash = h;
+            return h;
+        }
+    }
+
+    // 通过继承保证 value 前后各有 56 bytes 的填充，避免相邻 cell 的伪共享
+
+    static abstract class CellLhsPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    static abstract class CellValue extends CellLhsPadding {
+        volatile long value;
+    }
+
+    static final class Cell extends CellValue {
+        static final AtomicLongFieldUpdater<CellValue> VALUE = AtomicLongFieldUpdater.newUpdater(CellValue.class, "value");
+
+        long p11, p12, p13, p14, p15, p16, p17;
+    }
+}
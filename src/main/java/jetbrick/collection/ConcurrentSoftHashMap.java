@@ -22,16 +22,16 @@ package jetbrick.collection;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * A <code><em>Soft</em>HashMap</code> is a memory-constrained map that stores its <em>values</em> in
@@ -48,6 +48,9 @@ import java.util.concurrent.locks.ReentrantLock;
  * continued modifications.
  * <p>
  * This implementation is thread-safe and usable in concurrent environments.
+ * <p>
+ * Hit/miss and GC clearance counts can be collected after {@link #enableStats()}, and removals can be observed
+ * through a {@link RemovalListener}.
  */
 public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
 
@@ -68,16 +71,30 @@ public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
     private final int RETENTION_SIZE;
 
     /**
-     * The FIFO list of strong references (not to be garbage collected), order of last access.
+     * The ring of strong references (not to be garbage collected), order of last access.  The oldest reference
+     * is overwritten when the ring is full, so retaining a value is O(1).
      */
-    private final Queue<V> strongReferences; //guarded by 'strongReferencesLock'
+    private final Object[] strongReferences; //guarded by 'strongReferencesLock'
+    private int strongReferencesIndex; //guarded by 'strongReferencesLock'
     private final ReentrantLock strongReferencesLock;
 
+    /**
+     * Lossy striped buffer of recently accessed values.  Readers record values without locking, and the buffer
+     * is drained into the strong reference ring in batches by whichever thread wins the tryLock.
+     */
+    private final ReadBuffer<V> recentValues;
+    private final Consumer<V> retainConsumer;
+
     /**
      * Reference queue for cleared SoftReference objects.
      */
     private final ReferenceQueue<? super V> queue;
 
+    /**
+     * Records stats and dispatches removal events.
+     */
+    private final RemovalNotifier<K, V> notifier;
+
     /**
      * Creates a new ConcurrentSoftHashMap with a default retention size size of
      * {@link #DEFAULT_RETENTION_SIZE DEFAULT_RETENTION_SIZE} (100 entries).
@@ -109,7 +126,15 @@ public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
         queue = new ReferenceQueue<V>();
         strongReferencesLock = new ReentrantLock();
         map = new ConcurrentHashMap<K, SoftValue<V, K>>();
-        strongReferences = new ConcurrentLinkedQueue<V>();
+        strongReferences = new Object[RETENTION_SIZE];
+        recentValues = new ReadBuffer<V>();
+        retainConsumer = new Consumer<V>() {
+            @Override
+            public void accept(V value) {
+                retain(value);
+            }
+        };
+        notifier = new RemovalNotifier<K, V>();
     }
 
     /**
@@ -147,6 +172,17 @@ public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
 
     @Override
     public V get(Object key) {
+        V result = get0(key);
+        if (result == null) {
+            notifier.getStatsCounter().recordMisses(1);
+        } else {
+            notifier.getStatsCounter().recordHits(1);
+        }
+        return result;
+    }
+
+    // same as get(), but does not record hit/miss stats
+    private V get0(Object key) {
         processQueue();
 
         V result = null;
@@ -158,7 +194,10 @@ public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
             if (result == null) {
                 //The wrapped value was garbage collected, so remove this entry from the backing map:
                 //noinspection SuspiciousMethodCalls
-                map.remove(key);
+                if (map.remove(key, value)) {
+                    notifier.notify(value.key, null, RemovalCause.COLLECTED);
+                    notifier.dispatch();
+                }
             } else {
                 //Add this value to the beginning of the strong reference queue (FIFO).
                 addToStrongReferences(result);
@@ -168,22 +207,25 @@ public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
     }
 
     private void addToStrongReferences(V result) {
-        strongReferencesLock.lock();
-        try {
-            strongReferences.add(result);
-            trimStrongReferencesIfNecessary();
-        } finally {
-            strongReferencesLock.unlock();
+        if (RETENTION_SIZE == 0) {
+            return;
+        }
+        //lock-free: the value is strongly held by the buffer until it is drained into the ring
+        if (recentValues.offer(result) && strongReferencesLock.tryLock()) {
+            try {
+                recentValues.drainTo(retainConsumer);
+            } finally {
+                strongReferencesLock.unlock();
+            }
         }
-
     }
 
-    //Guarded by the strongReferencesLock in the addToStrongReferences method
-
-    private void trimStrongReferencesIfNecessary() {
-        //trim the strong ref queue if necessary:
-        while (strongReferences.size() > RETENTION_SIZE) {
-            strongReferences.poll();
+    //Called via retainConsumer while draining recentValues, only by the thread holding strongReferencesLock
+    //(the tryLock winner in addToStrongReferences, or clear); writes the next slot of the strongReferences ring.
+    private void retain(V value) {
+        strongReferences[strongReferencesIndex] = value;
+        if (++strongReferencesIndex == RETENTION_SIZE) {
+            strongReferencesIndex = 0;
         }
     }
 
@@ -191,14 +233,46 @@ public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
      * Traverses the ReferenceQueue and removes garbage-collected SoftValue objects from the backing map
      * by looking them up using the SoftValue.key data member.
      */
+    @SuppressWarnings("unchecked")
     private void processQueue() {
-        SoftValue<?, ?> sv;
-        while ((sv = (SoftValue<?, ?>) queue.poll()) != null) {
-            //noinspection SuspiciousMethodCalls
-            map.remove(sv.key); // we can access private data!
+        SoftValue<V, K> sv;
+        boolean removed = false;
+        while ((sv = (SoftValue<V, K>) queue.poll()) != null) {
+            // only remove the entry if it is still mapped to the cleared reference (not a newer value)
+            if (map.remove(sv.key, sv)) { // we can access private data!
+                notifier.notify(sv.key, null, RemovalCause.COLLECTED);
+                removed = true;
+            }
+        }
+        if (removed) {
+            notifier.dispatch();
+        }
+    }
+
+    /**
+     * Enables hit/miss and eviction statistics (disabled by default).
+     */
+    public void enableStats() {
+        if (notifier.getStatsCounter() == CacheStatsCounter.DISABLED) {
+            notifier.setStatsCounter(new CacheStatsCounter());
         }
     }
 
+    /**
+     * Returns a snapshot of the statistics; all counts are zero if stats are not enabled.
+     */
+    public CacheStats getStats() {
+        processQueue();
+        return notifier.getStatsCounter().snapshot(map.size());
+    }
+
+    /**
+     * Sets the listener notified when an entry is replaced, removed or cleared by the GC ({@code null} to unset).
+     */
+    public void setRemovalListener(RemovalListener<? super K, ? super V> listener) {
+        notifier.setListener(listener);
+    }
+
     @Override
     public boolean isEmpty() {
         processQueue();
@@ -245,7 +319,7 @@ public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
         }
         Collection<V> values = new ArrayList<V>(keys.size());
         for (K key : keys) {
-            V v = get(key);
+            V v = get0(key);
             if (v != null) {
                 values.add(v);
             }
@@ -262,26 +336,47 @@ public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
         SoftValue<V, K> sv = new SoftValue<V, K>(value, key, queue);
         SoftValue<V, K> previous = map.put(key, sv);
         addToStrongReferences(value);
-        return previous != null ? previous.get() : null;
+        if (previous == null) {
+            return null;
+        }
+        V old = previous.get();
+        notifier.notify(key, old, (old == null) ? RemovalCause.COLLECTED : RemovalCause.REPLACED);
+        notifier.dispatch();
+        return old;
     }
 
     @Override
     public V remove(Object key) {
         processQueue(); // throw out garbage collected values first
         SoftValue<V, K> raw = map.remove(key);
-        return raw != null ? raw.get() : null;
+        if (raw == null) {
+            return null;
+        }
+        V old = raw.get();
+        notifier.notify(raw.key, old, (old == null) ? RemovalCause.COLLECTED : RemovalCause.EXPLICIT);
+        notifier.dispatch();
+        return old;
     }
 
     @Override
     public void clear() {
         strongReferencesLock.lock();
         try {
-            strongReferences.clear();
+            recentValues.drainTo(retainConsumer);
+            Arrays.fill(strongReferences, null);
+            strongReferencesIndex = 0;
         } finally {
             strongReferencesLock.unlock();
         }
         processQueue(); // throw out garbage collected values
-        map.clear();
+        for (K key : map.keySet()) {
+            SoftValue<V, K> raw = map.remove(key);
+            if (raw != null) {
+                V old = raw.get();
+                notifier.notify(key, old, (old == null) ? RemovalCause.COLLECTED : RemovalCause.EXPLICIT);
+            }
+        }
+        notifier.dispatch();
     }
 
     @Override
@@ -301,7 +396,7 @@ public class ConcurrentSoftHashMap<K, V> implements Map<K, V> {
 
         Map<K, V> kvPairs = new HashMap<K, V>(keys.size());
         for (K key : keys) {
-            V v = get(key);
+            V v = get0(key);
             if (v != null) {
                 kvPairs.put(key, v);
             }
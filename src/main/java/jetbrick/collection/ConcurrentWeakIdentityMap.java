@@ -0,0 +1,296 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 线程安全的 weak key Map，key 使用 identity (==) 比较，适用于以 Class, ClassLoader 等为 key 的 cache.
+ * <p>
+ * key 被 GC 回收之后，对应的 entry 会通过 ReferenceQueue 在后续的访问中被清除，不需要全局锁.
+ * 注意：value 不能强引用 key (比如 value 中保存了 key 对应的 Class)，否则 key 永远不会被回收.
+ * 不允许 null key 和 null value，迭代器是弱一致性的.
+ *
+ * @author Guoqiang Chen
+ */
+public final class ConcurrentWeakIdentityMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    private final ConcurrentHashMap<Object, V> map;
+    private final ReferenceQueue<K> queue = new ReferenceQueue<K>();
+    private Set<Map.Entry<K, V>> entrySet;
+
+    public ConcurrentWeakIdentityMap() {
+        this(16);
+    }
+
+    public ConcurrentWeakIdentityMap(int initialCapacity) {
+        this.map = new ConcurrentHashMap<Object, V>(initialCapacity);
+    }
+
+    @Override
+    public V get(Object key) {
+        purge();
+        return map.get(new LookupKey(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        purge();
+        return map.containsKey(new LookupKey(key));
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        purge();
+        return map.put(new WeakKey<K>(key, queue), value);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        purge();
+        V old = map.get(new LookupKey(key));
+        if (old != null) {
+            return old;
+        }
+        return map.putIfAbsent(new WeakKey<K>(key, queue), value);
+    }
+
+    /**
+     * 如果 key 不存在，则调用 mappingFunction 计算 value，同一个 key 的计算最多只会执行一次.
+     */
+    @Override
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        purge();
+        V value = map.get(new LookupKey(key));
+        if (value != null) {
+            return value;
+        }
+        return map.computeIfAbsent(new WeakKey<K>(key, queue), new Function<Object, V>() {
+            @Override
+            public V apply(Object k) {
+                return mappingFunction.apply(key);
+            }
+        });
+    }
+
+    @Override
+    public V remove(Object key) {
+        purge();
+        return map.remove(new LookupKey(key));
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        purge();
+        return map.remove(new LookupKey(key), value);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        purge();
+        return map.replace(new LookupKey(key), oldValue, newValue);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        purge();
+        return map.replace(new LookupKey(key), value);
+    }
+
+    /**
+     * 返回的数量可能包含 key 已经被回收，但是还没有清除的 entry.
+     */
+    @Override
+    public int size() {
+        purge();
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        purge();
+        return map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        while (queue.poll() != null) {
+            // discard
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> es = entrySet;
+        if (es == null) {
+            es = new EntrySet();
+            entrySet = es;
+        }
+        return es;
+    }
+
+    /**
+     * 清除 key 已经被回收的 entry.
+     */
+    @SuppressWarnings("unchecked")
+    public void purge() {
+        WeakKey<K> ref;
+        while ((ref = (WeakKey<K>) queue.poll()) != null) {
+            map.remove(ref);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+
+    static final class WeakKey<K> extends WeakReference<K> {
+        final int hash;
+
+        WeakKey(K key, ReferenceQueue<? super K> queue) {
+            super(requireKey(key), queue);
+            this.hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            Object key = get();
+            if (key == null) {
+                return false;
+            }
+            if (obj instanceof WeakKey) {
+                return key == ((WeakKey<?>) obj).get();
+            }
+            if (obj instanceof LookupKey) {
+                return key == ((LookupKey) obj).key;
+            }
+            return false;
+        }
+    }
+
+    static final class LookupKey {
+        final Object key;
+        final int hash;
+
+        LookupKey(Object key) {
+            this.key = requireKey(key);
+            this.hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof WeakKey) {
+                return key == ((WeakKey<?>) obj).get();
+            }
+            if (obj instanceof LookupKey) {
+                return key == ((LookupKey) obj).key;
+            }
+            return false;
+        }
+    }
+
+    static <T> T requireKey(T key) {
+        if (key == null) {
+            throw new NullPointerException("key");
+        }
+        return key;
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public int size() {
+            return ConcurrentWeakIdentityMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentWeakIdentityMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            purge();
+            final Iterator<Map.Entry<Object, V>> it = map.entrySet().iterator();
+            return new Iterator<Map.Entry<K, V>>() {
+                private Map.Entry<K, V> next;
+                private Map.Entry<K, V> last;
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public boolean hasNext() {
+                    while (next == null && it.hasNext()) {
+                        Map.Entry<Object, V> entry = it.next();
+                        // key 已经被回收的 entry 直接跳过，它会在下次 purge 时被清除
+                        K key = ((WeakKey<K>) entry.getKey()).get();
+                        if (key != null) {
+                            next = new SimpleImmutableEntry<K, V>(key, entry.getValue());
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = null;
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    map.remove(new LookupKey(last.getKey()), last.getValue());
+                    last = null;
+                }
+            };
+        }
+    }
+}
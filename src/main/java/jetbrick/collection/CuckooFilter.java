@@ -0,0 +1,376 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.io.File;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import jetbrick.io.IoUtils;
+
+/**
+ * Cuckoo filter，和 {@link BloomFilter} 一样用于近似的成员判断，但是支持删除元素，并且在误判率较低时更省空间.
+ * <p>
+ * 每个 bucket 保存 4 个 fingerprint，fingerprint 的位数由误判率决定 (4 ~ 32 bits)，紧凑地保存在 long[] 中.
+ * 当插入失败时 (filter 已满)，{@link #put(long)} 返回 false. 所有操作都是线程安全的.
+ *
+ * @see BloomFilter
+ * @author Guoqiang Chen
+ */
+public final class CuckooFilter {
+    private static final int MAGIC = 0x43554B4F; // "CUKO"
+    private static final int TAGS_PER_BUCKET = 4;
+    private static final int MAX_KICKS = 500;
+    private static final double LOAD_FACTOR = 0.95;
+
+    private final long[] data;
+    private final int bitsPerTag;
+    private final long tagMask;
+    private final int bucketMask;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long count;
+    private int seed = 0x2545F491;
+
+    // 最后一次踢出失败的 fingerprint
+    private boolean victimUsed;
+    private int victimIndex;
+    private long victimTag;
+
+    private CuckooFilter(int numBuckets, int bitsPerTag) {
+        long totalBits = (long) numBuckets * TAGS_PER_BUCKET * bitsPerTag;
+        this.data = new long[(int) ((totalBits + Long.SIZE - 1) / Long.SIZE) + 1];
+        this.bitsPerTag = bitsPerTag;
+        this.tagMask = (1L << bitsPerTag) - 1;
+        this.bucketMask = numBuckets - 1;
+    }
+
+    /**
+     * 创建一个 CuckooFilter.
+     *
+     * @param expectedInsertions 预计插入的元素个数
+     * @param fpp 期望的误判率 (0 &lt; fpp &lt; 1)
+     */
+    public static CuckooFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions < 0) {
+            throw new IllegalArgumentException("expectedInsertions must be >= 0: " + expectedInsertions);
+        }
+        if (!(fpp > 0.0 && fpp < 1.0)) {
+            throw new IllegalArgumentException("fpp must be in (0, 1): " + fpp);
+        }
+        int bitsPerTag = (int) Math.ceil(Math.log(2.0 * TAGS_PER_BUCKET / fpp) / Math.log(2));
+        bitsPerTag = Math.max(4, Math.min(32, bitsPerTag));
+
+        long buckets = (long) Math.ceil(Math.max(expectedInsertions, 1) / (TAGS_PER_BUCKET * LOAD_FACTOR));
+        long numBuckets = Long.highestOneBit(Math.max(buckets, 1) * 2 - 1);
+        if (numBuckets * TAGS_PER_BUCKET * bitsPerTag / Long.SIZE >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many buckets for cuckoo filter: " + numBuckets);
+        }
+        return new CuckooFilter((int) numBuckets, bitsPerTag);
+    }
+
+    public boolean put(long value) {
+        return put0(FilterHashing.hash(value));
+    }
+
+    public boolean put(CharSequence value) {
+        return put0(FilterHashing.hash(value));
+    }
+
+    public boolean put(byte[] value) {
+        return put0(FilterHashing.hash(value));
+    }
+
+    /**
+     * @return 成功插入的元素个数
+     */
+    public int putAll(long[] values) {
+        int n = 0;
+        for (long value : values) {
+            if (put0(FilterHashing.hash(value))) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return 成功插入的元素个数
+     */
+    public int putAll(Iterable<? extends CharSequence> values) {
+        int n = 0;
+        for (CharSequence value : values) {
+            if (put0(FilterHashing.hash(value))) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    public boolean mightContain(long value) {
+        return mightContain0(FilterHashing.hash(value));
+    }
+
+    public boolean mightContain(CharSequence value) {
+        return mightContain0(FilterHashing.hash(value));
+    }
+
+    public boolean mightContain(byte[] value) {
+        return mightContain0(FilterHashing.hash(value));
+    }
+
+    /**
+     * 删除一个之前插入过的元素，删除从未插入过的元素会导致其它元素被误删.
+     */
+    public boolean remove(long value) {
+        return remove0(FilterHashing.hash(value));
+    }
+
+    public boolean remove(CharSequence value) {
+        return remove0(FilterHashing.hash(value));
+    }
+
+    public boolean remove(byte[] value) {
+        return remove0(FilterHashing.hash(value));
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getBitsPerTag() {
+        return bitsPerTag;
+    }
+
+    public int getBucketCount() {
+        return bucketMask + 1;
+    }
+
+    // ----------------------------------------------------------------------
+
+    private boolean put0(long hash) {
+        long tag = fingerprint(hash);
+        int index = (int) hash & bucketMask;
+        lock.writeLock().lock();
+        try {
+            if (victimUsed) {
+                return false;
+            }
+            if (insertTag(index, tag) || insertTag(altIndex(index, tag), tag)) {
+                count++;
+                return true;
+            }
+            if ((hash & 1) != 0) {
+                index = altIndex(index, tag);
+            }
+            kick(index, tag);
+            count++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 踢出已有的 fingerprint 到它的备用 bucket，失败时保存到 victim 中
+    private void kick(int index, long tag) {
+        for (int n = 0; n < MAX_KICKS; n++) {
+            int slot = nextRandom() & (TAGS_PER_BUCKET - 1);
+            long old = getTag(index, slot);
+            setTag(index, slot, tag);
+            tag = old;
+            index = altIndex(index, tag);
+            if (insertTag(index, tag)) {
+                return;
+            }
+        }
+        victimUsed = true;
+        victimIndex = index;
+        victimTag = tag;
+    }
+
+    private boolean mightContain0(long hash) {
+        long tag = fingerprint(hash);
+        int i1 = (int) hash & bucketMask;
+        int i2 = altIndex(i1, tag);
+        lock.readLock().lock();
+        try {
+            if (victimUsed && victimTag == tag && (victimIndex == i1 || victimIndex == i2)) {
+                return true;
+            }
+            return findTag(i1, tag) >= 0 || findTag(i2, tag) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean remove0(long hash) {
+        long tag = fingerprint(hash);
+        int i1 = (int) hash & bucketMask;
+        int i2 = altIndex(i1, tag);
+        lock.writeLock().lock();
+        try {
+            int slot;
+            if ((slot = findTag(i1, tag)) >= 0) {
+                setTag(i1, slot, 0);
+            } else if ((slot = findTag(i2, tag)) >= 0) {
+                setTag(i2, slot, 0);
+            } else if (victimUsed && victimTag == tag && (victimIndex == i1 || victimIndex == i2)) {
+                victimUsed = false;
+                count--;
+                return true;
+            } else {
+                return false;
+            }
+            count--;
+            if (victimUsed) {
+                // 腾出了空间，重新插入 victim
+                victimUsed = false;
+                if (!insertTag(victimIndex, victimTag)) {
+                    kick(victimIndex, victimTag);
+                }
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean insertTag(int index, long tag) {
+        for (int slot = 0; slot < TAGS_PER_BUCKET; slot++) {
+            if (getTag(index, slot) == 0) {
+                setTag(index, slot, tag);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int findTag(int index, long tag) {
+        for (int slot = 0; slot < TAGS_PER_BUCKET; slot++) {
+            if (getTag(index, slot) == tag) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private long getTag(int index, int slot) {
+        long bitPos = ((long) index * TAGS_PER_BUCKET + slot) * bitsPerTag;
+        int word = (int) (bitPos >>> 6);
+        int offset = (int) (bitPos & 63);
+        long value = data[word] >>> offset;
+        if (offset + bitsPerTag > Long.SIZE) {
+            value |= data[word + 1] << (Long.SIZE - offset);
+        }
+        return value & tagMask;
+    }
+
+    private void setTag(int index, int slot, long tag) {
+        long bitPos = ((long) index * TAGS_PER_BUCKET + slot) * bitsPerTag;
+        int word = (int) (bitPos >>> 6);
+        int offset = (int) (bitPos & 63);
+        data[word] = (data[word] & ~(tagMask << offset)) | (tag << offset);
+        if (offset + bitsPerTag > Long.SIZE) {
+            int shift = Long.SIZE - offset;
+            data[word + 1] = (data[word + 1] & ~(tagMask >>> shift)) | (tag >>> shift);
+        }
+    }
+
+    private long fingerprint(long hash) {
+        long tag = (hash >>> 32) & tagMask;
+        return (tag == 0) ? 1 : tag;
+    }
+
+    private int altIndex(int index, long tag) {
+        return (index ^ (int) FilterHashing.fmix64(tag)) & bucketMask;
+    }
+
+    private int nextRandom() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+
+    // ----------------------------------------------------------------------
+
+    public byte[] toByteArray() {
+        lock.readLock().lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(36 + data.length * 8);
+            buffer.putInt(MAGIC);
+            buffer.putInt(bitsPerTag);
+            buffer.putInt(bucketMask + 1);
+            buffer.putLong(count);
+            buffer.putInt(victimUsed ? 1 : 0);
+            buffer.putInt(victimIndex);
+            buffer.putLong(victimTag);
+            for (long word : data) {
+                buffer.putLong(word);
+            }
+            return buffer.array();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static CuckooFilter fromByteArray(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Invalid cuckoo filter data");
+            }
+            int bitsPerTag = buffer.getInt();
+            int numBuckets = buffer.getInt();
+            if (bitsPerTag < 4 || bitsPerTag > 32 || numBuckets <= 0 || Integer.bitCount(numBuckets) != 1) {
+                throw new IllegalArgumentException("Invalid cuckoo filter data");
+            }
+            CuckooFilter filter = new CuckooFilter(numBuckets, bitsPerTag);
+            filter.count = buffer.getLong();
+            filter.victimUsed = buffer.getInt() != 0;
+            filter.victimIndex = buffer.getInt();
+            filter.victimTag = buffer.getLong();
+            if (buffer.remaining() != filter.data.length * 8L) {
+                throw new IllegalArgumentException("Invalid cuckoo filter data");
+            }
+            for (int i = 0; i < filter.data.length; i++) {
+                filter.data[i] = buffer.getLong();
+            }
+            return filter;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid cuckoo filter data", e);
+        }
+    }
+
+    public void writeTo(File file) {
+        IoUtils.write(toByteArray(), file);
+    }
+
+    public static CuckooFilter readFrom(File file) {
+        return fromByteArray(IoUtils.toByteArray(file));
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+/**
+ * BloomFilter 和 CuckooFilter 共用的 64 位 hash 函数 (murmur3 fmix64 作为终结混淆).
+ */
+final class FilterHashing {
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long PRIME = 0x100000001B3L;
+
+    static long hash(long value) {
+        return fmix64(value ^ SEED);
+    }
+
+    static long hash(CharSequence value) {
+        long h = SEED ^ value.length();
+        for (int i = 0, n = value.length(); i < n; i++) {
+            h = (h ^ value.charAt(i)) * PRIME;
+        }
+        return fmix64(h);
+    }
+
+    static long hash(byte[] value) {
+        long h = SEED ^ value.length;
+        for (byte b : value) {
+            h = (h ^ (b & 0xFF)) * PRIME;
+        }
+        return fmix64(h);
+    }
+
+    static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import jetbrick.collection.bidimap.BidiMap;
+
+/**
+ * 不可变的 BidiMap，适用于启动时构建一次，之后只读的双向查找表 (如 code 和 name、枚举和编码的对照表).
+ * <p>
+ * 正向和反向查找共享同一对 key/value 数组，各自使用一个 int[] 作为开放地址的 hash 索引，
+ * {@link #inverse()} 不需要复制任何数据. 不允许 null key 和 null value，key 和 value 都不能重复.
+ *
+ * @author Guoqiang Chen
+ */
+public final class ImmutableBidiMap<K, V> extends AbstractMap<K, V> implements BidiMap<K, V> {
+    private final ImmutableMap<K, V> forward;
+    private final ImmutableBidiMap<V, K> inverse;
+
+    private ImmutableBidiMap(ImmutableMap<K, V> forward, ImmutableMap<V, K> backward) {
+        this.forward = forward;
+        this.inverse = new ImmutableBidiMap<V, K>(backward, this);
+    }
+
+    private ImmutableBidiMap(ImmutableMap<K, V> forward, ImmutableBidiMap<V, K> inverse) {
+        this.forward = forward;
+        this.inverse = inverse;
+    }
+
+    public static <K, V> ImmutableBidiMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        Builder<K, V> builder = new Builder<K, V>(map.size());
+        builder.putAll(map);
+        return builder.build();
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<K, V>(16);
+    }
+
+    public static <K, V> Builder<K, V> builder(int expectedSize) {
+        return new Builder<K, V>(expectedSize);
+    }
+
+    @Override
+    public int size() {
+        return forward.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return forward.isEmpty();
+    }
+
+    @Override
+    public V get(Object key) {
+        return forward.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return forward.containsKey(key);
+    }
+
+    @Override
+    public K getKey(Object value) {
+        return inverse.forward.get(value);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return inverse.forward.containsKey(value);
+    }
+
+    @Override
+    public K removeValue(Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public BidiMap<V, K> inverse() {
+        return inverse;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forward.forEach(action);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return forward.entrySet();
+    }
+
+    /**
+     * ImmutableBidiMap 的 builder，key 或者 value 重复时 {@link #build()} 抛出 {@link IllegalArgumentException}.
+     */
+    public static final class Builder<K, V> {
+        private final ImmutableMap.Builder<K, V> builder;
+
+        Builder(int expectedSize) {
+            this.builder = new ImmutableMap.Builder<K, V>(expectedSize);
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            builder.put(key, value);
+            return this;
+        }
+
+        public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+            builder.putAll(map);
+            return this;
+        }
+
+        public ImmutableBidiMap<K, V> build() {
+            Object[] keys = builder.keys.toArray();
+            Object[] values = builder.values.toArray();
+            int[] keyTable = ImmutableMap.Builder.table(keys, "key");
+            int[] valueTable = ImmutableMap.Builder.table(values, "value");
+            ImmutableMap<K, V> forward = new ImmutableMap<K, V>(keys, values, keyTable);
+            ImmutableMap<V, K> backward = new ImmutableMap<V, K>(values, keys, valueTable);
+            return new ImmutableBidiMap<K, V>(forward, backward);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 不可变的 Map，适用于启动时构建一次，之后只读的查找表.
+ * <p>
+ * key 和 value 按照插入顺序保存在两个数组中，另外使用一个 int[] 作为开放地址的 hash 索引 (负载因子不超过 0.5)，
+ * 没有每个 entry 的节点对象，查找时只访问连续的数组. 不允许 null key 和 null value.
+ *
+ * @author Guoqiang Chen
+ */
+public final class ImmutableMap<K, V> extends AbstractMap<K, V> {
+    @SuppressWarnings("rawtypes")
+    private static final ImmutableMap EMPTY = new ImmutableMap(new Object[0], new Object[0], new int[1]);
+
+    final Object[] keys;
+    final Object[] values;
+    final int[] table; // index + 1 of keys, 0 = empty
+    private Set<Map.Entry<K, V>> entrySet;
+
+    ImmutableMap(Object[] keys, Object[] values, int[] table) {
+        this.keys = keys;
+        this.values = values;
+        this.table = table;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableMap<K, V> of() {
+        return EMPTY;
+    }
+
+    public static <K, V> ImmutableMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        Builder<K, V> builder = new Builder<K, V>(map.size());
+        builder.putAll(map);
+        return builder.build();
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<K, V>(16);
+    }
+
+    public static <K, V> Builder<K, V> builder(int expectedSize) {
+        return new Builder<K, V>(expectedSize);
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int i = indexOf(keys, table, key);
+        return (i < 0) ? null : (V) values[i];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(keys, table, key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Object v : values) {
+            if (v.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept((K) keys[i], (V) values[i]);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> es = entrySet;
+        if (es == null) {
+            es = new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new Iterator<Map.Entry<K, V>>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < keys.length;
+                        }
+
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public Map.Entry<K, V> next() {
+                            if (index >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int i = index++;
+                            return new SimpleImmutableEntry<K, V>((K) keys[i], (V) values[i]);
+                        }
+                    };
+                }
+            };
+            entrySet = es;
+        }
+        return es;
+    }
+
+    // ----------------------------------------------------------------------
+
+    static int indexOf(Object[] keys, int[] table, Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        int i;
+        while ((i = table[slot]) != 0) {
+            Object k = keys[i - 1];
+            if (k == key || k.equals(key)) {
+                return i - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 创建 hash 索引.
+     *
+     * @return hash 索引，如果存在重复的 key，返回 null，并且将重复 key 的位置保存在 duplicate[0] 中
+     */
+    static int[] createTable(Object[] keys, int[] duplicate) {
+        int capacity = Integer.highestOneBit(Math.max(keys.length, 1) * 2 - 1) << 1;
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            Object key = keys[i];
+            int slot = hash(key) & mask;
+            int j;
+            while ((j = table[slot]) != 0) {
+                if (keys[j - 1].equals(key)) {
+                    duplicate[0] = i;
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        return table;
+    }
+
+    static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * ImmutableMap 的 builder，key 重复时 {@link #build()} 抛出 {@link IllegalArgumentException}.
+     */
+    public static final class Builder<K, V> {
+        final List<Object> keys;
+        final List<Object> values;
+
+        Builder(int expectedSize) {
+            this.keys = new ArrayList<Object>(expectedSize);
+            this.values = new ArrayList<Object>(expectedSize);
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            if (key == null || value == null) {
+                throw new NullPointerException("null key or value: " + key + "=" + value);
+            }
+            keys.add(key);
+            values.add(value);
+            return this;
+        }
+
+        public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+            for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        public ImmutableMap<K, V> build() {
+            Object[] keyArray = keys.toArray();
+            return new ImmutableMap<K, V>(keyArray, values.toArray(), table(keyArray, "key"));
+        }
+
+        static int[] table(Object[] keys, String name) {
+            int[] duplicate = new int[1];
+            int[] table = createTable(keys, duplicate);
+            if (table == null) {
+                throw new IllegalArgumentException("duplicate " + name + ": " + keys[duplicate[0]]);
+            }
+            return table;
+        }
+    }
+}
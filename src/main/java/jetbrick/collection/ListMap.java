@@ -26,19 +26,39 @@ import java.util.Map;
 import java.util.Set;
 import jetbrick.util.tuple.NameValuePair;
 
+/**
+ * 基于数组的有序 Map，按照插入顺序遍历.
+ * <p>
+ * 元素较少时直接顺序查找，内存占用很小；元素数量超过 hashThreshold 之后，
+ * 额外建立一个开放地址的 hash 索引 (保存元素在数组中的位置)，查找仍然是 O(1).
+ *
+ * @author Guoqiang Chen
+ */
 @SuppressWarnings("unchecked")
 public class ListMap<K, V> implements Map<K, V> {
+    private static final int DEFAULT_HASH_THRESHOLD = 8;
+
+    private final int hashThreshold;
     private Entry<K, V>[] items;
     private int size;
+    private int[] index; // position + 1 in items, 0 = empty; null if not indexed
 
     public ListMap() {
-        this.items = new Entry[16];
-        this.size = 0;
+        this(16, DEFAULT_HASH_THRESHOLD);
     }
 
     public ListMap(int initialCapacity) {
-        this.items = new Entry[initialCapacity];
+        this(initialCapacity, DEFAULT_HASH_THRESHOLD);
+    }
+
+    /**
+     * @param initialCapacity   初始容量
+     * @param hashThreshold     元素数量超过该值之后建立 hash 索引
+     */
+    public ListMap(int initialCapacity, int hashThreshold) {
+        this.items = new Entry[Math.max(initialCapacity, 0)];
         this.size = 0;
+        this.hashThreshold = Math.max(hashThreshold, 0);
     }
 
     @Override
@@ -53,18 +73,13 @@ public class ListMap<K, V> implements Map<K, V> {
 
     @Override
     public boolean containsKey(Object key) {
-        for (int i = 0; i < size; i++) {
-            if (items[i].getKey().equals(key)) {
-                return true;
-            }
-        }
-        return false;
+        return indexOf(key) >= 0;
     }
 
     @Override
     public boolean containsValue(Object value) {
-        for (int i = 1; i < size; i++) {
-            if (items[i].getValue().equals(value)) {
+        for (int i = 0; i < size; i++) {
+            if (eq(items[i].getValue(), value)) {
                 return true;
             }
         }
@@ -73,46 +88,56 @@ public class ListMap<K, V> implements Map<K, V> {
 
     @Override
     public V get(Object key) {
-        for (int i = 0; i < size; i++) {
-            Entry<K, V> item = items[i];
-            if (item.getKey().equals(key)) {
-                return item.getValue();
-            }
-        }
-        return null;
+        int i = indexOf(key);
+        return (i < 0) ? null : items[i].getValue();
     }
 
     @Override
     public V put(K key, V value) {
-        for (int i = 0; i < size; i++) {
+        int i = indexOf(key);
+        if (i >= 0) {
             Entry<K, V> item = items[i];
-            if (item.getKey().equals(key)) {
-                V old = item.getValue();
-                item.setValue(value);
-                return (V) old;
-            }
+            V old = item.getValue();
+            item.setValue(value);
+            return old;
         }
 
-        if (items.length - size < 0) {
-            items = Arrays.copyOf(items, items.length * 2);
+        if (size == items.length) {
+            items = Arrays.copyOf(items, Math.max(4, items.length * 2));
+        }
+        items[size] = new NameValuePair<K, V>(key, value);
+        size++;
+        if (index != null) {
+            if (size * 2 > index.length) {
+                rebuildIndex();
+            } else {
+                addIndex(key, size);
+            }
+        } else if (size > hashThreshold) {
+            rebuildIndex();
         }
-        items[size++] = new NameValuePair<K, V>(key, value);
         return null;
     }
 
     @Override
     public V remove(Object key) {
-        for (int i = 0; i < size; i += 2) {
-            if (items[i].equals(key)) {
-                Object old = items[i + 1];
-                size -= 2;
-                for (int n = i; n < size; n++) {
-                    items[n] = items[n + 2];
-                }
-                return (V) old;
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V old = items[i].getValue();
+        size--;
+        System.arraycopy(items, i + 1, items, i, size - i);
+        items[size] = null;
+        if (index != null) {
+            // positions after i have changed
+            if (size > hashThreshold) {
+                rebuildIndex();
+            } else {
+                index = null;
             }
         }
-        return null;
+        return old;
     }
 
     @Override
@@ -128,6 +153,7 @@ public class ListMap<K, V> implements Map<K, V> {
             items[i] = null;
         }
         size = 0;
+        index = null;
     }
 
     @Override
@@ -165,7 +191,7 @@ public class ListMap<K, V> implements Map<K, V> {
         return new MapSet<Entry<K, V>>() {
             @Override
             public boolean contains(Object value) {
-                for (int i = 1; i < size; i++) {
+                for (int i = 0; i < size; i++) {
                     if (items[i].equals(value)) {
                         return true;
                     }
@@ -187,7 +213,8 @@ public class ListMap<K, V> implements Map<K, V> {
         }
         StringBuilder sb = new StringBuilder();
         sb.append('{');
-        for (Map.Entry<K, V> entry : items) {
+        for (int i = 0; i < size; i++) {
+            Map.Entry<K, V> entry = items[i];
             if (sb.length() > 1) {
                 sb.append(", ");
             }
@@ -201,6 +228,57 @@ public class ListMap<K, V> implements Map<K, V> {
         return sb.toString();
     }
 
+    private int indexOf(Object key) {
+        if (index == null) {
+            for (int i = 0; i < size; i++) {
+                if (eq(items[i].getKey(), key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        int pos;
+        while ((pos = index[slot]) != 0) {
+            if (eq(items[pos - 1].getKey(), key)) {
+                return pos - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void addIndex(Object key, int pos) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = pos;
+    }
+
+    // load factor <= 0.5
+    private void rebuildIndex() {
+        int capacity = Integer.highestOneBit(Math.max(size, 2) * 4 - 1);
+        index = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            addIndex(items[i].getKey(), i + 1);
+        }
+    }
+
+    private static int hash(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean eq(Object a, Object b) {
+        return (a == b) || (a != null && a.equals(b));
+    }
+
     abstract class MapIterator {
         protected int index;
 
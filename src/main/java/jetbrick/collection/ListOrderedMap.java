@@ -32,34 +32,47 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
+/**
+ * 保持插入顺序，并且支持按位置访问的 Map.
+ * <p>
+ * 顺序保存在一个 gap buffer 中 (数组中间留有一段空隙，插入和删除在空隙处进行)，
+ * 每个 entry 记录自己在数组中的位置，因此 {@link #getEntry(int)} 和 {@link #indexOf(Object)} 都是 O(1)；
+ * 在末尾追加，或者在上一次修改的位置附近插入/删除也是 O(1)，其他位置的修改需要移动空隙 (与移动的距离成正比).
+ *
+ * @author Guoqiang Chen
+ */
 public class ListOrderedMap<K, V> extends AbstractMap<K, V> implements Serializable, Cloneable {
-    private static final long serialVersionUID = 1L;
-    private final Map<K, LinkedEntry<K, V>> map;
-    private LinkedEntry<K, V> header;
+    private static final long serialVersionUID = 2L;
+    private final Map<K, IndexedEntry<K, V>> map;
+    private IndexedEntry<K, V>[] buffer; // gap buffer
+    private int gapStart;
+    private int gapEnd; // exclusive
 
     public ListOrderedMap() {
-        map = new HashMap<K, LinkedEntry<K, V>>();
-        createHeader();
+        map = new HashMap<K, IndexedEntry<K, V>>();
+        createBuffer(16);
     }
 
     public ListOrderedMap(int initialCapacity) {
-        map = new HashMap<K, LinkedEntry<K, V>>(initialCapacity);
-        createHeader();
+        map = new HashMap<K, IndexedEntry<K, V>>(initialCapacity);
+        createBuffer(initialCapacity);
     }
 
     public ListOrderedMap(int initialCapacity, float loadFactor) {
-        map = new HashMap<K, LinkedEntry<K, V>>(initialCapacity, loadFactor);
-        createHeader();
+        map = new HashMap<K, IndexedEntry<K, V>>(initialCapacity, loadFactor);
+        createBuffer(initialCapacity);
     }
 
     public ListOrderedMap(Map<? extends K, ? extends V> m) {
-        this();
+        this(Math.max(m.size(), 16));
         putAll(m);
     }
 
-    private void createHeader() {
-        header = new LinkedEntry<K, V>();
-        header.prev = header.next = header;
+    @SuppressWarnings("unchecked")
+    private void createBuffer(int capacity) {
+        buffer = new IndexedEntry[Math.max(capacity, 4)];
+        gapStart = 0;
+        gapEnd = buffer.length;
     }
 
     // OrderedMap interface
@@ -67,11 +80,7 @@ public class ListOrderedMap<K, V> extends AbstractMap<K, V> implements Serializa
         if (index < 0 || index >= size()) {
             throw new IndexOutOfBoundsException();
         }
-        LinkedEntry<K, V> entry = header.next;
-        for (int i = 0; i < index; i++) {
-            entry = entry.next;
-        }
-        return entry;
+        return entryAt(index);
     }
 
     public K getKey(int index) {
@@ -82,26 +91,39 @@ public class ListOrderedMap<K, V> extends AbstractMap<K, V> implements Serializa
         return getEntry(index).getValue();
     }
 
+    /**
+     * 返回 key 所在的位置，不存在返回 -1.
+     */
+    public int indexOf(Object key) {
+        IndexedEntry<K, V> entry = map.get(key);
+        return (entry == null) ? -1 : positionOf(entry);
+    }
+
+    /**
+     * 将 key/value 放到指定的位置，如果 key 已经存在，则移动到该位置.
+     *
+     * @return 原来位于该位置的 entry (现在位于新的 entry 之后)，如果是追加到最后，返回 null
+     */
     public Entry<K, V> put(int index, K key, V value) {
         if (index < 0 || index > size()) throw new IndexOutOfBoundsException();
-        LinkedEntry<K, V> old = header.next;
-        boolean before = false;
-        for (int i = 0; i < index; i++) {
-            old = old.next;
-            if (key == old.key || (key != null && key.equals(old.key))) before = true;
-        }
-        if (before) old = old.next;
-        LinkedEntry<K, V> entry = map.get(key);
+        IndexedEntry<K, V> entry = map.get(key);
         if (entry != null) {
             if (index == size()) throw new IndexOutOfBoundsException();
-            if (entry != old) entry.moveBefore(old);
+            IndexedEntry<K, V> old = entryAt(index);
+            int position = positionOf(entry);
+            if (position != index) {
+                removeAt(position);
+                insertAt(index, entry);
+            }
             entry.value = value;
+            return (old == entry) ? nextOf(index) : old;
         } else {
-            entry = new LinkedEntry<K, V>(key, value);
-            entry.insertBefore(old);
+            IndexedEntry<K, V> old = (index < size()) ? entryAt(index) : null;
+            entry = new IndexedEntry<K, V>(key, value);
+            insertAt(index, entry);
             map.put(key, entry);
+            return old;
         }
-        return old;
     }
 
     public void putAll(int index, Map<? extends K, ? extends V> map) {
@@ -110,8 +132,11 @@ public class ListOrderedMap<K, V> extends AbstractMap<K, V> implements Serializa
     }
 
     public Entry<K, V> remove(int index) {
-        Entry<K, V> entry = getEntry(index);
-        remove(entry.getKey());
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException();
+        }
+        IndexedEntry<K, V> entry = removeAt(index);
+        map.remove(entry.key);
         return entry;
     }
 
@@ -122,32 +147,110 @@ public class ListOrderedMap<K, V> extends AbstractMap<K, V> implements Serializa
     public Entry<K, V>[] toArray() {
         int size = size();
         @SuppressWarnings("unchecked")
-        Entry<K, V>[] entries = new LinkedEntry[size];
-        LinkedEntry<K, V> entry = header.next;
+        Entry<K, V>[] entries = new IndexedEntry[size];
+        System.arraycopy(buffer, 0, entries, 0, gapStart);
+        System.arraycopy(buffer, gapEnd, entries, gapStart, buffer.length - gapEnd);
+        return entries;
+    }
+
+    // gap buffer
+    private IndexedEntry<K, V> entryAt(int index) {
+        return buffer[index < gapStart ? index : index + (gapEnd - gapStart)];
+    }
+
+    private IndexedEntry<K, V> nextOf(int index) {
+        return (index + 1 < size()) ? entryAt(index + 1) : null;
+    }
+
+    private int positionOf(IndexedEntry<K, V> entry) {
+        int slot = entry.slot;
+        return slot < gapStart ? slot : slot - (gapEnd - gapStart);
+    }
+
+    private void insertAt(int index, IndexedEntry<K, V> entry) {
+        if (gapStart == gapEnd) {
+            grow(index);
+        } else {
+            moveGap(index);
+        }
+        buffer[gapStart] = entry;
+        entry.slot = gapStart;
+        gapStart++;
+    }
+
+    private IndexedEntry<K, V> removeAt(int index) {
+        moveGap(index);
+        IndexedEntry<K, V> entry = buffer[gapEnd];
+        buffer[gapEnd] = null;
+        gapEnd++;
+        return entry;
+    }
+
+    // move the gap to the position of index
+    private void moveGap(int index) {
+        if (index < gapStart) {
+            int count = gapStart - index;
+            int to = gapEnd - count;
+            System.arraycopy(buffer, index, buffer, to, count);
+            for (int i = to; i < gapEnd; i++) {
+                buffer[i].slot = i;
+            }
+            clearSlots(index, Math.min(gapStart, to));
+            gapStart = index;
+            gapEnd = to;
+        } else if (index > gapStart) {
+            int count = index - gapStart;
+            System.arraycopy(buffer, gapEnd, buffer, gapStart, count);
+            for (int i = gapStart; i < index; i++) {
+                buffer[i].slot = i;
+            }
+            clearSlots(Math.max(index, gapEnd), gapEnd + count);
+            gapStart = index;
+            gapEnd += count;
+        }
+    }
+
+    private void clearSlots(int from, int to) {
+        for (int i = from; i < to; i++) {
+            buffer[i] = null;
+        }
+    }
+
+    // the gap is full, create a new buffer and put the gap at index
+    @SuppressWarnings("unchecked")
+    private void grow(int index) {
+        int size = buffer.length;
+        int capacity = size * 2;
+        IndexedEntry<K, V>[] newBuffer = new IndexedEntry[capacity];
+        int newGapEnd = capacity - (size - index);
         for (int i = 0; i < size; i++) {
-            entries[i] = entry;
-            entry = entry.next;
+            IndexedEntry<K, V> entry = entryAt(i);
+            int slot = (i < index) ? i : newGapEnd + (i - index);
+            newBuffer[slot] = entry;
+            entry.slot = slot;
         }
-        return entries;
+        buffer = newBuffer;
+        gapStart = index;
+        gapEnd = newGapEnd;
     }
 
     // Map interface
     @Override
     public V get(Object key) {
-        LinkedEntry<K, V> entry = map.get(key);
+        IndexedEntry<K, V> entry = map.get(key);
         return entry != null ? entry.value : null;
     }
 
     @Override
     public V put(K key, V value) {
-        LinkedEntry<K, V> entry = map.get(key);
+        IndexedEntry<K, V> entry = map.get(key);
         if (entry != null) {
             V old = entry.value;
             entry.value = value;
             return old;
         } else {
-            entry = new LinkedEntry<K, V>(key, value);
-            entry.insertBefore(header);
+            entry = new IndexedEntry<K, V>(key, value);
+            insertAt(size(), entry);
             map.put(key, entry);
             return null;
         }
@@ -155,9 +258,9 @@ public class ListOrderedMap<K, V> extends AbstractMap<K, V> implements Serializa
 
     @Override
     public V remove(Object key) {
-        LinkedEntry<K, V> entry = map.get(key);
+        IndexedEntry<K, V> entry = map.get(key);
         if (entry != null) {
-            entry.remove();
+            removeAt(positionOf(entry));
             map.remove(key);
             return entry.value;
         } else
@@ -189,7 +292,7 @@ public class ListOrderedMap<K, V> extends AbstractMap<K, V> implements Serializa
     @Override
     public void clear() {
         map.clear();
-        createHeader();
+        createBuffer(16);
     }
 
     private transient Set<Entry<K, V>> entries;
@@ -314,37 +417,19 @@ public class ListOrderedMap<K, V> extends AbstractMap<K, V> implements Serializa
         return new ListOrderedMap<K, V>(this);
     }
 
-    static final class LinkedEntry<K, V> extends MapEntry<K, V> {
+    static final class IndexedEntry<K, V> extends MapEntry<K, V> {
         private static final long serialVersionUID = 1L;
-        private LinkedEntry<K, V> prev;
-        private LinkedEntry<K, V> next;
+        private int slot; // position in the gap buffer
 
         // Needed for serialization
-        public LinkedEntry() {
+        public IndexedEntry() {
             super(null, null);
         }
 
-        public LinkedEntry(K key, V value) {
+        public IndexedEntry(K key, V value) {
             super(key, value);
         }
 
-        public void remove() {
-            prev.next = next;
-            next.prev = prev;
-        }
-
-        public void insertBefore(LinkedEntry<K, V> entry) {
-            next = entry;
-            prev = entry.prev;
-            entry.prev = this;
-            prev.next = this;
-        }
-
-        public void moveBefore(LinkedEntry<K, V> entry) {
-            remove();
-            insertBefore(entry);
-        }
-
         @Override
         public String toString() {
             return value != null ? value.toString() : "null";
@@ -352,31 +437,26 @@ public class ListOrderedMap<K, V> extends AbstractMap<K, V> implements Serializa
     }
 
     abstract class OrderedMapIterator<E> implements Iterator<E> {
-        private LinkedEntry<K, V> curr, prev;
-
-        public OrderedMapIterator() {
-            super();
-            curr = header.next;
-        }
+        private int cursor;
+        private int last = -1;
 
         @Override
         public boolean hasNext() {
-            return curr != header;
+            return cursor < size();
         }
 
         @Override
         public void remove() {
-            if (prev == null) throw new IllegalStateException();
-            map.remove(prev.key);
-            prev.remove();
-            prev = null;
+            if (last < 0) throw new IllegalStateException();
+            ListOrderedMap.this.remove(last);
+            cursor = last;
+            last = -1;
         }
 
-        protected LinkedEntry<K, V> nextEntry() {
-            if (curr == header) throw new NoSuchElementException();
-            prev = curr;
-            curr = curr.next;
-            return prev;
+        protected IndexedEntry<K, V> nextEntry() {
+            if (cursor >= size()) throw new NoSuchElementException();
+            last = cursor++;
+            return entryAt(last);
         }
     }
 
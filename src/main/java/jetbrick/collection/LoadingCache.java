@@ -0,0 +1,378 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import jetbrick.util.ExceptionUtils;
+
+/**
+ * 支持自动加载的 cache，基于 {@link TimedSizeCache} 实现.
+ * <p>
+ * 同一个 key 的并发加载会被合并为一次计算 (single-flight)，其他线程等待同一个结果，避免 cache 失效时的惊群效应.
+ * 可选地在对象过期之前异步刷新 (refresh-ahead)，刷新期间仍然返回旧的值.
+ * 批量加载时，多个未命中的 key 只会调用一次 bulkLoader.
+ * <p>
+ * 加载期间调用 {@link #put} 或者 {@link #invalidate}，加载的结果不会覆盖新的值 (但是仍然会返回给等待加载的线程).
+ * loader 中不能加载同一个 key，否则抛出 {@link IllegalStateException}.
+ *
+ * @author Guoqiang Chen
+ */
+public final class LoadingCache<K, V> {
+    private final TimedSizeCache<K, Entry<V>> cache;
+    private final long timeout; // 0 = no timeout
+    private final long refreshAfter; // 0 = no refresh-ahead
+    private final Executor executor;
+    private final ConcurrentHashMap<K, Loading<V>> loadings;
+
+    /**
+     * @param maxSize   最大容量，0 表示不限制
+     * @param timeout   写入后的超时时间 (毫秒)，0 表示不超时
+     */
+    public LoadingCache(int maxSize, long timeout) {
+        this(maxSize, timeout, 0, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param maxSize       最大容量，0 表示不限制
+     * @param timeout       写入后的超时时间 (毫秒)，0 表示不超时
+     * @param refreshAfter  写入后超过该时间 (毫秒) 被访问时，异步刷新，0 表示不刷新
+     * @param executor      执行异步刷新的线程池
+     */
+    public LoadingCache(int maxSize, long timeout, long refreshAfter, Executor executor) {
+        this.cache = new TimedSizeCache<K, Entry<V>>(maxSize);
+        this.timeout = Math.max(0, timeout);
+        this.refreshAfter = Math.max(0, refreshAfter);
+        this.executor = executor;
+        this.loadings = new ConcurrentHashMap<K, Loading<V>>();
+    }
+
+    /**
+     * 获取 cache 中的对象，不存在时返回 null.
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry = cache.get(key);
+        return (entry == null) ? null : entry.value;
+    }
+
+    /**
+     * 获取 cache 中的对象，不存在时调用 loader 加载 (同一个 key 并发调用时只会加载一次).
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> entry = cache.get(key);
+        if (entry != null) {
+            if (refreshAfter > 0 && System.currentTimeMillis() - entry.loadTime >= refreshAfter) {
+                refreshAsync(key, loader);
+            }
+            return entry.value;
+        }
+        return load(key, loader);
+    }
+
+    /**
+     * 批量获取 cache 中的对象，所有未命中的 key 通过一次 bulkLoader 调用进行加载.
+     *
+     * @return 按照 keys 顺序返回，不包含值为 null 的 key
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys, Function<? super Collection<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+        Map<K, V> found = new HashMap<K, V>(keys.size() * 2);
+        Map<K, Loading<V>> owned = new LinkedHashMap<K, Loading<V>>();
+        Map<K, Loading<V>> waiting = new HashMap<K, Loading<V>>();
+
+        for (K key : keys) {
+            if (found.containsKey(key) || owned.containsKey(key) || waiting.containsKey(key)) {
+                continue;
+            }
+            Entry<V> entry = cache.get(key);
+            if (entry != null) {
+                found.put(key, entry.value);
+                continue;
+            }
+            Loading<V> future = new Loading<V>(Thread.currentThread(), false);
+            Loading<V> existing = loadings.putIfAbsent(key, future);
+            if (existing == null) {
+                owned.put(key, future);
+            } else {
+                checkRecursive(key, existing);
+                waiting.put(key, existing);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            try {
+                Map<? extends K, ? extends V> loaded = apply(bulkLoader, Collections.unmodifiableSet(owned.keySet()));
+                for (Map.Entry<K, Loading<V>> e : owned.entrySet()) {
+                    V value = (loaded == null) ? null : loaded.get(e.getKey());
+                    publish(e.getKey(), e.getValue(), value);
+                    if (value != null) {
+                        found.put(e.getKey(), value);
+                    }
+                    e.getValue().complete(value);
+                }
+            } catch (RuntimeException ex) {
+                failAll(owned, ex);
+                throw ex;
+            } catch (Error ex) {
+                failAll(owned, ex);
+                throw ex;
+            } finally {
+                for (Map.Entry<K, Loading<V>> e : owned.entrySet()) {
+                    loadings.remove(e.getKey(), e.getValue());
+                }
+            }
+        }
+
+        List<K> retry = null;
+        for (Map.Entry<K, Loading<V>> e : waiting.entrySet()) {
+            Loading<V> existing = e.getValue();
+            V value;
+            if (existing.refresh) {
+                try {
+                    value = existing.join();
+                } catch (CompletionException ex) {
+                    // 异步刷新失败 (比如线程池拒绝执行)，使用 bulkLoader 重新加载
+                    loadings.remove(e.getKey(), existing);
+                    if (retry == null) {
+                        retry = new ArrayList<K>();
+                    }
+                    retry.add(e.getKey());
+                    continue;
+                }
+            } else {
+                value = join(existing);
+            }
+            if (value != null) {
+                found.put(e.getKey(), value);
+            }
+        }
+        if (retry != null) {
+            found.putAll(getAll(retry, bulkLoader));
+        }
+
+        Map<K, V> results = new LinkedHashMap<K, V>(found.size() * 2);
+        for (K key : keys) {
+            V value = found.get(key);
+            if (value != null) {
+                results.put(key, value);
+            }
+        }
+        return results;
+    }
+
+    public void put(final K key, V value) {
+        final Entry<V> entry = new Entry<V>(value, System.currentTimeMillis());
+        // 和正在进行的加载互斥，并使其结果失效
+        loadings.compute(key, new BiFunction<K, Loading<V>, Loading<V>>() {
+            @Override
+            public Loading<V> apply(K k, Loading<V> loading) {
+                cache.put(key, entry, timeout);
+                return null;
+            }
+        });
+    }
+
+    public void invalidate(final K key) {
+        loadings.compute(key, new BiFunction<K, Loading<V>, Loading<V>>() {
+            @Override
+            public Loading<V> apply(K k, Loading<V> loading) {
+                cache.remove(key);
+                return null;
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        loadings.clear();
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 开启统计 (默认关闭).
+     */
+    public void enableStats() {
+        cache.enableStats();
+    }
+
+    /**
+     * 返回当前统计信息的快照 (包含加载次数和加载耗时).
+     */
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    // ----------------------------------------------------------------------
+
+    private V load(K key, Function<? super K, ? extends V> loader) {
+        Loading<V> future = new Loading<V>(Thread.currentThread(), false);
+        Loading<V> existing;
+        while ((existing = loadings.putIfAbsent(key, future)) != null) {
+            checkRecursive(key, existing);
+            if (!existing.refresh) {
+                return join(existing);
+            }
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                // 异步刷新失败 (比如线程池拒绝执行)，使用自己的 loader 重新加载
+                loadings.remove(key, existing);
+            }
+        }
+        try {
+            // double check: 另一个线程可能刚刚加载完成
+            Entry<V> entry = cache.getQuietly(key);
+            V value;
+            if (entry != null) {
+                value = entry.value;
+            } else {
+                value = apply(loader, key);
+                publish(key, future, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } catch (Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(key, future);
+        }
+    }
+
+    private void refreshAsync(final K key, final Function<? super K, ? extends V> loader) {
+        final Loading<V> future = new Loading<V>(null, true); // owner 在任务开始执行时设置
+        if (loadings.putIfAbsent(key, future) != null) {
+            return; // already loading
+        }
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                future.owner = Thread.currentThread();
+                try {
+                    V value = apply(loader, key);
+                    publish(key, future, value);
+                    future.complete(value);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    loadings.remove(key, future);
+                }
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 等待这次刷新的线程 (对象已经过期) 会使用自己的 loader 重新加载
+            loadings.remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    // 调用 loader，并记录加载耗时
+    private <T, R> R apply(Function<? super T, ? extends R> loader, T arg) {
+        CacheStatsCounter statsCounter = cache.getStatsCounter();
+        long startTime = System.nanoTime();
+        try {
+            R value = loader.apply(arg);
+            statsCounter.recordLoadSuccess(System.nanoTime() - startTime);
+            return value;
+        } catch (Throwable e) {
+            statsCounter.recordLoadFailure(System.nanoTime() - startTime);
+            throw e;
+        }
+    }
+
+    /**
+     * 如果 future 仍然是 key 当前的加载任务 (没有被 put/invalidate 替换)，将结果写入 cache.
+     */
+    private void publish(final K key, final Loading<V> future, final V value) {
+        loadings.computeIfPresent(key, new BiFunction<K, Loading<V>, Loading<V>>() {
+            @Override
+            public Loading<V> apply(K k, Loading<V> current) {
+                if (current != future) {
+                    return current;
+                }
+                if (value != null) {
+                    cache.put(key, new Entry<V>(value, System.currentTimeMillis()), timeout);
+                }
+                return null;
+            }
+        });
+    }
+
+    private void checkRecursive(K key, Loading<V> existing) {
+        if (existing.owner == Thread.currentThread()) {
+            throw new IllegalStateException("Recursive load for key: " + key);
+        }
+    }
+
+    private void failAll(Map<K, Loading<V>> futures, Throwable e) {
+        for (CompletableFuture<V> future : futures.values()) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw ExceptionUtils.unchecked(e.getCause());
+        }
+    }
+
+    // 记录执行加载的线程，用于检测 loader 中递归加载同一个 key
+    static final class Loading<V> extends CompletableFuture<V> {
+        volatile Thread owner;
+        final boolean refresh; // 异步刷新，失败时等待的线程重新加载
+
+        Loading(Thread owner, boolean refresh) {
+            this.owner = owner;
+            this.refresh = refresh;
+        }
+    }
+
+    static final class Entry<V> {
+        final V value;
+        final long loadTime;
+
+        Entry(V value, long loadTime) {
+            this.value = value;
+            this.loadTime = loadTime;
+        }
+    }
+}
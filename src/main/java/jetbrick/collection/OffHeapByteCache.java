@@ -0,0 +1,398 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 堆外内存的 byte[] cache，按照字节数限制容量，适用于缓存大量的序列化数据、渲染结果等.
+ * <p>
+ * 数据保存在固定大小的 segment 中 (direct {@link ByteBuffer})，堆内只保存一个 hash 索引.
+ * 写入的数据顺序追加到当前的 segment 中；segment 写满之后，回收最老的 segment:
+ * 最近被访问过的对象被复制到新的 segment 中 (CLOCK second-chance)，其他对象被淘汰.
+ * <p>
+ * 读操作不加锁. {@link #get} 返回指向堆外内存的只读 slice (zero-copy)，
+ * 对象被删除、淘汰或者移动之后，slice 中的内容可能被后续的写入覆盖，因此 slice 只适合立即使用；
+ * 需要长时间持有数据时，使用 {@link #getBytes} 复制一份.
+ * <p>
+ * {@link #close()} 之后，所有的操作都抛出 {@link IllegalStateException}.
+ *
+ * @author Guoqiang Chen
+ */
+public final class OffHeapByteCache<K> implements Closeable {
+    private static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private final ConcurrentHashMap<K, Entry<K>> index;
+    private final Segment<K>[] segments;
+    private final int segmentSize;
+    private final ReentrantLock writeLock;
+    private volatile boolean closed;
+
+    // guarded by writeLock
+    private int head; // current segment for writing, the next one is always empty
+    private int headOffset;
+    private long usedBytes;
+
+    /**
+     * 使用 direct memory 创建 cache.
+     *
+     * @param capacity  最大字节数
+     */
+    public OffHeapByteCache(long capacity) {
+        this(capacity, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * 使用 direct memory 创建 cache.
+     *
+     * @param capacity      最大字节数
+     * @param segmentSize   每个 segment 的字节数，也是单个对象的最大长度
+     */
+    @SuppressWarnings("unchecked")
+    public OffHeapByteCache(long capacity, int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize must be > 0");
+        }
+        long count = Math.max(2, (capacity + segmentSize - 1) / segmentSize + 1); // include the empty segment
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity is too large: " + capacity);
+        }
+        this.index = new ConcurrentHashMap<K, Entry<K>>();
+        this.segments = new Segment[(int) count];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment<K>();
+        }
+        this.segmentSize = segmentSize;
+        this.writeLock = new ReentrantLock();
+    }
+
+    /**
+     * 返回指向堆外内存的只读 slice，不存在返回 null.
+     * <p>
+     * slice 的内容只在对象被删除、淘汰或者移动之前有效.
+     */
+    public ByteBuffer get(K key) {
+        ensureOpen();
+        Entry<K> entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.markReferenced();
+        ByteBuffer buffer = segments[entry.segment].bufferForRead().asReadOnlyBuffer();
+        buffer.limit(entry.offset + entry.length);
+        buffer.position(entry.offset);
+        return buffer.slice();
+    }
+
+    /**
+     * 返回对象的一个副本，不存在返回 null.
+     */
+    public byte[] getBytes(K key) {
+        ensureOpen();
+        for (;;) {
+            Entry<K> entry = index.get(key);
+            if (entry == null) {
+                return null;
+            }
+            entry.markReferenced();
+            Segment<K> segment = segments[entry.segment];
+            // seqlock: 回收 segment 时会获取它的写锁，validate() 包含 load fence，保证复制的内容不会被重排到校验之后
+            long stamp = segment.lock.tryOptimisticRead();
+            if (stamp != 0 && segment.generation == entry.generation) {
+                byte[] bytes = new byte[entry.length];
+                ByteBuffer buffer = segment.bufferForRead().duplicate();
+                buffer.position(entry.offset);
+                buffer.get(bytes);
+                if (segment.lock.validate(stamp)) {
+                    return bytes;
+                }
+            }
+            // the segment has been recycled while copying, try again
+            Thread.yield();
+        }
+    }
+
+    public boolean containsKey(K key) {
+        ensureOpen();
+        return index.containsKey(key);
+    }
+
+    /**
+     * 放入 cache.
+     *
+     * @return 如果对象的长度超过了 segmentSize，不能放入，返回 false (key 原来的值也会被删除)
+     */
+    public boolean put(K key, byte[] value) {
+        return put(key, ByteBuffer.wrap(value));
+    }
+
+    /**
+     * 放入 cache，复制 value 中 position 到 limit 之间的内容 (不改变 value 的 position).
+     *
+     * @return 如果对象的长度超过了 segmentSize，不能放入，返回 false (key 原来的值也会被删除)
+     */
+    public boolean put(K key, ByteBuffer value) {
+        int length = value.remaining();
+        writeLock.lock();
+        try {
+            ensureOpen();
+            if (length > segmentSize) {
+                // 删除原来的值，避免之后读到过期的数据
+                Entry<K> old = index.remove(key);
+                if (old != null) {
+                    release(old);
+                }
+                return false;
+            }
+            ensureCapacity(length);
+            Entry<K> entry = append(key, value.duplicate(), length);
+            Entry<K> old = index.put(key, entry);
+            if (old != null) {
+                release(old);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean remove(K key) {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            Entry<K> entry = index.remove(key);
+            if (entry == null) {
+                return false;
+            }
+            release(entry);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void clear() {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            index.clear();
+            for (Segment<K> segment : segments) {
+                segment.recycle();
+            }
+            head = 0;
+            headOffset = 0;
+            usedBytes = 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 当前所有对象占用的字节数.
+     */
+    public long getUsedBytes() {
+        writeLock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 可以使用的最大字节数 (不包括一个保留的空闲 segment).
+     */
+    public long getCapacity() {
+        return (long) (segments.length - 1) * segmentSize;
+    }
+
+    /**
+     * 释放所有的数据. 正在进行的读操作可能会抛出 {@link IllegalStateException}，但是不会读到无效的内存.
+     */
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            index.clear();
+            for (Segment<K> segment : segments) {
+                segment.recycle();
+                segment.buffer = null;
+            }
+            usedBytes = 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ----------------------------------------------------------------------
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("OffHeapByteCache is closed");
+        }
+    }
+
+    // guarded by writeLock
+    private void ensureCapacity(int length) {
+        if (segments[head].buffer == null) {
+            allocate(segments[head]);
+        }
+        if (headOffset + length <= segmentSize) {
+            return;
+        }
+        // move to the next (empty) segment, and recycle the oldest one
+        head = next(head);
+        headOffset = 0;
+        Segment<K> current = segments[head];
+        if (current.buffer == null) {
+            allocate(current);
+        }
+        reclaim(next(head), length);
+    }
+
+    // guarded by writeLock
+    private void reclaim(int victimIndex, int reservedLength) {
+        Segment<K> victim = segments[victimIndex];
+        if (victim.residents.isEmpty()) {
+            return;
+        }
+        victim.invalidate(); // invalidate in-flight copies
+        for (Entry<K> entry : victim.residents) {
+            if (entry.released) {
+                continue;
+            }
+            if (entry.referenced && headOffset + entry.length + reservedLength <= segmentSize) {
+                // second chance: move it to the head segment
+                ByteBuffer src = victim.buffer.duplicate();
+                src.limit(entry.offset + entry.length);
+                src.position(entry.offset);
+                Entry<K> moved = append(entry.key, src, entry.length);
+                if (index.replace(entry.key, entry, moved)) {
+                    usedBytes -= entry.length;
+                } else {
+                    release(moved);
+                }
+            } else {
+                index.remove(entry.key, entry);
+                usedBytes -= entry.length;
+            }
+            entry.released = true;
+        }
+        victim.residents.clear();
+    }
+
+    // guarded by writeLock
+    private Entry<K> append(K key, ByteBuffer src, int length) {
+        Segment<K> segment = segments[head];
+        ByteBuffer dst = segment.buffer.duplicate();
+        dst.position(headOffset);
+        dst.put(src);
+        Entry<K> entry = new Entry<K>(key, head, headOffset, length, segment.generation);
+        segment.residents.add(entry);
+        headOffset += length;
+        usedBytes += length;
+        return entry;
+    }
+
+    // guarded by writeLock
+    private void release(Entry<K> entry) {
+        if (!entry.released) {
+            entry.released = true;
+            usedBytes -= entry.length;
+        }
+    }
+
+    private void allocate(Segment<K> segment) {
+        segment.buffer = ByteBuffer.allocateDirect(segmentSize);
+    }
+
+    private int next(int i) {
+        return (i + 1 == segments.length) ? 0 : i + 1;
+    }
+
+    static final class Segment<K> {
+        volatile ByteBuffer buffer; // allocated lazily, written under writeLock
+        final List<Entry<K>> residents = new ArrayList<Entry<K>>(); // guarded by writeLock
+        final StampedLock lock = new StampedLock(); // seqlock for readers
+        volatile int generation;
+
+        // 读操作只读取一次 buffer，close() 之后返回 null
+        ByteBuffer bufferForRead() {
+            ByteBuffer b = buffer;
+            if (b == null) {
+                throw new IllegalStateException("OffHeapByteCache is closed");
+            }
+            return b;
+        }
+
+        // guarded by writeLock, 必须在覆盖 segment 的内容之前调用
+        void invalidate() {
+            long stamp = lock.writeLock();
+            generation++;
+            lock.unlockWrite(stamp);
+        }
+
+        void recycle() {
+            invalidate();
+            for (Entry<K> entry : residents) {
+                entry.released = true;
+            }
+            residents.clear();
+        }
+    }
+
+    static final class Entry<K> {
+        final K key;
+        final int segment;
+        final int offset;
+        final int length;
+        final int generation;
+        volatile boolean referenced;
+        boolean released; // guarded by writeLock
+
+        Entry(K key, int segment, int offset, int length, int generation) {
+            this.key = key;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.generation = generation;
+        }
+
+        void markReferenced() {
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于 {@link PersistentHashMap} 的线程安全 Map，适用于读多写少并且数据量较大的场景 (如路由表、开关配置).
+ * <p>
+ * 与 {@link CopyOnWriteMap} 一样，读操作不加锁，直接访问当前的不可变快照；
+ * 不同的是写操作只复制 O(log n) 个节点，而不是整个 Map. 批量修改使用 {@link #putAll} 或者 {@link #update}.
+ *
+ * @author Guoqiang Chen
+ */
+public class PersistentCopyOnWriteMap<K, V> implements Map<K, V> {
+    private volatile PersistentHashMap<K, V> internalMap;
+
+    public PersistentCopyOnWriteMap() {
+        internalMap = PersistentHashMap.empty();
+    }
+
+    public PersistentCopyOnWriteMap(Map<? extends K, ? extends V> data) {
+        internalMap = PersistentHashMap.of(data);
+    }
+
+    /**
+     * 返回当前数据的不可变快照.
+     */
+    public PersistentHashMap<K, V> snapshot() {
+        return internalMap;
+    }
+
+    /**
+     * 批量修改：在同一个 builder 上执行所有修改，最后一次性发布新的快照.
+     */
+    public void update(Updater<K, V> updater) {
+        synchronized (this) {
+            PersistentHashMap.Builder<K, V> builder = internalMap.toBuilder();
+            updater.update(builder);
+            internalMap = builder.build();
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        synchronized (this) {
+            PersistentHashMap<K, V> map = internalMap;
+            V val = map.get(key);
+            internalMap = map.plus(key, value);
+            return val;
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        synchronized (this) {
+            PersistentHashMap<K, V> map = internalMap;
+            V val = map.get(key);
+            internalMap = map.minus(key);
+            return val;
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> newData) {
+        synchronized (this) {
+            internalMap = internalMap.plusAll(newData);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (this) {
+            internalMap = PersistentHashMap.empty();
+        }
+    }
+
+    @Override
+    public int size() {
+        return internalMap.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return internalMap.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return internalMap.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return internalMap.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return internalMap.get(key);
+    }
+
+    /**
+     * 返回当前快照的只读 {@link Set}.
+     */
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(internalMap.keySet());
+    }
+
+    /**
+     * 返回当前快照的只读 {@link Collection}.
+     */
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(internalMap.values());
+    }
+
+    /**
+     * 返回当前快照的只读 {@link Set}.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return internalMap.entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || internalMap.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return internalMap.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return internalMap.toString();
+    }
+
+    /**
+     * 批量修改的回调.
+     */
+    public static interface Updater<K, V> {
+        public void update(PersistentHashMap.Builder<K, V> builder);
+    }
+}
@@ -0,0 +1,585 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 基于 HAMT (Hash Array Mapped Trie) 的不可变 Map，修改操作返回新的 Map，新旧 Map 共享未改变的节点.
+ * <p>
+ * 每次 {@link #plus}/{@link #minus} 只复制从根节点到目标节点路径上的 O(log32 n) 个节点，
+ * 而不是整个 Map. 批量修改使用 {@link Builder}，builder 创建的节点可以被原地修改，避免重复复制.
+ * <p>
+ * 不支持 {@link Map} 接口中的修改方法 (抛出 {@link UnsupportedOperationException}).
+ *
+ * @author Guoqiang Chen
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_DEPTH = 8; // 7 levels of bitmap nodes + 1 collision node
+
+    private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<Object, Object>(0, null, false, null);
+
+    private final int size;
+    private final Node root; // null if empty
+    private final boolean hasNull;
+    private final V nullValue;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    private PersistentHashMap(int size, Node root, boolean hasNull, V nullValue) {
+        this.size = size;
+        this.root = root;
+        this.hasNull = hasNull;
+        this.nullValue = nullValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) (PersistentHashMap<?, ?>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> of(Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentHashMap) {
+            return (PersistentHashMap<K, V>) map;
+        }
+        Builder<K, V> builder = new Builder<K, V>(PersistentHashMap.<K, V> empty());
+        builder.putAll(map);
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null) {
+            return hasNull;
+        }
+        return root != null && root.find(0, hash(key), key, NOT_FOUND) != NOT_FOUND;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return nullValue;
+        }
+        if (root == null) {
+            return null;
+        }
+        return (V) root.find(0, hash(key), key, null);
+    }
+
+    /**
+     * 返回增加 (或者替换) 了指定键值对的新 Map，当前 Map 不变.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        if (key == null) {
+            if (hasNull && value == nullValue) {
+                return this;
+            }
+            return new PersistentHashMap<K, V>(hasNull ? size : size + 1, root, true, value);
+        }
+        Box box = new Box();
+        Node node = (root == null) ? BitmapNode.EMPTY : root;
+        Node newRoot = node.assoc(null, 0, hash(key), key, value, box);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<K, V>(box.added ? size + 1 : size, newRoot, hasNull, nullValue);
+    }
+
+    /**
+     * 返回删除了指定 key 的新 Map，当前 Map 不变.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        if (key == null) {
+            if (!hasNull) {
+                return this;
+            }
+            return new PersistentHashMap<K, V>(size - 1, root, false, null);
+        }
+        if (root == null) {
+            return this;
+        }
+        Box box = new Box();
+        Node newRoot = root.without(null, 0, hash(key), key, box);
+        if (!box.removed) {
+            return this;
+        }
+        return new PersistentHashMap<K, V>(size - 1, newRoot, hasNull, nullValue);
+    }
+
+    /**
+     * 返回增加了所有键值对的新 Map，当前 Map 不变.
+     */
+    public PersistentHashMap<K, V> plusAll(Map<? extends K, ? extends V> map) {
+        if (map.isEmpty()) {
+            return this;
+        }
+        Builder<K, V> builder = toBuilder();
+        builder.putAll(map);
+        return builder.build();
+    }
+
+    /**
+     * 返回一个以当前 Map 为初始内容的 builder，用于批量修改.
+     */
+    public Builder<K, V> toBuilder() {
+        return new Builder<K, V>(this);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> es = entrySet;
+        if (es == null) {
+            es = new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new EntryIterator<K, V>(root, hasNull, nullValue);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+            entrySet = es;
+        }
+        return es;
+    }
+
+    // ----------------------------------------------------------------------
+
+    private static final Object NOT_FOUND = new Object();
+
+    static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    static boolean keyEquals(Object a, Object b) {
+        return a == b || a.equals(b);
+    }
+
+    static Object[] removePair(Object[] array, int i) {
+        Object[] newArray = new Object[array.length - 2];
+        System.arraycopy(array, 0, newArray, 0, 2 * i);
+        System.arraycopy(array, 2 * (i + 1), newArray, 2 * i, newArray.length - 2 * i);
+        return newArray;
+    }
+
+    static Node createNode(Object edit, int shift, Object key1, Object val1, int hash2, Object key2, Object val2) {
+        int hash1 = hash(key1);
+        if (hash1 == hash2) {
+            return new CollisionNode(edit, hash1, new Object[] { key1, val1, key2, val2 });
+        }
+        Box box = new Box();
+        return BitmapNode.EMPTY.assoc(edit, shift, hash1, key1, val1, box).assoc(edit, shift, hash2, key2, val2, box);
+    }
+
+    static final class Box {
+        boolean added;
+        boolean removed;
+    }
+
+    abstract static class Node {
+        abstract Object find(int shift, int hash, Object key, Object notFound);
+
+        abstract Node assoc(Object edit, int shift, int hash, Object key, Object value, Box box);
+
+        // return null if node is empty
+        abstract Node without(Object edit, int shift, int hash, Object key, Box box);
+
+        // key/value pairs, null key means value is a sub node
+        abstract Object[] array();
+    }
+
+    static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        final Object edit; // owner builder, null = persistent
+        int bitmap;
+        Object[] array;
+
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key, Object notFound) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return notFound;
+            }
+            int i = index(bit);
+            Object k = array[2 * i];
+            Object v = array[2 * i + 1];
+            if (k == null) {
+                return ((Node) v).find(shift + BITS, hash, key, notFound);
+            }
+            return keyEquals(key, k) ? v : notFound;
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Box box) {
+            int bit = bitpos(hash, shift);
+            int i = index(bit);
+            if ((bitmap & bit) != 0) {
+                Object k = array[2 * i];
+                Object v = array[2 * i + 1];
+                if (k == null) {
+                    Node sub = (Node) v;
+                    Node n = sub.assoc(edit, shift + BITS, hash, key, value, box);
+                    return (n == sub) ? this : editAndSet(edit, 2 * i + 1, n);
+                }
+                if (keyEquals(key, k)) {
+                    return (v == value) ? this : editAndSet(edit, 2 * i + 1, value);
+                }
+                box.added = true;
+                Node sub = createNode(edit, shift + BITS, k, v, hash, key, value);
+                return editAndSet(edit, 2 * i, null, 2 * i + 1, sub);
+            }
+
+            box.added = true;
+            int n = array.length;
+            Object[] newArray = new Object[n + 2];
+            System.arraycopy(array, 0, newArray, 0, 2 * i);
+            newArray[2 * i] = key;
+            newArray[2 * i + 1] = value;
+            System.arraycopy(array, 2 * i, newArray, 2 * (i + 1), n - 2 * i);
+            if (isEditable(edit)) {
+                this.array = newArray;
+                this.bitmap |= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap | bit, newArray);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Box box) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = index(bit);
+            Object k = array[2 * i];
+            Object v = array[2 * i + 1];
+            if (k == null) {
+                Node sub = (Node) v;
+                Node n = sub.without(edit, shift + BITS, hash, key, box);
+                if (n == sub) {
+                    return this;
+                }
+                if (n != null) {
+                    return editAndSet(edit, 2 * i + 1, n);
+                }
+            } else if (!keyEquals(key, k)) {
+                return this;
+            } else {
+                box.removed = true;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            if (isEditable(edit)) {
+                this.array = removePair(array, i);
+                this.bitmap ^= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap ^ bit, removePair(array, i));
+        }
+
+        private boolean isEditable(Object edit) {
+            return edit != null && this.edit == edit;
+        }
+
+        private BitmapNode editAndSet(Object edit, int i, Object a) {
+            BitmapNode node = isEditable(edit) ? this : new BitmapNode(edit, bitmap, array.clone());
+            node.array[i] = a;
+            return node;
+        }
+
+        private BitmapNode editAndSet(Object edit, int i, Object a, int j, Object b) {
+            BitmapNode node = isEditable(edit) ? this : new BitmapNode(edit, bitmap, array.clone());
+            node.array[i] = a;
+            node.array[j] = b;
+            return node;
+        }
+    }
+
+    static final class CollisionNode extends Node {
+        final Object edit; // owner builder, null = persistent
+        final int hash;
+        Object[] array;
+
+        CollisionNode(Object edit, int hash, Object[] array) {
+            this.edit = edit;
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (keyEquals(key, array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key, Object notFound) {
+            int i = indexOf(key);
+            return (i < 0) ? notFound : array[i + 1];
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Box box) {
+            if (hash != this.hash) {
+                // nest this collision node into a bitmap node
+                BitmapNode node = new BitmapNode(edit, bitpos(this.hash, shift), new Object[] { null, this });
+                return node.assoc(edit, shift, hash, key, value, box);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                CollisionNode node = isEditable(edit) ? this : new CollisionNode(edit, hash, array.clone());
+                node.array[i + 1] = value;
+                return node;
+            }
+            box.added = true;
+            int n = array.length;
+            Object[] newArray = new Object[n + 2];
+            System.arraycopy(array, 0, newArray, 0, n);
+            newArray[n] = key;
+            newArray[n + 1] = value;
+            if (isEditable(edit)) {
+                this.array = newArray;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newArray);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Box box) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            box.removed = true;
+            if (array.length == 2) {
+                return null;
+            }
+            if (isEditable(edit)) {
+                this.array = removePair(array, i / 2);
+                return this;
+            }
+            return new CollisionNode(edit, hash, removePair(array, i / 2));
+        }
+
+        private boolean isEditable(Object edit) {
+            return edit != null && this.edit == edit;
+        }
+    }
+
+    static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] indexes = new int[MAX_DEPTH];
+        private int depth;
+        private Map.Entry<K, V> next;
+
+        EntryIterator(Node root, boolean hasNull, V nullValue) {
+            if (hasNull) {
+                next = new SimpleImmutableEntry<K, V>(null, nullValue);
+            }
+            if (root == null) {
+                depth = -1;
+            } else {
+                arrays[0] = root.array();
+            }
+            if (next == null) {
+                next = advance();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map.Entry<K, V> advance() {
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int i = indexes[depth];
+                if (i >= array.length) {
+                    arrays[depth] = null;
+                    depth--;
+                    continue;
+                }
+                indexes[depth] = i + 2;
+                Object k = array[i];
+                Object v = array[i + 1];
+                if (k == null) {
+                    depth++;
+                    arrays[depth] = ((Node) v).array();
+                    indexes[depth] = 0;
+                } else {
+                    return new SimpleImmutableEntry<K, V>((K) k, (V) v);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            Map.Entry<K, V> e = next;
+            if (e == null) {
+                throw new NoSuchElementException();
+            }
+            next = advance();
+            return e;
+        }
+    }
+
+    /**
+     * 用于批量修改的可变 builder (非线程安全).
+     * <p>
+     * builder 新建的节点带有 builder 的标记，后续修改直接在这些节点上原地进行；
+     * 从原 Map 共享过来的节点仍然按需复制，因此原 Map 不受影响.
+     * {@link #build()} 之后 builder 会更换标记，可以继续安全地使用.
+     */
+    public static final class Builder<K, V> {
+        private Object edit;
+        private int size;
+        private Node root;
+        private boolean hasNull;
+        private V nullValue;
+
+        Builder(PersistentHashMap<K, V> map) {
+            this.edit = new Object();
+            this.size = map.size;
+            this.root = map.root;
+            this.hasNull = map.hasNull;
+            this.nullValue = map.nullValue;
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            if (key == null) {
+                if (!hasNull) {
+                    size++;
+                }
+                hasNull = true;
+                nullValue = value;
+                return this;
+            }
+            Box box = new Box();
+            Node node = (root == null) ? BitmapNode.EMPTY : root;
+            root = node.assoc(edit, 0, hash(key), key, value, box);
+            if (box.added) {
+                size++;
+            }
+            return this;
+        }
+
+        public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+            for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        public Builder<K, V> remove(Object key) {
+            if (key == null) {
+                if (hasNull) {
+                    size--;
+                }
+                hasNull = false;
+                nullValue = null;
+                return this;
+            }
+            if (root != null) {
+                Box box = new Box();
+                root = root.without(edit, 0, hash(key), key, box);
+                if (box.removed) {
+                    size--;
+                }
+            }
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            if (key == null) {
+                return nullValue;
+            }
+            return (root == null) ? null : (V) root.find(0, hash(key), key, null);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PersistentHashMap<K, V> build() {
+            edit = new Object(); // nodes created so far become immutable
+            if (size == 0) {
+                return empty();
+            }
+            return new PersistentHashMap<K, V>(size, root, hasNull, nullValue);
+        }
+    }
+}
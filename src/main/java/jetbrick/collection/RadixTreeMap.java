@@ -0,0 +1,503 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 基于压缩前缀树 (radix tree) 的 Map，key 为 String，按照字典顺序 (char 顺序) 迭代.
+ * <p>
+ * 适用于层次化的 key，如 "jdbc.user", "jdbc.password" 这样的配置项，以及 URL 路径匹配:
+ * <ul>
+ * <li>{@link #prefixMap(String)} 返回以指定前缀开头的所有 key 的视图，定位只需要 O(k) 时间 (k 为前缀长度).</li>
+ * <li>{@link #longestPrefixOf(String)} 返回作为指定字符串前缀的最长 key.</li>
+ * </ul>
+ * 不允许 null key，允许 null value. 非线程安全.
+ *
+ * @author Guoqiang Chen
+ */
+public class RadixTreeMap<V> extends AbstractMap<String, V> {
+    private static final Node<?>[] EMPTY_CHILDREN = new Node<?>[0];
+    private static final char[] EMPTY_CHARS = new char[0];
+
+    private final Node<V> root = new Node<V>("");
+    private int size;
+    private Set<Map.Entry<String, V>> entrySet;
+
+    public RadixTreeMap() {
+    }
+
+    public RadixTreeMap(Map<String, ? extends V> map) {
+        putAll(map);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Node<V> node = findNode(key);
+        return node != null && node.hasValue;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<V> node = findNode(key);
+        return (node != null && node.hasValue) ? node.value : null;
+    }
+
+    @Override
+    public V put(String key, V value) {
+        if (key == null) {
+            throw new NullPointerException("key");
+        }
+        Node<V> node = root;
+        int pos = 0;
+        int length = key.length();
+        while (pos < length) {
+            int index = node.indexOf(key.charAt(pos));
+            if (index < 0) {
+                Node<V> leaf = new Node<V>(key.substring(pos));
+                node.addChild(-index - 1, leaf);
+                return leaf.setValue(value, this);
+            }
+            Node<V> child = node.children[index];
+            String label = child.label;
+            int common = commonPrefixLength(key, pos, label);
+            if (common < label.length()) {
+                // 拆分 edge
+                Node<V> middle = new Node<V>(label.substring(0, common));
+                child.label = label.substring(common);
+                middle.addChild(0, child);
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            pos += common;
+        }
+        return node.setValue(value, this);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String name = (String) key;
+        Node<V> grandparent = null;
+        int grandparentIndex = -1;
+        Node<V> parent = null;
+        int parentIndex = -1;
+        Node<V> node = root;
+        int pos = 0;
+        while (pos < name.length()) {
+            int index = node.indexOf(name.charAt(pos));
+            if (index < 0) {
+                return null;
+            }
+            Node<V> child = node.children[index];
+            if (!name.startsWith(child.label, pos)) {
+                return null;
+            }
+            grandparent = parent;
+            grandparentIndex = parentIndex;
+            parent = node;
+            parentIndex = index;
+            node = child;
+            pos += child.label.length();
+        }
+        if (!node.hasValue) {
+            return null;
+        }
+        V old = node.value;
+        node.value = null;
+        node.hasValue = false;
+        size--;
+
+        if (parent != null) {
+            if (node.children.length == 0) {
+                parent.removeChild(parentIndex);
+                if (parent != root && !parent.hasValue && parent.children.length == 1) {
+                    grandparent.mergeChild(grandparentIndex);
+                }
+            } else if (node.children.length == 1) {
+                parent.mergeChild(parentIndex);
+            }
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        root.children = emptyChildren();
+        root.firstChars = EMPTY_CHARS;
+        root.value = null;
+        root.hasValue = false;
+        size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        Set<Map.Entry<String, V>> es = entrySet;
+        if (es == null) {
+            es = new EntrySet("");
+            entrySet = es;
+        }
+        return es;
+    }
+
+    /**
+     * 返回所有以 prefix 开头的 key 组成的视图 (按字典顺序迭代)，对视图的修改会反映到原来的 Map 中.
+     */
+    public Map<String, V> prefixMap(String prefix) {
+        if (prefix == null) {
+            throw new NullPointerException("prefix");
+        }
+        if (prefix.isEmpty()) {
+            return this;
+        }
+        return new PrefixMap(prefix);
+    }
+
+    /**
+     * 返回作为 input 前缀的最长 key 对应的 entry，没有找到返回 null.
+     * <pre>
+     * map.put("/", a);
+     * map.put("/api/", b);
+     * map.longestPrefixOf("/api/users").getValue(); // b
+     * </pre>
+     */
+    public Map.Entry<String, V> longestPrefixOf(String input) {
+        Node<V> node = root;
+        Node<V> matched = root.hasValue ? root : null;
+        int matchedLength = 0;
+        int pos = 0;
+        while (pos < input.length()) {
+            int index = node.indexOf(input.charAt(pos));
+            if (index < 0) {
+                break;
+            }
+            Node<V> child = node.children[index];
+            if (!input.startsWith(child.label, pos)) {
+                break;
+            }
+            node = child;
+            pos += child.label.length();
+            if (node.hasValue) {
+                matched = node;
+                matchedLength = pos;
+            }
+        }
+        if (matched == null) {
+            return null;
+        }
+        return new TreeEntry<V>(input.substring(0, matchedLength), matched);
+    }
+
+    // ----------------------------------------------------------------------
+
+    private Node<V> findNode(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String name = (String) key;
+        Node<V> node = root;
+        int pos = 0;
+        while (pos < name.length()) {
+            int index = node.indexOf(name.charAt(pos));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            if (!name.startsWith(node.label, pos)) {
+                return null;
+            }
+            pos += node.label.length();
+        }
+        return node;
+    }
+
+    private static int commonPrefixLength(String key, int offset, String label) {
+        int n = Math.min(key.length() - offset, label.length());
+        int i = 0;
+        while (i < n && key.charAt(offset + i) == label.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> Node<V>[] emptyChildren() {
+        return (Node<V>[]) EMPTY_CHILDREN;
+    }
+
+    static final class Node<V> {
+        String label;
+        char[] firstChars = EMPTY_CHARS;
+        Node<V>[] children = emptyChildren();
+        V value;
+        boolean hasValue;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int indexOf(char c) {
+            char[] chars = firstChars;
+            int low = 0;
+            int high = chars.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midVal = chars[mid];
+                if (midVal < c) {
+                    low = mid + 1;
+                } else if (midVal > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        V setValue(V newValue, RadixTreeMap<V> map) {
+            V old = value;
+            if (!hasValue) {
+                hasValue = true;
+                map.size++;
+            }
+            value = newValue;
+            return old;
+        }
+
+        @SuppressWarnings("unchecked")
+        void addChild(int index, Node<V> child) {
+            int n = children.length;
+            Node<V>[] newChildren = new Node[n + 1];
+            char[] newChars = new char[n + 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(firstChars, 0, newChars, 0, index);
+            System.arraycopy(children, index, newChildren, index + 1, n - index);
+            System.arraycopy(firstChars, index, newChars, index + 1, n - index);
+            newChildren[index] = child;
+            newChars[index] = child.label.charAt(0);
+            children = newChildren;
+            firstChars = newChars;
+        }
+
+        @SuppressWarnings("unchecked")
+        void removeChild(int index) {
+            int n = children.length;
+            if (n == 1) {
+                children = emptyChildren();
+                firstChars = EMPTY_CHARS;
+                return;
+            }
+            Node<V>[] newChildren = new Node[n - 1];
+            char[] newChars = new char[n - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(firstChars, 0, newChars, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, n - index - 1);
+            System.arraycopy(firstChars, index + 1, newChars, index, n - index - 1);
+            children = newChildren;
+            firstChars = newChars;
+        }
+
+        // 使用 children[index] 唯一的子节点替换它 (children[index] 没有 value)，
+        // 有 value 的节点对象始终保留在树中，迭代器和 entry 中引用的节点依然有效
+        void mergeChild(int index) {
+            Node<V> child = children[index];
+            Node<V> grandchild = child.children[0];
+            grandchild.label = child.label.concat(grandchild.label);
+            children[index] = grandchild;
+        }
+    }
+
+    static final class TreeEntry<V> extends SimpleEntry<String, V> {
+        private static final long serialVersionUID = 1L;
+        private final transient Node<V> node;
+
+        TreeEntry(String key, Node<V> node) {
+            super(key, node.value);
+            this.node = node;
+        }
+
+        @Override
+        public V setValue(V value) {
+            node.value = value;
+            return super.setValue(value);
+        }
+    }
+
+    final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+        private final List<Node<V>> nodes = new ArrayList<Node<V>>();
+        private final List<String> keys = new ArrayList<String>();
+        private TreeEntry<V> next;
+        private TreeEntry<V> last;
+
+        EntryIterator(String prefix) {
+            // 定位到 key 以 prefix 开头的子树
+            Node<V> node = root;
+            int pos = 0;
+            while (pos < prefix.length()) {
+                int index = node.indexOf(prefix.charAt(pos));
+                if (index < 0) {
+                    return;
+                }
+                Node<V> child = node.children[index];
+                int n = Math.min(child.label.length(), prefix.length() - pos);
+                if (!prefix.regionMatches(pos, child.label, 0, n)) {
+                    return;
+                }
+                node = child;
+                pos += child.label.length();
+            }
+            nodes.add(node);
+            keys.add(pos == prefix.length() ? prefix : prefix.substring(0, pos - node.label.length()).concat(node.label));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !nodes.isEmpty()) {
+                int top = nodes.size() - 1;
+                Node<V> node = nodes.remove(top);
+                String key = keys.remove(top);
+                Node<V>[] children = node.children;
+                for (int i = children.length - 1; i >= 0; i--) {
+                    nodes.add(children[i]);
+                    keys.add(key.concat(children[i].label));
+                }
+                if (node.hasValue) {
+                    next = new TreeEntry<V>(key, node);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = null;
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            RadixTreeMap.this.remove(last.getKey());
+            last = null;
+        }
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+        private final String prefix;
+
+        EntrySet(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, V>> iterator() {
+            return new EntryIterator(prefix);
+        }
+
+        @Override
+        public int size() {
+            if (prefix.isEmpty()) {
+                return size;
+            }
+            int n = 0;
+            for (Iterator<Map.Entry<String, V>> it = iterator(); it.hasNext(); it.next()) {
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        public void clear() {
+            if (prefix.isEmpty()) {
+                RadixTreeMap.this.clear();
+            } else {
+                super.clear();
+            }
+        }
+    }
+
+    final class PrefixMap extends AbstractMap<String, V> {
+        private final String prefix;
+        private final EntrySet entrySet;
+
+        PrefixMap(String prefix) {
+            this.prefix = prefix;
+            this.entrySet = new EntrySet(prefix);
+        }
+
+        private boolean inRange(Object key) {
+            return key instanceof String && ((String) key).startsWith(prefix);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return inRange(key) && RadixTreeMap.this.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return inRange(key) ? RadixTreeMap.this.get(key) : null;
+        }
+
+        @Override
+        public V put(String key, V value) {
+            if (!inRange(key)) {
+                throw new IllegalArgumentException("key out of range: " + key);
+            }
+            return RadixTreeMap.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return inRange(key) ? RadixTreeMap.this.remove(key) : null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !entrySet.iterator().hasNext();
+        }
+
+        @Override
+        public Set<Map.Entry<String, V>> entrySet() {
+            return entrySet;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+/**
+ * cache 中对象被删除的原因.
+ *
+ * @author Guoqiang Chen
+ */
+public enum RemovalCause {
+    /** 被用户显式删除 (remove/clear) */
+    EXPLICIT,
+    /** 被同一个 key 的新值替换 */
+    REPLACED,
+    /** 超出容量限制被淘汰 */
+    SIZE,
+    /** 超时被淘汰 */
+    EXPIRED,
+    /** SoftReference/WeakReference 被 GC 回收 */
+    COLLECTED;
+
+    /**
+     * 是否属于自动淘汰 (非用户操作导致).
+     */
+    public boolean isEviction() {
+        return this == SIZE || this == EXPIRED || this == COLLECTED;
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+/**
+ * cache 中对象被删除时的回调.
+ * <p>
+ * 回调在释放内部锁之后，由触发删除的线程同步执行，因此实现需要尽量快速返回.
+ * 对于 {@link RemovalCause#COLLECTED}，value 已经被 GC 回收，传入的值为 null.
+ *
+ * @author Guoqiang Chen
+ */
+public interface RemovalListener<K, V> {
+
+    public void onRemoval(K key, V value, RemovalCause cause);
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 记录 cache 的删除事件：更新统计计数，并在释放内部锁之后回调 {@link RemovalListener}.
+ * <p>
+ * 删除事件先放入队列，由 {@link #dispatch()} 在锁外统一回调，避免 listener 在持有锁时重入 cache.
+ */
+final class RemovalNotifier<K, V> {
+    private static final Logger log = LoggerFactory.getLogger(RemovalNotifier.class);
+
+    private final ConcurrentLinkedQueue<Removal<K, V>> pending;
+    private volatile RemovalListener<? super K, ? super V> listener;
+    private volatile CacheStatsCounter statsCounter;
+
+    RemovalNotifier() {
+        this.pending = new ConcurrentLinkedQueue<Removal<K, V>>();
+        this.statsCounter = CacheStatsCounter.DISABLED;
+    }
+
+    RemovalListener<? super K, ? super V> getListener() {
+        return listener;
+    }
+
+    void setListener(RemovalListener<? super K, ? super V> listener) {
+        this.listener = listener;
+    }
+
+    CacheStatsCounter getStatsCounter() {
+        return statsCounter;
+    }
+
+    void setStatsCounter(CacheStatsCounter statsCounter) {
+        this.statsCounter = (statsCounter == null) ? CacheStatsCounter.DISABLED : statsCounter;
+    }
+
+    void notify(K key, V value, RemovalCause cause) {
+        statsCounter.recordRemoval(cause);
+        if (listener != null) {
+            pending.offer(new Removal<K, V>(key, value, cause));
+        }
+    }
+
+    void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Removal<K, V> removal;
+        while ((removal = pending.poll()) != null) {
+            RemovalListener<? super K, ? super V> listener = this.listener;
+            if (listener == null) {
+                continue;
+            }
+            try {
+                listener.onRemoval(removal.key, removal.value, removal.cause);
+            } catch (Throwable e) {
+                log.warn("Exception thrown by removal listener", e);
+            }
+        }
+    }
+
+    static final class Removal<K, V> {
+        final K key;
+        final V value;
+        final RemovalCause cause;
+
+        Removal(K key, V value, RemovalCause cause) {
+            this.key = key;
+            this.value = value;
+            this.cause = cause;
+        }
+    }
+}
@@ -30,50 +30,110 @@ import java.util.Set;
 public class SoftHashMap<K, V> extends AbstractMap<K, V> {
     private final Map<K, SoftValue<V>> map;
     private final ReferenceQueue<V> queue;
+    private final RemovalNotifier<K, V> notifier;
 
     public SoftHashMap() {
         this.map = new HashMap<K, SoftValue<V>>();
         this.queue = new ReferenceQueue<V>();
+        this.notifier = new RemovalNotifier<K, V>();
     }
 
     public SoftHashMap(int initialCapacity) {
         this.map = new HashMap<K, SoftValue<V>>(initialCapacity);
         this.queue = new ReferenceQueue<V>();
+        this.notifier = new RemovalNotifier<K, V>();
     }
 
     @SuppressWarnings("unchecked")
     private void processQueue() {
         SoftValue<V> o;
+        boolean removed = false;
         while ((o = (SoftValue<V>) queue.poll()) != null) {
-            map.remove(o.key);
+            // 只删除仍然指向该 reference 的 entry，不能误删同一个 key 的新值
+            if (map.get(o.key) == o) {
+                map.remove(o.key);
+                notifier.notify((K) o.key, null, RemovalCause.COLLECTED);
+                removed = true;
+            }
+        }
+        if (removed) {
+            notifier.dispatch();
+        }
+    }
+
+    /**
+     * 开启统计 (默认关闭).
+     */
+    public void enableStats() {
+        if (notifier.getStatsCounter() == CacheStatsCounter.DISABLED) {
+            notifier.setStatsCounter(new CacheStatsCounter());
         }
     }
 
+    /**
+     * 返回当前统计信息的快照，未开启统计时，所有计数均为 0.
+     */
+    public CacheStats getStats() {
+        processQueue();
+        return notifier.getStatsCounter().snapshot(map.size());
+    }
+
+    /**
+     * 设置对象被删除 (包括替换、被 GC 回收) 时的回调，null 表示取消.
+     */
+    public void setRemovalListener(RemovalListener<? super K, ? super V> listener) {
+        notifier.setListener(listener);
+    }
+
     @Override
     public V get(Object key) {
         processQueue();
         SoftValue<V> ref = map.get(key);
-        return (ref != null) ? ref.get() : null;
+        V value = (ref != null) ? ref.get() : null;
+        if (value == null) {
+            notifier.getStatsCounter().recordMisses(1);
+        } else {
+            notifier.getStatsCounter().recordHits(1);
+        }
+        return value;
     }
 
     @Override
     public V put(K key, V softValue) {
         processQueue();
         SoftValue<V> ref = map.put(key, new SoftValue<V>(softValue, key, queue));
-        return (ref != null) ? ref.get() : null;
+        return afterRemove(key, ref, RemovalCause.REPLACED);
     }
 
     @Override
     public V remove(Object key) {
         processQueue();
         SoftValue<V> ref = map.remove(key);
-        return (ref != null) ? ref.get() : null;
+        return afterRemove(key, ref, RemovalCause.EXPLICIT);
     }
 
     @Override
     public void clear() {
         processQueue();
+        if (notifier.getListener() != null || notifier.getStatsCounter() != CacheStatsCounter.DISABLED) {
+            for (Entry<K, SoftValue<V>> entry : map.entrySet()) {
+                V value = entry.getValue().get();
+                notifier.notify(entry.getKey(), value, (value == null) ? RemovalCause.COLLECTED : RemovalCause.EXPLICIT);
+            }
+        }
         map.clear();
+        notifier.dispatch();
+    }
+
+    @SuppressWarnings("unchecked")
+    private V afterRemove(Object key, SoftValue<V> ref, RemovalCause cause) {
+        if (ref == null) {
+            return null;
+        }
+        V value = ref.get();
+        notifier.notify((K) key, value, (value == null) ? RemovalCause.COLLECTED : cause);
+        notifier.dispatch();
+        return value;
     }
 
     @Override
@@ -19,142 +19,500 @@
  */
 package jetbrick.collection;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 /**
- * 简单具有超时检测的 cache 实现.
+ * 具有超时检测和容量限制的并发 cache 实现.
+ * <p>
+ * 数据存储在 {@link ConcurrentHashMap} 中，读操作不加锁；超过 maxSize 后按照 LRU 策略淘汰.
+ * LRU 的访问顺序由一个受 evictionLock 保护的双向链表维护，读操作只是将节点记录到有损的
+ * {@link ReadBuffer} 中，在写操作或者缓冲区满时批量应用 (均摊 O(1))，因此写操作不会阻塞读操作.
+ * <p>
+ * 超时的对象由一个分层时间轮 (hierarchical timing wheel) 管理，均摊 O(1) 地过期.
+ * 时间轮在每次写操作时推进，也可以通过 {@link #scheduleCleanup} 使用后台线程定时推进.
+ * 超时检测使用 {@link System#currentTimeMillis()}，没有设置超时的对象在读取时不会读取时钟.
+ * <p>
+ * 调用 {@link #enableStats()} 之后，通过 {@link #getStats()} 获取命中率、按原因分类的淘汰数量等统计信息；
+ * 通过 {@link #setRemovalListener} 监听对象的删除事件.
  *
  * @author Guoqiang Chen
  */
-public final class TimedSizeCache {
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-    private final Lock readLock = lock.readLock();
-    private final Lock writeLock = lock.writeLock();
-    protected Map<String, CacheEntry> cacheMap;
-    protected int maxSize; // max cache size, 0 = no limit
+public final class TimedSizeCache<K, V> {
+    // timer wheel: buckets and spans of each level
+    private static final int[] TIMER_BUCKETS = { 64, 64, 32, 4, 1 };
+    //@formatter:off
+    private static final long[] TIMER_SPANS = {
+        1L << 10, // 1.02s
+        1L << 16, // 1.09m
+        1L << 22, // 1.17h
+        1L << 27, // 1.55d
+        1L << 29, // 6.21d
+        1L << 29, // 6.21d
+    };
+    //@formatter:on
+    private static final int[] TIMER_SHIFT = { 10, 16, 22, 27, 29 };
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final int maxSize; // max cache size, 0 = no limit
+    private final ReentrantLock evictionLock;
+    private final ReadBuffer<Node<K, V>> readBuffer;
+    private final Consumer<Node<K, V>> accessConsumer;
+    private final TimerWheel timerWheel; // guarded by evictionLock
+    private final RemovalNotifier<K, V> notifier;
+    private final LongSupplier clock;
+
+    // access order (LRU), guarded by evictionLock
+    private Node<K, V> head;
+    private Node<K, V> tail;
 
     public TimedSizeCache(int maxSize) {
-        this.maxSize = maxSize;
-        this.cacheMap = new HashMap<String, CacheEntry>();
+        this(maxSize, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return System.currentTimeMillis();
+            }
+        });
+    }
+
+    // 用于测试，使用指定的时钟
+    TimedSizeCache(int maxSize, LongSupplier clock) {
+        this.clock = clock;
+        this.maxSize = Math.max(0, maxSize);
+        this.data = new ConcurrentHashMap<K, Node<K, V>>();
+        this.evictionLock = new ReentrantLock();
+        this.readBuffer = new ReadBuffer<Node<K, V>>();
+        this.accessConsumer = new Consumer<Node<K, V>>() {
+            @Override
+            public void accept(Node<K, V> node) {
+                if (node.linked) {
+                    moveToTail(node);
+                }
+            }
+        };
+        this.timerWheel = new TimerWheel(clock.getAsLong());
+        this.notifier = new RemovalNotifier<K, V>();
     }
 
     public int getMaxSize() {
         return maxSize;
     }
 
-    public void put(String key, Object object) {
-        put(key, object, 0);
+    /**
+     * 开启统计 (默认关闭).
+     */
+    public void enableStats() {
+        if (notifier.getStatsCounter() == CacheStatsCounter.DISABLED) {
+            notifier.setStatsCounter(new CacheStatsCounter());
+        }
+    }
+
+    /**
+     * 返回当前统计信息的快照，未开启统计时，所有计数均为 0.
+     */
+    public CacheStats getStats() {
+        return notifier.getStatsCounter().snapshot(data.size());
+    }
+
+    /**
+     * 设置对象被删除 (包括替换、淘汰、超时) 时的回调，null 表示取消.
+     */
+    public void setRemovalListener(RemovalListener<? super K, ? super V> listener) {
+        notifier.setListener(listener);
     }
 
-    public void put(String key, Object object, long timeout) {
-        writeLock.lock();
+    CacheStatsCounter getStatsCounter() {
+        return notifier.getStatsCounter();
+    }
+
+    public void put(K key, V value) {
+        put(key, value, 0);
+    }
+
+    /**
+     * 放入 cache.
+     *
+     * @param key       键值
+     * @param value     对象
+     * @param timeout   超时时间 (毫秒)，0 表示不超时
+     */
+    public void put(K key, V value, long timeout) {
+        long now = clock.getAsLong();
+        long expiredTime = (timeout <= 0) ? 0 : now + timeout;
+        Node<K, V> node = new Node<K, V>(key, value, expiredTime);
+        Node<K, V> old = data.put(key, node);
+        if (old != null) {
+            old.retire();
+            notifier.notify(key, old.value, RemovalCause.REPLACED);
+        }
+
+        evictionLock.lock();
         try {
-            CacheEntry entry = new CacheEntry(key, object, timeout);
-            if (isFull()) {
-                pruneCache();
-                if (isFull()) {
-                    throw new IllegalStateException("exceed cache max size");
+            drainReadBuffer();
+            if (old != null) {
+                unlink(old);
+                timerWheel.deschedule(old);
+            }
+            if (node.isAlive()) {
+                linkLast(node);
+                if (expiredTime != 0) {
+                    timerWheel.schedule(node);
                 }
             }
-            cacheMap.put(key, entry);
+            timerWheel.advance(now);
+            evict();
         } finally {
-            writeLock.unlock();
+            evictionLock.unlock();
         }
+        notifier.dispatch();
     }
 
-    public Object get(String key) {
-        readLock.lock();
-        try {
-            CacheEntry entry = cacheMap.get(key);
-            if (entry == null) {
-                return null;
-            }
-            if (entry.isExpired()) {
-                cacheMap.remove(key);
-                return null;
+    public V get(K key) {
+        V value = getQuietly(key);
+        if (value == null) {
+            notifier.getStatsCounter().recordMisses(1);
+        } else {
+            notifier.getStatsCounter().recordHits(1);
+        }
+        return value;
+    }
+
+    // 不记录 hit/miss 统计
+    V getQuietly(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (isExpired(node)) {
+            if (data.remove(key, node)) {
+                node.retire();
+                notifier.notify(key, node.value, RemovalCause.EXPIRED);
+                afterRemove(node);
             }
-            return entry.getObject();
-        } finally {
-            readLock.unlock();
+            return null;
+        }
+        if (maxSize > 0 && readBuffer.offer(node)) {
+            tryDrainReadBuffer();
         }
+        return node.value;
     }
 
+    // 只有设置了超时的对象才需要读取时钟
+    private boolean isExpired(Node<K, V> node) {
+        return node.expiredTime != 0 && node.isExpired(clock.getAsLong());
+    }
+
+    /**
+     * 删除所有已经超时的对象 (推进时间轮，只处理到期的 bucket).
+     */
     public void prune() {
-        writeLock.lock();
+        evictionLock.lock();
         try {
-            pruneCache();
+            drainReadBuffer();
+            timerWheel.advance(clock.getAsLong());
         } finally {
-            writeLock.unlock();
+            evictionLock.unlock();
         }
+        notifier.dispatch();
+    }
+
+    /**
+     * 使用指定的 scheduler 定时清理超时的对象.
+     *
+     * @return 可以用于取消定时任务
+     */
+    public ScheduledFuture<?> scheduleCleanup(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        return scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                prune();
+            }
+        }, period, period, unit);
     }
 
     public boolean isEmpty() {
-        return size() == 0;
+        return data.isEmpty();
     }
 
     public boolean isFull() {
         if (maxSize == 0) {
             return false;
         }
-        return cacheMap.size() >= maxSize;
+        return data.size() >= maxSize;
     }
 
-    public void remove(String key) {
-        writeLock.lock();
-        try {
-            cacheMap.remove(key);
-        } finally {
-            writeLock.unlock();
+    public V remove(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
         }
+        node.retire();
+        notifier.notify(key, node.value, RemovalCause.EXPLICIT);
+        afterRemove(node);
+        return node.value;
     }
 
     public void clear() {
-        writeLock.lock();
+        evictionLock.lock();
         try {
-            cacheMap.clear();
+            for (Node<K, V> node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    node.retire();
+                    notifier.notify(node.key, node.value, RemovalCause.EXPLICIT);
+                }
+            }
+            drainReadBuffer();
+            Node<K, V> node = head;
+            while (node != null) {
+                Node<K, V> next = node.next;
+                if (!node.isAlive()) {
+                    unlink(node);
+                    timerWheel.deschedule(node);
+                }
+                node = next;
+            }
         } finally {
-            writeLock.unlock();
+            evictionLock.unlock();
         }
+        notifier.dispatch();
     }
 
     public int size() {
-        return cacheMap.size();
+        return data.size();
+    }
+
+    // ----------------------------------------------------------------------
+
+    private void afterRemove(Node<K, V> node) {
+        evictionLock.lock();
+        try {
+            unlink(node);
+            timerWheel.deschedule(node);
+        } finally {
+            evictionLock.unlock();
+        }
+        notifier.dispatch();
     }
 
-    private void pruneCache() {
-        Iterator<CacheEntry> values = cacheMap.values().iterator();
-        while (values.hasNext()) {
-            CacheEntry entry = values.next();
-            if (entry.isExpired()) {
-                values.remove();
+    private void tryDrainReadBuffer() {
+        if (evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
             }
         }
     }
 
-    static class CacheEntry {
-        final String key;
-        final Object cachedObject;
-        long expiredTime; // time of expire
+    // guarded by evictionLock
+    private void drainReadBuffer() {
+        readBuffer.drainTo(accessConsumer);
+    }
 
-        CacheEntry(String key, Object object, long ttl) {
+    // guarded by evictionLock
+    private void evict() {
+        if (maxSize == 0) {
+            return;
+        }
+        while (data.size() > maxSize && head != null) {
+            Node<K, V> victim = head;
+            unlink(victim);
+            timerWheel.deschedule(victim);
+            if (data.remove(victim.key, victim)) {
+                victim.retire();
+                notifier.notify(victim.key, victim.value, RemovalCause.SIZE);
+            }
+        }
+    }
+
+    // guarded by evictionLock
+    private void linkLast(Node<K, V> node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        node.linked = true;
+    }
+
+    // guarded by evictionLock
+    private void unlink(Node<K, V> node) {
+        if (!node.linked) {
+            return;
+        }
+        Node<K, V> prev = node.prev;
+        Node<K, V> next = node.next;
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.prev = prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.linked = false;
+    }
+
+    // guarded by evictionLock
+    private void moveToTail(Node<K, V> node) {
+        if (node != tail) {
+            unlink(node);
+            linkLast(node);
+        }
+    }
+
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long expiredTime; // time of expire, 0 = never
+        volatile boolean retired; // removed from data
+
+        // guarded by evictionLock
+        Node<K, V> prev;
+        Node<K, V> next;
+        boolean linked;
+        Node<K, V> timerPrev;
+        Node<K, V> timerNext;
+
+        Node(K key, V value, long expiredTime) {
             this.key = key;
-            this.cachedObject = object;
-            this.expiredTime = (ttl == 0) ? 0 : System.currentTimeMillis() + ttl;
+            this.value = value;
+            this.expiredTime = expiredTime;
+        }
+
+        // sentinel of timer wheel bucket
+        Node() {
+            this(null, null, 0);
+            this.timerPrev = this;
+            this.timerNext = this;
         }
 
-        boolean isExpired() {
+        boolean isExpired(long now) {
             if (expiredTime == 0) {
                 return false;
             }
-            return expiredTime < System.currentTimeMillis();
+            return expiredTime < now;
         }
 
-        Object getObject() {
-            return cachedObject;
+        boolean isAlive() {
+            return !retired;
+        }
+
+        void retire() {
+            retired = true;
+        }
+    }
+
+    /**
+     * 分层时间轮，受 evictionLock 保护.
+     * <p>
+     * 每一层的 bucket 覆盖的时间跨度分别约为 1秒、1分钟、1小时、1.5天、6天，超出范围的放在最后一层.
+     * 时间推进时，只处理跨越过的 bucket；未到期的节点被重新调度到更低的层级.
+     */
+    final class TimerWheel {
+        private final Node<K, V>[][] wheel;
+        private long time;
+
+        @SuppressWarnings("unchecked")
+        TimerWheel(long time) {
+            this.time = time;
+            this.wheel = new Node[TIMER_BUCKETS.length][];
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Node[TIMER_BUCKETS[i]];
+                for (int j = 0; j < wheel[i].length; j++) {
+                    wheel[i][j] = new Node<K, V>();
+                }
+            }
+        }
+
+        void schedule(Node<K, V> node) {
+            Node<K, V> sentinel = findBucket(node.expiredTime);
+            node.timerPrev = sentinel.timerPrev;
+            node.timerNext = sentinel;
+            sentinel.timerPrev.timerNext = node;
+            sentinel.timerPrev = node;
+        }
+
+        void deschedule(Node<K, V> node) {
+            if (node.timerNext != null) {
+                node.timerNext.timerPrev = node.timerPrev;
+                node.timerPrev.timerNext = node.timerNext;
+                node.timerNext = null;
+                node.timerPrev = null;
+            }
+        }
+
+        void advance(long currentTime) {
+            long previousTime = time;
+            if (currentTime <= previousTime) {
+                return;
+            }
+            time = currentTime;
+            for (int i = 0; i < TIMER_SHIFT.length; i++) {
+                long previousTicks = previousTime >>> TIMER_SHIFT[i];
+                long currentTicks = currentTime >>> TIMER_SHIFT[i];
+                if (currentTicks - previousTicks <= 0) {
+                    break;
+                }
+                expire(i, previousTicks, currentTicks);
+            }
+        }
+
+        private void expire(int index, long previousTicks, long currentTicks) {
+            Node<K, V>[] buckets = wheel[index];
+            int mask = buckets.length - 1;
+            int steps = (int) Math.min(1 + currentTicks - previousTicks, buckets.length);
+            int start = (int) (previousTicks & mask);
+            int end = start + steps;
+
+            for (int i = start; i < end; i++) {
+                Node<K, V> sentinel = buckets[i & mask];
+                Node<K, V> node = sentinel.timerNext;
+                sentinel.timerPrev = sentinel;
+                sentinel.timerNext = sentinel;
+
+                while (node != sentinel) {
+                    Node<K, V> next = node.timerNext;
+                    node.timerPrev = null;
+                    node.timerNext = null;
+
+                    if (node.isExpired(time)) {
+                        if (data.remove(node.key, node)) {
+                            node.retire();
+                            notifier.notify(node.key, node.value, RemovalCause.EXPIRED);
+                        }
+                        unlink(node);
+                    } else {
+                        schedule(node);
+                    }
+                    node = next;
+                }
+            }
+        }
+
+        private Node<K, V> findBucket(long expiredTime) {
+            long duration = expiredTime - time;
+            int length = wheel.length - 1;
+            for (int i = 0; i < length; i++) {
+                if (duration < TIMER_SPANS[i + 1]) {
+                    long ticks = expiredTime >>> TIMER_SHIFT[i];
+                    int index = (int) (ticks & (wheel[i].length - 1));
+                    return wheel[i][index];
+                }
+            }
+            return wheel[length][0];
         }
     }
 }
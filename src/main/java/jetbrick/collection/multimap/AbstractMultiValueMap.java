@@ -20,28 +20,40 @@
 package jetbrick.collection.multimap;
 
 import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * MultiValueMap 的基础实现.
+ * <p>
+ * 大多数 key 只有一个 value (如 HTTP 参数和 header)，因此只有一个 value 时直接保存在 map 中，
+ * 第二次 put 同一个 key 时才转换为 List. 同时维护 value 的总数，{@link #size()} 为 O(1).
+ * <p>
+ * {@link #getList}, {@link #valuesList}, {@link #multiEntrySet} 返回的 List 都是只读的.
+ */
 public abstract class AbstractMultiValueMap<K, V> implements MultiValueMap<K, V>, Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
-    private final Map<K, List<V>> map;
+    // value is V (single value), NullValue (single null value) or ValueList (multiple values)
+    private final Map<K, Object> map;
+    private int total; // total number of values
+    private transient Map<K, List<V>> listView;
 
-    protected AbstractMultiValueMap(Map<K, List<V>> map) {
+    protected AbstractMultiValueMap(Map<K, Object> map) {
         this.map = map;
     }
 
     @Override
     public int size() {
-        int total = 0;
-        for (Map.Entry<K, List<V>> entry : map.entrySet()) {
-            total += entry.getValue().size();
-        }
         return total;
     }
 
@@ -57,8 +69,8 @@ public abstract class AbstractMultiValueMap<K, V> implements MultiValueMap<K, V>
 
     @Override
     public boolean containsValue(Object value) {
-        for (Map.Entry<K, List<V>> entry : map.entrySet()) {
-            if (entry.getValue().contains(value)) {
+        for (Object stored : map.values()) {
+            if (contains(stored, value)) {
                 return true;
             }
         }
@@ -66,26 +78,46 @@ public abstract class AbstractMultiValueMap<K, V> implements MultiValueMap<K, V>
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public V get(Object key) {
-        List<V> values = map.get(key);
-        return values != null ? values.get(0) : null;
+        Object stored = map.get(key);
+        if (stored instanceof ValueList) {
+            return ((ValueList<V>) stored).get(0);
+        }
+        return unmask(stored);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public V put(K key, V value) {
-        List<V> values = map.get(key);
-        if (values == null) {
-            values = new ArrayList<V>();
+        Object stored = map.get(key);
+        if (stored == null) {
+            map.put(key, mask(value));
+        } else if (stored instanceof ValueList) {
+            ((ValueList<V>) stored).add(value);
+        } else {
+            ValueList<V> values = new ValueList<V>();
+            values.add(unmask(stored));
+            values.add(value);
             map.put(key, values);
         }
-        values.add(value);
+        total++;
         return null;
     }
 
+    /**
+     * 删除 key 对应的所有 value.
+     *
+     * @return 第一个 value
+     */
     @Override
     public V remove(Object key) {
-        map.remove(key);
-        return null;
+        Object stored = map.remove(key);
+        if (stored == null) {
+            return null;
+        }
+        total -= count(stored);
+        return first(stored);
     }
 
     @Override
@@ -98,28 +130,69 @@ public abstract class AbstractMultiValueMap<K, V> implements MultiValueMap<K, V>
     @Override
     public void clear() {
         map.clear();
+        total = 0;
     }
 
     @Override
     public Set<K> keySet() {
-        return map.keySet();
+        return new AbstractSet<K>() {
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return map.containsKey(key);
+            }
+
+            @Override
+            public Iterator<K> iterator() {
+                final Iterator<Map.Entry<K, Object>> it = map.entrySet().iterator();
+                return new Iterator<K>() {
+                    private Map.Entry<K, Object> current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public K next() {
+                        current = it.next();
+                        return current.getKey();
+                    }
+
+                    @Override
+                    public void remove() {
+                        it.remove();
+                        total -= count(current.getValue());
+                    }
+                };
+            }
+        };
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Collection<V> values() {
-        List<V> values = new ArrayList<V>(map.size() * 3);
-        for (Map.Entry<K, List<V>> entry : map.entrySet()) {
-            values.addAll(entry.getValue());
+        List<V> values = new ArrayList<V>(total);
+        for (Object stored : map.values()) {
+            if (stored instanceof ValueList) {
+                values.addAll((ValueList<V>) stored);
+            } else {
+                values.add((V) unmask(stored));
+            }
         }
         return values;
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
-        Set<Map.Entry<K, V>> entrys = new HashSet<Entry<K, V>>(map.size() * 3);
-        for (final Map.Entry<K, List<V>> entry : map.entrySet()) {
+        Set<Map.Entry<K, V>> entrys = new HashSet<Entry<K, V>>(total * 2);
+        for (Map.Entry<K, Object> entry : map.entrySet()) {
             final K key = entry.getKey();
-            for (final V value : entry.getValue()) {
+            for (final V value : toList(entry.getValue())) {
                 entrys.add(new Map.Entry<K, V>() {
                     @Override
                     public K getKey() {
@@ -143,38 +216,168 @@ public abstract class AbstractMultiValueMap<K, V> implements MultiValueMap<K, V>
 
     @Override
     public boolean containsValue(Object key, Object value) {
-        List<V> values = map.get(key);
-        return values == null ? false : values.contains(value);
+        Object stored = map.get(key);
+        return stored == null ? false : contains(stored, value);
     }
 
     @Override
     public Collection<List<V>> valuesList() {
-        return map.values();
+        return new AbstractCollection<List<V>>() {
+            @Override
+            public int size() {
+                return map.size();
+            }
+
+            @Override
+            public Iterator<List<V>> iterator() {
+                final Iterator<Object> it = map.values().iterator();
+                return new Iterator<List<V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public List<V> next() {
+                        return toList(it.next());
+                    }
+                };
+            }
+        };
     }
 
     @Override
     public List<V> getList(Object key) {
-        return map.get(key);
+        Object stored = map.get(key);
+        return stored == null ? null : toList(stored);
     }
 
     @Override
     public Set<Entry<K, List<V>>> multiEntrySet() {
-        return map.entrySet();
+        return asListMap().entrySet();
     }
 
     @Override
     public boolean equals(Object o) {
-        return this == o || map.equals(o);
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof AbstractMultiValueMap) {
+            return asListMap().equals(((AbstractMultiValueMap<?, ?>) o).asListMap());
+        }
+        return asListMap().equals(o);
     }
 
     @Override
     public int hashCode() {
-        return map.hashCode();
+        return asListMap().hashCode();
     }
 
     @Override
     public String toString() {
-        return map.toString();
+        return asListMap().toString();
+    }
+
+    // ----------------------------------------------------------------------
+
+    // read-only view as Map<K, List<V>>
+    private Map<K, List<V>> asListMap() {
+        Map<K, List<V>> view = listView;
+        if (view == null) {
+            view = new AbstractMap<K, List<V>>() {
+                @Override
+                public int size() {
+                    return map.size();
+                }
+
+                @Override
+                public boolean containsKey(Object key) {
+                    return map.containsKey(key);
+                }
+
+                @Override
+                public List<V> get(Object key) {
+                    return getList(key);
+                }
+
+                @Override
+                public Set<Entry<K, List<V>>> entrySet() {
+                    return new AbstractSet<Entry<K, List<V>>>() {
+                        @Override
+                        public int size() {
+                            return map.size();
+                        }
+
+                        @Override
+                        public Iterator<Entry<K, List<V>>> iterator() {
+                            final Iterator<Map.Entry<K, Object>> it = map.entrySet().iterator();
+                            return new Iterator<Entry<K, List<V>>>() {
+                                @Override
+                                public boolean hasNext() {
+                                    return it.hasNext();
+                                }
+
+                                @Override
+                                public Entry<K, List<V>> next() {
+                                    Map.Entry<K, Object> entry = it.next();
+                                    return new SimpleImmutableEntry<K, List<V>>(entry.getKey(), toList(entry.getValue()));
+                                }
+                            };
+                        }
+                    };
+                }
+            };
+            listView = view;
+        }
+        return view;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<V> toList(Object stored) {
+        if (stored instanceof ValueList) {
+            return Collections.unmodifiableList((ValueList<V>) stored);
+        }
+        return Collections.singletonList((V) unmask(stored));
+    }
+
+    @SuppressWarnings("unchecked")
+    private V first(Object stored) {
+        if (stored instanceof ValueList) {
+            return ((ValueList<V>) stored).get(0);
+        }
+        return unmask(stored);
+    }
+
+    private static int count(Object stored) {
+        return (stored instanceof ValueList) ? ((ValueList<?>) stored).size() : 1;
+    }
+
+    private static boolean contains(Object stored, Object value) {
+        if (stored instanceof ValueList) {
+            return ((ValueList<?>) stored).contains(value);
+        }
+        Object v = unmask(stored);
+        return v == null ? value == null : v.equals(value);
+    }
+
+    private static Object mask(Object value) {
+        return value == null ? NullValue.INSTANCE : value;
     }
 
+    @SuppressWarnings("unchecked")
+    private static <V> V unmask(Object stored) {
+        return stored == NullValue.INSTANCE ? null : (V) stored;
+    }
+
+    enum NullValue {
+        INSTANCE
+    }
+
+    static final class ValueList<V> extends ArrayList<V> {
+        private static final long serialVersionUID = 1L;
+
+        ValueList() {
+            super(4);
+        }
+    }
 }
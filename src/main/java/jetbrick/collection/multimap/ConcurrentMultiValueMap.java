@@ -0,0 +1,457 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection.multimap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * 线程安全的 MultiValueMap，适用于多个线程并发地构建索引.
+ * <p>
+ * 每个 key 的 values 保存在一个只能追加的无锁链表中，{@link #add} 只需要一次 CAS，
+ * 多个部分结果可以通过 {@link #merge} 合并 (每个 key 的所有 values 一次性链接到末尾).
+ * <p>
+ * 遍历是弱一致的 (不会抛出 {@link java.util.ConcurrentModificationException}，可能看不到并发的修改)，
+ * {@link #getList}, {@link #values()}, {@link #entrySet()} 等返回的都是只读的快照.
+ * {@link #size()} 在并发修改时是近似值，并发修改结束后是精确值.
+ * <p>
+ * 删除一个 key 时，它的链表会被封闭 (sealed)，之后的追加操作会失败并重新在 map 中查找 (或者创建) 新的链表，
+ * 所以和删除并发的 {@link #add} 不会丢失数据.
+ *
+ * @author Guoqiang Chen
+ */
+public class ConcurrentMultiValueMap<K, V> implements MultiValueMap<K, V> {
+    private final ConcurrentHashMap<K, ValueLog<V>> map;
+    private final LongAdder total;
+
+    public ConcurrentMultiValueMap() {
+        this(16);
+    }
+
+    public ConcurrentMultiValueMap(int initialCapacity) {
+        this.map = new ConcurrentHashMap<K, ValueLog<V>>(initialCapacity);
+        this.total = new LongAdder();
+    }
+
+    public ConcurrentMultiValueMap(Map<? extends K, ? extends V> otherMap) {
+        this(otherMap.size());
+        putAll(otherMap);
+    }
+
+    /**
+     * 并发收集到 ConcurrentMultiValueMap 中，用于 parallel stream.
+     */
+    public static <T, K, V> Collector<T, ?, ConcurrentMultiValueMap<K, V>> collector(final Function<? super T, ? extends K> keyMapper, final Function<? super T, ? extends V> valueMapper) {
+        Supplier<ConcurrentMultiValueMap<K, V>> supplier = new Supplier<ConcurrentMultiValueMap<K, V>>() {
+            @Override
+            public ConcurrentMultiValueMap<K, V> get() {
+                return new ConcurrentMultiValueMap<K, V>();
+            }
+        };
+        BiConsumer<ConcurrentMultiValueMap<K, V>, T> accumulator = new BiConsumer<ConcurrentMultiValueMap<K, V>, T>() {
+            @Override
+            public void accept(ConcurrentMultiValueMap<K, V> map, T element) {
+                map.add(keyMapper.apply(element), valueMapper.apply(element));
+            }
+        };
+        BinaryOperator<ConcurrentMultiValueMap<K, V>> combiner = new BinaryOperator<ConcurrentMultiValueMap<K, V>>() {
+            @Override
+            public ConcurrentMultiValueMap<K, V> apply(ConcurrentMultiValueMap<K, V> a, ConcurrentMultiValueMap<K, V> b) {
+                a.merge(b);
+                return a;
+            }
+        };
+        return Collector.of(supplier, accumulator, combiner, Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * 追加一个 value.
+     */
+    public void add(K key, V value) {
+        Node<V> node = new Node<V>(value);
+        ValueLog<V> created = null;
+        for (;;) {
+            ValueLog<V> log = map.get(key);
+            if (log == null) {
+                if (created == null) {
+                    created = new ValueLog<V>(node, node);
+                }
+                log = map.putIfAbsent(key, created);
+                if (log == null) {
+                    break;
+                }
+            }
+            if (log.link(node, node)) {
+                break;
+            }
+            // 链表已经被删除 (sealed)，重试
+        }
+        total.increment();
+    }
+
+    /**
+     * 将另一个 MultiValueMap 的所有 values 追加到当前 map 中.
+     */
+    public void merge(MultiValueMap<? extends K, ? extends V> other) {
+        for (Map.Entry<? extends K, ? extends List<? extends V>> entry : other.multiEntrySet()) {
+            List<? extends V> values = entry.getValue();
+            if (values == null || values.isEmpty()) {
+                continue;
+            }
+            ValueLog<V> chain = ValueLog.of(values);
+            for (;;) {
+                ValueLog<V> log = map.putIfAbsent(entry.getKey(), chain);
+                if (log == null || log.link(chain.head, chain.tail)) {
+                    break;
+                }
+                // 链表已经被删除 (sealed)，重试
+            }
+            total.add(values.size());
+        }
+    }
+
+    /**
+     * 同 {@link #add}，总是返回 null.
+     */
+    @Override
+    public V put(K key, V value) {
+        add(key, value);
+        return null;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 删除 key 对应的所有 value.
+     *
+     * @return 第一个 value
+     */
+    @Override
+    public V remove(Object key) {
+        ValueLog<V> log = map.remove(key);
+        if (log == null) {
+            return null;
+        }
+        // 封闭之后链表不会再改变，统计实际链接的节点数量
+        total.add(-log.seal());
+        return log.head.value;
+    }
+
+    @Override
+    public void clear() {
+        for (K key : map.keySet()) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        long size = total.sum();
+        return (size > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) Math.max(size, 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (ValueLog<V> log : map.values()) {
+            if (log.contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsValue(Object key, Object value) {
+        ValueLog<V> log = map.get(key);
+        return log != null && log.contains(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        ValueLog<V> log = map.get(key);
+        return log != null ? log.head.value : null;
+    }
+
+    @Override
+    public List<V> getList(Object key) {
+        ValueLog<V> log = map.get(key);
+        return log != null ? log.toList() : null;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
+    @Override
+    public Collection<V> values() {
+        List<V> values = new ArrayList<V>(size());
+        for (ValueLog<V> log : map.values()) {
+            for (V value : log) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> entrys = new HashSet<Entry<K, V>>(size() * 2);
+        for (Map.Entry<K, ValueLog<V>> entry : map.entrySet()) {
+            final K key = entry.getKey();
+            for (final V value : entry.getValue()) {
+                entrys.add(new Map.Entry<K, V>() {
+                    @Override
+                    public K getKey() {
+                        return key;
+                    }
+
+                    @Override
+                    public V getValue() {
+                        return value;
+                    }
+
+                    @Override
+                    public V setValue(V value) {
+                        throw new UnsupportedOperationException();
+                    }
+                });
+            }
+        }
+        return entrys;
+    }
+
+    @Override
+    public Collection<List<V>> valuesList() {
+        List<List<V>> lists = new ArrayList<List<V>>(map.size());
+        for (ValueLog<V> log : map.values()) {
+            lists.add(log.toList());
+        }
+        return lists;
+    }
+
+    @Override
+    public Set<Entry<K, List<V>>> multiEntrySet() {
+        return snapshot().entrySet();
+    }
+
+    /**
+     * 返回当前内容的快照.
+     */
+    public Map<K, List<V>> snapshot() {
+        Map<K, List<V>> result = new LinkedHashMap<K, List<V>>(map.size() * 2);
+        for (Map.Entry<K, ValueLog<V>> entry : map.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toList());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof ConcurrentMultiValueMap) {
+            return snapshot().equals(((ConcurrentMultiValueMap<?, ?>) o).snapshot());
+        }
+        if (o instanceof MultiValueMap) {
+            Map<Object, Object> other = new HashMap<Object, Object>();
+            for (Map.Entry<?, ?> entry : ((MultiValueMap<?, ?>) o).multiEntrySet()) {
+                other.put(entry.getKey(), entry.getValue());
+            }
+            return snapshot().equals(other);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return snapshot().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * 只能追加的无锁单向链表 (Michael-Scott 队列的入队部分).
+     * 最后一个节点的 next 指向 {@link #SEALED} 表示链表已经被删除，不能再追加.
+     */
+    static final class ValueLog<V> implements Iterable<V> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<ValueLog, Node> TAIL = AtomicReferenceFieldUpdater.newUpdater(ValueLog.class, Node.class, "tail");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT = AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+        @SuppressWarnings("rawtypes")
+        private static final Node SEALED = new Node<Object>(null);
+
+        final Node<V> head;
+        volatile Node<V> tail; // may lag behind the real tail
+
+        ValueLog(Node<V> head, Node<V> tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+
+        // 创建一个包含所有 values 的链表 (未发布，不需要 CAS)
+        static <V> ValueLog<V> of(List<? extends V> values) {
+            Iterator<? extends V> it = values.iterator();
+            Node<V> head = new Node<V>(it.next());
+            Node<V> tail = head;
+            while (it.hasNext()) {
+                Node<V> node = new Node<V>(it.next());
+                tail.next = node;
+                tail = node;
+            }
+            return new ValueLog<V>(head, tail);
+        }
+
+        /**
+         * 将 first..last (未发布的节点) 整体追加到末尾.
+         *
+         * @return 如果链表已经被封闭，返回 false
+         */
+        @SuppressWarnings("unchecked")
+        boolean link(Node<V> first, Node<V> last) {
+            for (;;) {
+                Node<V> t = tail;
+                Node<V> next = t.next;
+                if (next == null) {
+                    if (NEXT.compareAndSet(t, null, first)) {
+                        TAIL.compareAndSet(this, t, last);
+                        return true;
+                    }
+                } else if (next == SEALED) {
+                    return false;
+                } else {
+                    TAIL.compareAndSet(this, t, next); // help to advance the tail
+                }
+            }
+        }
+
+        /**
+         * 封闭链表，之后的 {@link #link} 都会失败.
+         *
+         * @return 封闭时链表中的节点数量
+         */
+        @SuppressWarnings("unchecked")
+        int seal() {
+            for (;;) {
+                Node<V> t = tail;
+                Node<V> next = t.next;
+                if (next == null) {
+                    if (NEXT.compareAndSet(t, null, SEALED)) {
+                        break;
+                    }
+                } else if (next == SEALED) {
+                    break;
+                } else {
+                    TAIL.compareAndSet(this, t, next);
+                }
+            }
+            int size = 0;
+            for (Node<V> node = head; node != SEALED; node = node.next) {
+                size++;
+            }
+            return size;
+        }
+
+        boolean contains(Object value) {
+            for (Node<V> node = head; node != null && node != SEALED; node = node.next) {
+                if (value == null ? node.value == null : value.equals(node.value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<V> toList() {
+            List<V> list = new ArrayList<V>();
+            for (Node<V> node = head; node != null && node != SEALED; node = node.next) {
+                list.add(node.value);
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<V>() {
+                private Node<V> next = head;
+
+                @Override
+                public boolean hasNext() {
+                    return next != null && next != SEALED;
+                }
+
+                @Override
+                public V next() {
+                    Node<V> node = next;
+                    if (node == null || node == SEALED) {
+                        throw new NoSuchElementException();
+                    }
+                    next = node.next;
+                    return node.value;
+                }
+            };
+        }
+    }
+
+    static final class Node<V> {
+        final V value;
+        volatile Node<V> next;
+
+        Node(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -21,22 +21,21 @@ package jetbrick.collection.multimap;
 
 import java.io.Serializable;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class MultiValueHashMap<K, V> extends AbstractMultiValueMap<K, V> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     public MultiValueHashMap() {
-        super(new HashMap<K, List<V>>());
+        super(new HashMap<K, Object>());
     }
 
     public MultiValueHashMap(int initialCapacity) {
-        super(new HashMap<K, List<V>>(initialCapacity));
+        super(new HashMap<K, Object>(initialCapacity));
     }
 
     public MultiValueHashMap(Map<K, V> otherMap) {
-        super(new HashMap<K, List<V>>(otherMap.size()));
+        super(new HashMap<K, Object>(otherMap.size()));
         putAll(otherMap);
     }
 }
@@ -21,22 +21,21 @@ package jetbrick.collection.multimap;
 
 import java.io.Serializable;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 
 public class MultiValueLinkedHashMap<K, V> extends AbstractMultiValueMap<K, V> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     public MultiValueLinkedHashMap() {
-        super(new LinkedHashMap<K, List<V>>());
+        super(new LinkedHashMap<K, Object>());
     }
 
     public MultiValueLinkedHashMap(int initialCapacity) {
-        super(new LinkedHashMap<K, List<V>>(initialCapacity));
+        super(new LinkedHashMap<K, Object>(initialCapacity));
     }
 
     public MultiValueLinkedHashMap(Map<K, V> otherMap) {
-        super(new LinkedHashMap<K, List<V>>(otherMap.size()));
+        super(new LinkedHashMap<K, Object>(otherMap.size()));
         putAll(otherMap);
     }
 }
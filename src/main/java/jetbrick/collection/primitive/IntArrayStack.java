@@ -0,0 +1,117 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection.primitive;
+
+import java.util.EmptyStackException;
+
+/**
+ * {@code int} 的栈，元素不需要装箱，非线程安全.
+ *
+ * @see jetbrick.collection.ArrayStack
+ * @author Guoqiang Chen
+ */
+public final class IntArrayStack {
+    private static final int DEFAULT_CAPACITY = 16;
+    private int[] elements;
+    private int size;
+
+    public IntArrayStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntArrayStack(int initialCapacity) {
+        this.elements = new int[initialCapacity];
+        this.size = 0;
+    }
+
+    /**
+     * Tests if this stack is empty.
+     * @return true if and only if this stack contains no items; false otherwise.
+     */
+    public boolean empty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all of the elements from this stack.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of elements in this stack.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Pushes an item onto the top of this stack.
+     *
+     * @param element － the element to be pushed onto this stack
+     * @return the item argument
+     */
+    public int push(int element) {
+        int i;
+        int[] els;
+        if ((i = size++) >= (els = elements).length) {
+            System.arraycopy(els, 0, els = elements = new int[Math.max(i << 1, DEFAULT_CAPACITY)], 0, i);
+        }
+        els[i] = element;
+        return element;
+    }
+
+    /**
+     * Removes the item at the top of this stack and returns that item as the value of this function.
+     *
+     * @return The item at the top of this stack
+     * @throws EmptyStackException - if this queue is empty
+     */
+    public int pop() throws EmptyStackException {
+        int i;
+        if ((i = --size) >= 0) {
+            return elements[i];
+        } else {
+            size = 0;
+            throw new EmptyStackException();
+        }
+    }
+
+    /**
+     * Looks at the item at the top of this stack without removing it from the stack.
+     *
+     * @return the item at the top of this stack
+     * @throws EmptyStackException - if this stack is empty.
+     */
+    public int peek() throws EmptyStackException {
+        if (size == 0) throw new EmptyStackException();
+        return elements[size - 1];
+    }
+
+    public int peek(int offset) throws IndexOutOfBoundsException {
+        int index;
+        if (offset >= 0 && (index = size - offset - 1) >= 0) {
+            return elements[index];
+        } else {
+            throw new IndexOutOfBoundsException("offset=" + offset);
+        }
+    }
+}
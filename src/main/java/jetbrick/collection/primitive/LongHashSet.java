@@ -0,0 +1,207 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection.primitive;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * {@code long} 的开放地址 (线性探测) HashSet，元素不需要装箱.
+ * <p>
+ * 删除时向前移动后续的元素 (不使用删除标记)，非线程安全.
+ *
+ * @author Guoqiang Chen
+ */
+public final class LongHashSet {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] elements; // 0 = empty slot
+    private int mask;
+    private int size; // not include zero
+    private int threshold;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(HashUtils.tableSize(expectedSize, LOAD_FACTOR));
+    }
+
+    public int size() {
+        return hasZero ? size + 1 : size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(long e) {
+        if (e == 0) {
+            return hasZero;
+        }
+        int index = HashUtils.mix(e) & mask;
+        long k;
+        while ((k = elements[index]) != 0) {
+            if (k == e) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return 元素不存在并被加入时返回 true
+     */
+    public boolean add(long e) {
+        if (e == 0) {
+            boolean added = !hasZero;
+            hasZero = true;
+            return added;
+        }
+        int index = HashUtils.mix(e) & mask;
+        long k;
+        while ((k = elements[index]) != 0) {
+            if (k == e) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        elements[index] = e;
+        if (++size > threshold) {
+            rehash(elements.length << 1);
+        }
+        return true;
+    }
+
+    public void addAll(long[] array) {
+        for (long e : array) {
+            add(e);
+        }
+    }
+
+    /**
+     * @return 元素存在并被删除时返回 true
+     */
+    public boolean remove(long e) {
+        if (e == 0) {
+            boolean existed = hasZero;
+            hasZero = false;
+            return existed;
+        }
+        int index = HashUtils.mix(e) & mask;
+        long k;
+        while ((k = elements[index]) != 0) {
+            if (k == e) {
+                size--;
+                shiftKeys(index);
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(elements, 0);
+        size = 0;
+        hasZero = false;
+    }
+
+    /**
+     * 遍历所有的元素 (顺序不确定)，遍历过程中不能修改.
+     */
+    public void forEach(LongConsumer action) {
+        if (hasZero) {
+            action.accept(0);
+        }
+        long[] elements = this.elements;
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] != 0) {
+                action.accept(elements[i]);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size()];
+        int n = 0;
+        if (hasZero) {
+            result[n++] = 0;
+        }
+        for (long e : elements) {
+            if (e != 0) {
+                result[n++] = e;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    // ----------------------------------------------------------------------
+
+    // backward shift deletion for linear probing
+    private void shiftKeys(int pos) {
+        int last;
+        long k;
+        for (;;) {
+            pos = ((last = pos) + 1) & mask;
+            for (;;) {
+                if ((k = elements[pos]) == 0) {
+                    elements[last] = 0;
+                    return;
+                }
+                int slot = HashUtils.mix(k) & mask;
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            elements[last] = k;
+        }
+    }
+
+    private void allocate(int capacity) {
+        elements = new long[capacity];
+        mask = capacity - 1;
+        threshold = HashUtils.threshold(capacity, LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldElements = elements;
+        allocate(capacity);
+        for (long e : oldElements) {
+            if (e != 0) {
+                int index = HashUtils.mix(e) & mask;
+                while (elements[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                elements[index] = e;
+            }
+        }
+    }
+}
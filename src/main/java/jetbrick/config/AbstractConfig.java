@@ -22,7 +22,6 @@ package jetbrick.config;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +31,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import jetbrick.bean.KlassInfo;
 import jetbrick.bean.PropertyInfo;
+import jetbrick.collection.RadixTreeMap;
 import jetbrick.typecast.TypeCastUtils;
 import jetbrick.util.ClassLoaderUtils;
 import jetbrick.util.ClassUtils;
@@ -45,17 +45,20 @@ import jetbrick.util.StringUtils;
  */
 public abstract class AbstractConfig {
     protected final Map<String, String> config;
+    private final RadixTreeMap<String> tree; // same instance as config, for prefix lookup
 
     public AbstractConfig(Map<String, String> map) {
-        config = new HashMap<String, String>(map);
+        tree = new RadixTreeMap<String>(map);
+        config = tree;
     }
 
     public AbstractConfig(Properties props) {
-        config = new HashMap<String, String>(props.size());
+        tree = new RadixTreeMap<String>();
         for (String key : props.stringPropertyNames()) {
             String value = props.getProperty(key);
-            config.put(key, value);
+            tree.put(key, value);
         }
+        config = tree;
     }
 
     // -----------------------------------------------------------------
@@ -72,12 +75,7 @@ public abstract class AbstractConfig {
     }
 
     public Set<String> keySet(String prefix) {
-        Set<String> keys = new LinkedHashSet<String>();
-        for (String key : config.keySet()) {
-            if (key.startsWith(prefix)) {
-                keys.add(key);
-            }
-        }
+        Set<String> keys = new LinkedHashSet<String>(tree.prefixMap(prefix).keySet());
         return keys.isEmpty() ? Collections.<String> emptySet() : keys;
     }
 
@@ -245,7 +243,7 @@ public abstract class AbstractConfig {
 
                 Class<?> type = p.getRawType(klass);
                 Object value;
-                if (type == List.class || type == Collection.class || type.isArray()) {
+                if (Collection.class.isAssignableFrom(type) || type.isArray()) {
                     Class<?> elementType;
                     if (type.isArray()) {
                         elementType = type.getComponentType();
@@ -255,9 +253,9 @@ public abstract class AbstractConfig {
 
                     value = doGetList(propName, elementType, null);
 
-                    // convert list to array
-                    if (type.isArray()) {
-                        value = TypeCastUtils.convertToArray(value, elementType);
+                    // convert list to array, Set, ...
+                    if (type != List.class && type != Collection.class) {
+                        value = TypeCastUtils.convert(value, p.getGenericType(cls));
                     }
                 } else {
                     value = doGetValue(propName, type, null);
@@ -19,10 +19,28 @@
  */
 package jetbrick.typecast;
 
+import java.util.Optional;
+
 public interface Convertor<T> {
 
     public T convert(String value);
 
     public T convert(Object value);
 
+    /**
+     * 尝试转换，转换失败或者 value 为 null 时返回 {@link Optional#empty()}，不会抛出 TypeCastException.
+     *
+     * 内置的 Convertor 会先校验输入，不会走异常路径.
+     */
+    public default Optional<T> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(convert(value));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
 }
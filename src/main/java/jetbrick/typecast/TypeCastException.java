@@ -38,8 +38,19 @@ public final class TypeCastException extends RuntimeException {
         super(message, cause);
     }
 
+    private TypeCastException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
     public static TypeCastException create(Object value, Class<?> targetClass, Throwable e) {
         return new TypeCastException("Unable to convert value to " + targetClass.getName() + " : " + String.valueOf(value), e);
     }
 
+    /**
+     * 创建一个不包含 stack trace 的异常，用于输入格式错误等可预期的转换失败，避免填充 stack trace 的开销.
+     */
+    public static TypeCastException createStackless(Object value, Class<?> targetClass) {
+        return new TypeCastException("Unable to convert value to " + targetClass.getName() + " : " + String.valueOf(value), null, false, false);
+    }
+
 }
@@ -20,6 +20,10 @@
 package jetbrick.typecast;
 
 import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
@@ -31,12 +35,18 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.GregorianCalendar;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import jetbrick.bean.TypeResolverUtils;
 import jetbrick.io.resource.Resource;
 import jetbrick.typecast.support.ArrayConvertor;
 import jetbrick.typecast.support.BigDecimalConvertor;
@@ -47,8 +57,10 @@ import jetbrick.typecast.support.CalendarConvertor;
 import jetbrick.typecast.support.CharacterConvertor;
 import jetbrick.typecast.support.CharsetConvertor;
 import jetbrick.typecast.support.ClassConvertor;
+import jetbrick.typecast.support.CollectionConvertor;
 import jetbrick.typecast.support.DateConvertor;
 import jetbrick.typecast.support.DoubleConvertor;
+import jetbrick.typecast.support.EnumConvertor;
 import jetbrick.typecast.support.FileConvertor;
 import jetbrick.typecast.support.FloatConvertor;
 import jetbrick.typecast.support.InstantConvertor;
@@ -59,6 +71,8 @@ import jetbrick.typecast.support.LocalDateTimeConvertor;
 import jetbrick.typecast.support.LocalTimeConvertor;
 import jetbrick.typecast.support.LocaleConvertor;
 import jetbrick.typecast.support.LongConvertor;
+import jetbrick.typecast.support.MapConvertor;
+import jetbrick.typecast.support.ParallelArrayConvertor;
 import jetbrick.typecast.support.PathConvertor;
 import jetbrick.typecast.support.PrimitiveArrayConvertor;
 import jetbrick.typecast.support.ResourceConvertor;
@@ -78,12 +92,14 @@ public final class TypeCastResolver {
     private final Map<Class<?>, ListConvertor<?>> listPool;
     private final Map<Class<?>, ArrayConvertor<?>> objectArrayPool;
     private final Map<Class<?>, PrimitiveArrayConvertor<?>> primitiveArrayPool;
+    private final ConcurrentMap<Type, Convertor<?>> genericPool;
 
     public TypeCastResolver() {
         this.pool = new IdentityHashMap<Class<?>, Convertor<?>>(64);
         this.listPool = new IdentityHashMap<Class<?>, ListConvertor<?>>(64);
         this.objectArrayPool = new IdentityHashMap<Class<?>, ArrayConvertor<?>>(64);
         this.primitiveArrayPool = new IdentityHashMap<Class<?>, PrimitiveArrayConvertor<?>>(16);
+        this.genericPool = new ConcurrentHashMap<Type, Convertor<?>>(64);
 
         // number
         register(Byte.class, ByteConvertor.INSTANCE);
@@ -158,6 +174,7 @@ public final class TypeCastResolver {
             objectArrayPool.put(type, new ArrayConvertor(type, convertor));
             listPool.put(type, new ListConvertor(type, convertor));
         }
+        genericPool.clear();
     }
 
     public void unregister(Class<?> type) {
@@ -169,6 +186,7 @@ public final class TypeCastResolver {
             objectArrayPool.remove(type);
             listPool.remove(type);
         }
+        genericPool.clear();
     }
 
     public <T> Convertor<T> lookup(Class<T> type) {
@@ -193,6 +211,10 @@ public final class TypeCastResolver {
         if (type.isArray()) {
             return (T) convertToArray(value, type.getComponentType());
         }
+        c = (Convertor<T>) resolve(type);
+        if (c != null) {
+            return c.convert(value);
+        }
         throw new IllegalStateException("Unsupported cast class: " + type.getName());
     }
 
@@ -207,6 +229,10 @@ public final class TypeCastResolver {
             if (c != null) {
                 return (T) c.convert(value);
             }
+            Convertor<?> ac = resolve(Array.newInstance(elementType, 0).getClass());
+            if (ac != null) {
+                return (T) ac.convert(value);
+            }
         }
         throw new IllegalStateException("Cannot cast to array: " + elementType.getName() + "[]");
     }
@@ -237,6 +263,10 @@ public final class TypeCastResolver {
         if (type.isArray()) {
             return (T) convertToArray(value, type.getComponentType());
         }
+        c = (Convertor<T>) resolve(type);
+        if (c != null) {
+            return c.convert(value);
+        }
         throw new IllegalStateException("Unsupported cast class: " + type.getName());
     }
 
@@ -251,6 +281,10 @@ public final class TypeCastResolver {
             if (c != null) {
                 return (T) c.convert(value);
             }
+            Convertor<?> ac = resolve(Array.newInstance(elementType, 0).getClass());
+            if (ac != null) {
+                return (T) ac.convert(value);
+            }
         }
         throw new IllegalStateException("Cannot cast to array: " + elementType.getName() + "[]");
     }
@@ -262,4 +296,162 @@ public final class TypeCastResolver {
         }
         throw new IllegalStateException("Cannot cast to class: List<" + elementType.getName() + ">");
     }
+
+    // ------ try convert ----------------------------------------------------------------
+
+    /**
+     * 尝试转换，无法转换时返回 {@link Optional#empty()}，不会抛出 TypeCastException.
+     */
+    public <T> Optional<T> tryConvert(Object value, Class<T> type) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (type.isInstance(value)) {
+            return Optional.of((T) value);
+        }
+        Convertor<T> c = (Convertor<T>) resolve(type);
+        if (c == null) {
+            throw new IllegalStateException("Unsupported cast class: " + type.getName());
+        }
+        return c.tryConvert(value);
+    }
+
+    // ------ bulk convert ---------------------------------------------------------------
+
+    /**
+     * 批量转换为数组，元素数量超过 {@link ParallelArrayConvertor#PARALLEL_THRESHOLD} 时，按块并行转换.
+     *
+     * @param values        要转换的元素
+     * @param elementType   目标数组的元素类型 (支持 primitive)
+     * @param executor      并行执行的线程池，为 null 时在当前线程转换
+     * @return              转换后的数组
+     */
+    public <T> T convertArray(Object[] values, Class<?> elementType, Executor executor) {
+        Convertor<?> c = resolve(elementType);
+        if (c == null) {
+            throw new IllegalStateException("Cannot cast to array: " + elementType.getName() + "[]");
+        }
+        return (T) new ParallelArrayConvertor(elementType, c, executor).convert(values);
+    }
+
+    public <T> T convertArray(Collection<?> values, Class<?> elementType, Executor executor) {
+        if (values == null) {
+            return null;
+        }
+        return convertArray(values.toArray(), elementType, executor);
+    }
+
+    // ------ convert generic type -------------------------------------------------------
+
+    /**
+     * 转换为指定的泛型类型，如 List&lt;Integer&gt;, Map&lt;String, Long&gt;, Set&lt;MyEnum&gt;.
+     *
+     * @param value     要转换的值
+     * @param type      目标类型 (Class, ParameterizedType, GenericArrayType 等)
+     * @return          转换后的对象
+     */
+    public <T> T convert(Object value, Type type) {
+        if (type instanceof Class) {
+            return convert(value, (Class<T>) type);
+        }
+        if (value == null) {
+            return null;
+        }
+        Convertor<T> c = (Convertor<T>) resolve(type);
+        if (c == null) {
+            throw new IllegalStateException("Unsupported cast type: " + type);
+        }
+        return c.convert(value);
+    }
+
+    /**
+     * 查找指定泛型类型对应的 Convertor，第一次查找时会组合出对应的 Convertor 并缓存.
+     *
+     * @param type      目标类型
+     * @return          如果不支持该类型，返回 null
+     */
+    public Convertor<?> resolve(Type type) {
+        Convertor<?> c = genericPool.get(type);
+        if (c == null) {
+            c = createConvertor(type);
+            if (c == null) {
+                return null;
+            }
+            Convertor<?> old = genericPool.putIfAbsent(type, c);
+            if (old != null) {
+                c = old;
+            }
+        }
+        return c;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Convertor<?> createConvertor(Type type) {
+        if (type instanceof Class) {
+            Class<?> cls = (Class<?>) type;
+            Convertor<?> c = pool.get(cls);
+            if (c != null) {
+                return c;
+            }
+            if (cls.isEnum()) {
+                return new EnumConvertor(cls);
+            }
+            if (cls.isArray()) {
+                Class<?> componentType = cls.getComponentType();
+                if (componentType.isPrimitive()) {
+                    return primitiveArrayPool.get(componentType);
+                }
+                c = objectArrayPool.get(componentType);
+                if (c != null) {
+                    return c;
+                }
+                return new ArrayConvertor(componentType, resolveElement(componentType));
+            }
+            if (Collection.class.isAssignableFrom(cls)) {
+                return new CollectionConvertor(cls, null, null);
+            }
+            if (Map.class.isAssignableFrom(cls)) {
+                return new MapConvertor(cls, null, null, null, null);
+            }
+            return null;
+        }
+        if (type instanceof ParameterizedType) {
+            Class<?> rawType = TypeResolverUtils.getRawType(type);
+            Type[] args = ((ParameterizedType) type).getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(rawType) && args.length == 1) {
+                return new CollectionConvertor(rawType, instanceType(args[0]), resolveElement(args[0]));
+            }
+            if (Map.class.isAssignableFrom(rawType) && args.length == 2) {
+                return new MapConvertor(rawType, instanceType(args[0]), resolveElement(args[0]), instanceType(args[1]), resolveElement(args[1]));
+            }
+            return resolve(rawType);
+        }
+        if (type instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType) type).getGenericComponentType();
+            return new ArrayConvertor(TypeResolverUtils.getRawType(componentType), resolveElement(componentType));
+        }
+        // WildcardType, TypeVariable
+        Class<?> rawType = TypeResolverUtils.getRawType(type);
+        return rawType == null ? null : resolve(rawType);
+    }
+
+    // 返回 null 表示元素无需转换 (Object)
+    private Convertor<?> resolveElement(Type type) {
+        if (TypeResolverUtils.getRawType(type) == Object.class) {
+            return null;
+        }
+        Convertor<?> c = resolve(type);
+        if (c == null) {
+            throw new IllegalStateException("Unsupported cast type: " + type);
+        }
+        return c;
+    }
+
+    // 返回 null 表示嵌套的泛型类型，元素总是需要转换
+    private Class<?> instanceType(Type type) {
+        if (type instanceof ParameterizedType || type instanceof GenericArrayType) {
+            return null;
+        }
+        return TypeResolverUtils.getRawType(type);
+    }
 }
@@ -19,7 +19,12 @@
  */
 package jetbrick.typecast;
 
+import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public final class TypeCastUtils {
     private static final TypeCastResolver resolver = new TypeCastResolver();
@@ -29,11 +34,19 @@ public final class TypeCastUtils {
     }
 
     public static boolean support(Class<?> type) {
-        return resolver.lookup(type) != null;
+        return lookup(type) != null;
     }
 
+    /**
+     * 查找已注册的 Convertor，对于枚举类型，返回自动创建的 EnumConvertor.
+     */
+    @SuppressWarnings("unchecked")
     public static <T> Convertor<T> lookup(Class<T> type) {
-        return resolver.lookup(type);
+        Convertor<T> c = resolver.lookup(type);
+        if (c == null && type.isEnum()) {
+            c = (Convertor<T>) resolver.resolve(type);
+        }
+        return c;
     }
 
     public static <T> T convert(String value, Class<T> type) {
@@ -44,6 +57,18 @@ public final class TypeCastUtils {
         return resolver.convert(value, type);
     }
 
+    public static <T> T convert(Object value, Type type) {
+        return resolver.convert(value, type);
+    }
+
+    public static <T> Optional<T> tryConvert(Object value, Class<T> type) {
+        return resolver.tryConvert(value, type);
+    }
+
+    public static <T> T tryConvert(Object value, Class<T> type, T defaultValue) {
+        return resolver.tryConvert(value, type).orElse(defaultValue);
+    }
+
     public static <T> T convertToArray(String value, Class<?> elementType) {
         return resolver.convertToArray(value, elementType);
     }
@@ -59,4 +84,20 @@ public final class TypeCastUtils {
     public static <T> List<T> convertToList(Object value, Class<T> elementType) {
         return resolver.convertToList(value, elementType);
     }
+
+    public static <T> T convertArray(Object[] values, Class<?> elementType) {
+        return resolver.convertArray(values, elementType, ForkJoinPool.commonPool());
+    }
+
+    public static <T> T convertArray(Object[] values, Class<?> elementType, Executor executor) {
+        return resolver.convertArray(values, elementType, executor);
+    }
+
+    public static <T> T convertArray(Collection<?> values, Class<?> elementType) {
+        return resolver.convertArray(values, elementType, ForkJoinPool.commonPool());
+    }
+
+    public static <T> T convertArray(Collection<?> values, Class<?> elementType, Executor executor) {
+        return resolver.convertArray(values, elementType, executor);
+    }
 }
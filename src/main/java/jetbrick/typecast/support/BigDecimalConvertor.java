@@ -21,6 +21,7 @@ package jetbrick.typecast.support;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 
@@ -32,6 +33,9 @@ public final class BigDecimalConvertor implements Convertor<BigDecimal> {
         if (value == null) {
             return null;
         }
+        if (!NumberParser.isBigDecimal(value)) {
+            throw TypeCastException.createStackless(value, BigDecimal.class);
+        }
         try {
             return new BigDecimal(value);
         } catch (NumberFormatException e) {
@@ -52,4 +56,23 @@ public final class BigDecimalConvertor implements Convertor<BigDecimal> {
         }
         return convert(value.toString());
     }
+
+    @Override
+    public Optional<BigDecimal> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof BigDecimal) {
+            return Optional.of(convert(value));
+        }
+        String s = value.toString();
+        if (!NumberParser.isBigDecimal(s)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new BigDecimal(s));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
 }
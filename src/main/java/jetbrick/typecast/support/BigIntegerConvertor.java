@@ -20,6 +20,7 @@
 package jetbrick.typecast.support;
 
 import java.math.BigInteger;
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 
@@ -31,6 +32,9 @@ public final class BigIntegerConvertor implements Convertor<BigInteger> {
         if (value == null) {
             return null;
         }
+        if (!NumberParser.isBigInteger(value)) {
+            throw TypeCastException.createStackless(value, BigInteger.class);
+        }
         try {
             return new BigInteger(value);
         } catch (NumberFormatException e) {
@@ -48,4 +52,23 @@ public final class BigIntegerConvertor implements Convertor<BigInteger> {
         }
         return convert(value.toString());
     }
+
+    @Override
+    public Optional<BigInteger> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof BigInteger) {
+            return Optional.of(convert(value));
+        }
+        String s = value.toString();
+        if (!NumberParser.isBigInteger(s)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new BigInteger(s));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
 }
@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 
@@ -27,6 +28,36 @@ public final class BooleanConvertor implements Convertor<Boolean> {
 
     @Override
     public Boolean convert(String value) {
+        Boolean result = toBoolean(value);
+        if (result == null) {
+            throw TypeCastException.createStackless(value, Boolean.class);
+        }
+        return result;
+    }
+
+    @Override
+    public Boolean convert(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getClass() == Boolean.class) {
+            return (Boolean) value;
+        }
+        return convert(value.toString());
+    }
+
+    @Override
+    public Optional<Boolean> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value.getClass() == Boolean.class) {
+            return Optional.of((Boolean) value);
+        }
+        return Optional.ofNullable(toBoolean(value.toString()));
+    }
+
+    private static Boolean toBoolean(String value) {
         String s = value.toLowerCase();
 
         //@formatter:off
@@ -46,17 +77,6 @@ public final class BooleanConvertor implements Convertor<Boolean> {
         }
         //@formatter:on
 
-        throw TypeCastException.create(value, Boolean.class, null);
-    }
-
-    @Override
-    public Boolean convert(Object value) {
-        if (value == null) {
-            return null;
-        }
-        if (value.getClass() == Boolean.class) {
-            return (Boolean) value;
-        }
-        return convert(value.toString());
+        return null;
     }
 }
@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 
@@ -30,11 +31,10 @@ public final class ByteConvertor implements Convertor<Byte> {
         if (value == null) {
             return null;
         }
-        try {
-            return Byte.valueOf(value);
-        } catch (NumberFormatException e) {
-            throw TypeCastException.create(value, Byte.class, e);
+        if (!NumberParser.isLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE)) {
+            throw TypeCastException.createStackless(value, Byte.class);
         }
+        return Byte.valueOf(value);
     }
 
     @Override
@@ -50,4 +50,19 @@ public final class ByteConvertor implements Convertor<Byte> {
         }
         return convert(value.toString());
     }
+
+    @Override
+    public Optional<Byte> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof Number) {
+            return Optional.of(convert(value));
+        }
+        String s = value.toString();
+        if (!NumberParser.isLong(s, Byte.MIN_VALUE, Byte.MAX_VALUE)) {
+            return Optional.empty();
+        }
+        return Optional.of(Byte.valueOf(s));
+    }
 }
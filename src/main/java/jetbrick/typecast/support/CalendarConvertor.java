@@ -20,6 +20,7 @@
 package jetbrick.typecast.support;
 
 import java.util.Calendar;
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 
 public final class CalendarConvertor implements Convertor<Calendar> {
@@ -49,4 +50,19 @@ public final class CalendarConvertor implements Convertor<Calendar> {
         cal.setTimeInMillis(millis);
         return cal;
     }
+
+    @Override
+    public Optional<Calendar> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof Calendar) {
+            return Optional.of((Calendar) value);
+        }
+        Long milliseconds = DateConvertor.tryToMilliseconds(value);
+        if (milliseconds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(milliseconds));
+    }
 }
@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 
@@ -33,14 +34,11 @@ public final class CharacterConvertor implements Convertor<Character> {
         if (value.length() == 1) {
             return Character.valueOf(value.charAt(0));
         }
-        try {
-            char c = (char) Integer.parseInt(value, 10);
-            return Character.valueOf(c);
-        } catch (NumberFormatException e) {
-            throw TypeCastException.create(value, Character.class, e);
-        } catch (IndexOutOfBoundsException e) {
-            throw TypeCastException.create(value, Character.class, e);
+        if (!NumberParser.isLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            throw TypeCastException.createStackless(value, Character.class);
         }
+        char c = (char) Integer.parseInt(value, 10);
+        return Character.valueOf(c);
     }
 
     @Override
@@ -57,4 +55,19 @@ public final class CharacterConvertor implements Convertor<Character> {
         }
         return convert(value.toString());
     }
+
+    @Override
+    public Optional<Character> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value.getClass() == Character.class || value instanceof Number) {
+            return Optional.of(convert(value));
+        }
+        String s = value.toString();
+        if (s.length() != 1 && !NumberParser.isLong(s, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(s));
+    }
 }
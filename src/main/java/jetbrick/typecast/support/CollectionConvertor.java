@@ -0,0 +1,153 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.typecast.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TransferQueue;
+import jetbrick.typecast.Convertor;
+import jetbrick.typecast.TypeCastException;
+import jetbrick.util.StringUtils;
+
+/**
+ * 将对象转换为带泛型元素的 Collection (List/Set/Queue 等).
+ */
+@SuppressWarnings("unchecked")
+public final class CollectionConvertor<T> implements Convertor<Collection<T>> {
+    private final Class<?> collectionType;
+    private final Class<?> elementType; // null 表示元素需要总是调用 elementConvertor
+    private final Convertor<T> elementConvertor; // null 表示元素不需要转换
+
+    public CollectionConvertor(Class<?> collectionType, Class<?> elementType, Convertor<T> elementConvertor) {
+        this.collectionType = collectionType;
+        this.elementType = elementType;
+        this.elementConvertor = elementConvertor;
+    }
+
+    @Override
+    public Collection<T> convert(String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] values = StringUtils.split(value, ',');
+        Collection<T> results = newCollection(values.length);
+        for (String item : values) {
+            results.add(convertElement(item));
+        }
+        return results;
+    }
+
+    @Override
+    public Collection<T> convert(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getClass().isArray()) {
+            Object[] items = ArrayConvertor.toObjectArray(value);
+            Collection<T> results = newCollection(items.length);
+            for (Object item : items) {
+                results.add(convertElement(item));
+            }
+            return results;
+        }
+        if (value instanceof Collection) {
+            Collection<?> items = (Collection<?>) value;
+            Collection<T> results = newCollection(items.size());
+            for (Object item : items) {
+                results.add(convertElement(item));
+            }
+            return results;
+        }
+        if (value instanceof Iterable) {
+            return convertIterator(((Iterable<?>) value).iterator());
+        }
+        if (value instanceof Iterator) {
+            return convertIterator((Iterator<?>) value);
+        }
+        if (value instanceof Enumeration) {
+            Enumeration<?> items = (Enumeration<?>) value;
+            Collection<T> results = newCollection(16);
+            while (items.hasMoreElements()) {
+                results.add(convertElement(items.nextElement()));
+            }
+            return results;
+        }
+        return convert(value.toString());
+    }
+
+    private Collection<T> convertIterator(Iterator<?> items) {
+        Collection<T> results = newCollection(16);
+        while (items.hasNext()) {
+            results.add(convertElement(items.next()));
+        }
+        return results;
+    }
+
+    private T convertElement(Object value) {
+        if (elementConvertor == null) {
+            return (T) value;
+        }
+        if (elementType != null && elementType.isInstance(value)) {
+            return (T) value;
+        }
+        return elementConvertor.convert(value);
+    }
+
+    private Collection<T> newCollection(int size) {
+        if (collectionType == List.class || collectionType == Collection.class || collectionType == Iterable.class) {
+            return new ArrayList<T>(size);
+        }
+        if (collectionType == Set.class) {
+            return new LinkedHashSet<T>(Math.max(16, (int) (size / 0.75f) + 1));
+        }
+        if (collectionType == SortedSet.class || collectionType == NavigableSet.class) {
+            return new TreeSet<T>();
+        }
+        if (collectionType == Queue.class || collectionType == Deque.class) {
+            return new ArrayDeque<T>(Math.max(16, size));
+        }
+        if (collectionType == BlockingQueue.class || collectionType == BlockingDeque.class) {
+            return new LinkedBlockingDeque<T>();
+        }
+        if (collectionType == TransferQueue.class) {
+            return new LinkedTransferQueue<T>();
+        }
+        try {
+            return (Collection<T>) collectionType.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new TypeCastException("Unable to create collection: " + collectionType.getName(), e);
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 import jetbrick.util.DateUtils;
@@ -54,25 +55,56 @@ public final class DateConvertor implements Convertor<Date> {
         return new Date(DateConvertor.toMilliseconds(value, Date.class));
     }
 
+    @Override
+    public Optional<Date> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof Date) {
+            return Optional.of((Date) value);
+        }
+        Long milliseconds = DateConvertor.tryToMilliseconds(value);
+        if (milliseconds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(milliseconds));
+    }
+
     protected static long toMilliseconds(String value, Class<?> targetClass) {
-        if (value.matches("[0-9]+")) {
-            try {
-                long milliseconds = Long.parseLong(value);
-                return milliseconds;
-            } catch (NumberFormatException e) {
-                throw TypeCastException.create(value, targetClass, e);
+        Long milliseconds = tryToMilliseconds(value);
+        if (milliseconds == null) {
+            throw TypeCastException.createStackless(value, targetClass);
+        }
+        return milliseconds.longValue();
+    }
+
+    protected static long toMilliseconds(Object value, Class<?> targetClass) {
+        Long milliseconds = tryToMilliseconds(value);
+        if (milliseconds == null) {
+            throw TypeCastException.createStackless(value, targetClass);
+        }
+        return milliseconds.longValue();
+    }
+
+    /**
+     * 转换为毫秒数，无法转换时返回 null.
+     */
+    protected static Long tryToMilliseconds(String value) {
+        if (isDigits(value)) {
+            if (!NumberParser.isLong(value, 0, Long.MAX_VALUE)) {
+                return null;
             }
+            return Long.valueOf(value);
         }
 
         Date date = DateUtils.parse(value);
-        if (date == null) {
-            throw TypeCastException.create(value, targetClass, null);
-        } else {
-            return date.getTime();
-        }
+        return (date == null) ? null : date.getTime();
     }
 
-    protected static long toMilliseconds(Object value, Class<?> targetClass) {
+    /**
+     * 转换为毫秒数，无法转换时返回 null.
+     */
+    protected static Long tryToMilliseconds(Object value) {
         if (value instanceof Date) {
             return ((Date) value).getTime();
         }
@@ -106,6 +138,20 @@ public final class DateConvertor implements Convertor<Date> {
                 return cal.getTimeInMillis();
             }
         }
-        return toMilliseconds(value.toString(), targetClass);
+        return tryToMilliseconds(value.toString());
+    }
+
+    private static boolean isDigits(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 }
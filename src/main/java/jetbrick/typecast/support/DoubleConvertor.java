@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 
@@ -30,6 +31,9 @@ public final class DoubleConvertor implements Convertor<Double> {
         if (value == null) {
             return null;
         }
+        if (!NumberParser.isDouble(value)) {
+            throw TypeCastException.createStackless(value, Double.class);
+        }
         try {
             return Double.valueOf(value);
         } catch (NumberFormatException e) {
@@ -50,4 +54,23 @@ public final class DoubleConvertor implements Convertor<Double> {
         }
         return convert(value.toString());
     }
+
+    @Override
+    public Optional<Double> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof Number) {
+            return Optional.of(convert(value));
+        }
+        String s = value.toString();
+        if (!NumberParser.isDouble(s)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Double.valueOf(s));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
 }
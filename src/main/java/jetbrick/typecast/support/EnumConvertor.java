@@ -0,0 +1,94 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.typecast.support;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import jetbrick.typecast.Convertor;
+import jetbrick.typecast.TypeCastException;
+
+/**
+ * 将 String/Number 转换为 Enum 常量.
+ *
+ * 使用预先计算好的 name -> constant 表进行查找，避免 Enum.valueOf 的异常开销.
+ */
+public final class EnumConvertor<T extends Enum<T>> implements Convertor<T> {
+    private final Class<T> enumType;
+    private final T[] constants;
+    private final Map<String, T> nameTable;
+
+    public EnumConvertor(Class<T> enumType) {
+        this.enumType = enumType;
+        this.constants = enumType.getEnumConstants();
+        this.nameTable = new HashMap<String, T>(constants.length * 2);
+        for (T e : constants) {
+            nameTable.put(e.name(), e);
+        }
+    }
+
+    @Override
+    public T convert(String value) {
+        if (value == null) {
+            return null;
+        }
+        T result = nameTable.get(value);
+        if (result == null) {
+            throw TypeCastException.createStackless(value, enumType);
+        }
+        return result;
+    }
+
+    @Override
+    public T convert(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (enumType.isInstance(value)) {
+            return enumType.cast(value);
+        }
+        if (value instanceof Number) {
+            int ordinal = ((Number) value).intValue();
+            if (ordinal < 0 || ordinal >= constants.length) {
+                throw TypeCastException.createStackless(value, enumType);
+            }
+            return constants[ordinal];
+        }
+        return convert(value.toString());
+    }
+
+    @Override
+    public Optional<T> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (enumType.isInstance(value)) {
+            return Optional.of(enumType.cast(value));
+        }
+        if (value instanceof Number) {
+            int ordinal = ((Number) value).intValue();
+            if (ordinal < 0 || ordinal >= constants.length) {
+                return Optional.empty();
+            }
+            return Optional.of(constants[ordinal]);
+        }
+        return Optional.ofNullable(nameTable.get(value.toString()));
+    }
+}
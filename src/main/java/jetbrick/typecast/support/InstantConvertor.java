@@ -20,6 +20,7 @@
 package jetbrick.typecast.support;
 
 import java.time.Instant;
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 
 public final class InstantConvertor implements Convertor<Instant> {
@@ -43,4 +44,19 @@ public final class InstantConvertor implements Convertor<Instant> {
         }
         return Instant.ofEpochMilli(DateConvertor.toMilliseconds(value, Instant.class));
     }
+
+    @Override
+    public Optional<Instant> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof Instant) {
+            return Optional.of((Instant) value);
+        }
+        Long milliseconds = DateConvertor.tryToMilliseconds(value);
+        if (milliseconds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(milliseconds));
+    }
 }
@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 
@@ -30,11 +31,10 @@ public final class IntegerConvertor implements Convertor<Integer> {
         if (value == null) {
             return null;
         }
-        try {
-            return Integer.valueOf(value);
-        } catch (NumberFormatException e) {
-            throw TypeCastException.create(value, Integer.class, e);
+        if (!NumberParser.isLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            throw TypeCastException.createStackless(value, Integer.class);
         }
+        return Integer.valueOf(value);
     }
 
     @Override
@@ -50,4 +50,19 @@ public final class IntegerConvertor implements Convertor<Integer> {
         }
         return convert(value.toString());
     }
+
+    @Override
+    public Optional<Integer> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof Number) {
+            return Optional.of(convert(value));
+        }
+        String s = value.toString();
+        if (!NumberParser.isLong(s, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            return Optional.empty();
+        }
+        return Optional.of(Integer.valueOf(s));
+    }
 }
@@ -20,6 +20,7 @@
 package jetbrick.typecast.support;
 
 import java.time.LocalDate;
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 
 public final class LocalDateConvertor implements Convertor<LocalDate> {
@@ -46,6 +47,21 @@ public final class LocalDateConvertor implements Convertor<LocalDate> {
         return convertToLocalDate(milliseconds);
     }
 
+    @Override
+    public Optional<LocalDate> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof LocalDate) {
+            return Optional.of((LocalDate) value);
+        }
+        Long milliseconds = DateConvertor.tryToMilliseconds(value);
+        if (milliseconds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(milliseconds));
+    }
+
     private static LocalDate convertToLocalDate(long milliseconds) {
         long days = Math.floorDiv(milliseconds, 24 * 60 * 60 * 1000);
         return LocalDate.ofEpochDay(days);
@@ -22,6 +22,7 @@ package jetbrick.typecast.support;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 
 public final class LocalDateTimeConvertor implements Convertor<LocalDateTime> {
@@ -48,6 +49,21 @@ public final class LocalDateTimeConvertor implements Convertor<LocalDateTime> {
         return convertToLocalDateTime(milliseconds);
     }
 
+    @Override
+    public Optional<LocalDateTime> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof LocalDateTime) {
+            return Optional.of((LocalDateTime) value);
+        }
+        Long milliseconds = DateConvertor.tryToMilliseconds(value);
+        if (milliseconds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(milliseconds));
+    }
+
     private static LocalDateTime convertToLocalDateTime(long milliseconds) {
         long days = Math.floorDiv(milliseconds, 24 * 60 * 60 * 1000);
         int ms = (int) Math.floorMod(milliseconds, 24 * 60 * 60 * 1000);
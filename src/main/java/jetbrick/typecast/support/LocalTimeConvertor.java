@@ -20,6 +20,7 @@
 package jetbrick.typecast.support;
 
 import java.time.LocalTime;
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 
 public final class LocalTimeConvertor implements Convertor<LocalTime> {
@@ -46,6 +47,21 @@ public final class LocalTimeConvertor implements Convertor<LocalTime> {
         return convertToLocalTime(milliseconds);
     }
 
+    @Override
+    public Optional<LocalTime> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof LocalTime) {
+            return Optional.of((LocalTime) value);
+        }
+        Long milliseconds = DateConvertor.tryToMilliseconds(value);
+        if (milliseconds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(milliseconds));
+    }
+
     private static LocalTime convertToLocalTime(long milliseconds) {
         long ms = Math.floorMod(milliseconds, 24 * 60 * 60 * 1000);
         return LocalTime.ofNanoOfDay(ms * 1000 * 1000);
@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 
@@ -30,11 +31,10 @@ public final class LongConvertor implements Convertor<Long> {
         if (value == null) {
             return null;
         }
-        try {
-            return Long.valueOf(value);
-        } catch (NumberFormatException e) {
-            throw TypeCastException.create(value, Long.class, e);
+        if (!NumberParser.isLong(value, Long.MIN_VALUE, Long.MAX_VALUE)) {
+            throw TypeCastException.createStackless(value, Long.class);
         }
+        return Long.valueOf(value);
     }
 
     @Override
@@ -50,4 +50,19 @@ public final class LongConvertor implements Convertor<Long> {
         }
         return convert(value.toString());
     }
+
+    @Override
+    public Optional<Long> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof Number) {
+            return Optional.of(convert(value));
+        }
+        String s = value.toString();
+        if (!NumberParser.isLong(s, Long.MIN_VALUE, Long.MAX_VALUE)) {
+            return Optional.empty();
+        }
+        return Optional.of(Long.valueOf(s));
+    }
 }
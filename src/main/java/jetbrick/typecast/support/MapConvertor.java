@@ -0,0 +1,123 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.typecast.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import jetbrick.typecast.Convertor;
+import jetbrick.typecast.TypeCastException;
+import jetbrick.util.StringUtils;
+
+/**
+ * 将对象转换为带泛型 key/value 的 Map.
+ *
+ * 支持源对象为 Map，或者形如 "k1=v1,k2=v2" 的字符串.
+ */
+@SuppressWarnings("unchecked")
+public final class MapConvertor<K, V> implements Convertor<Map<K, V>> {
+    private final Class<?> mapType;
+    private final Class<?> keyType;
+    private final Convertor<K> keyConvertor;
+    private final Class<?> valueType;
+    private final Convertor<V> valueConvertor;
+
+    public MapConvertor(Class<?> mapType, Class<?> keyType, Convertor<K> keyConvertor, Class<?> valueType, Convertor<V> valueConvertor) {
+        this.mapType = mapType;
+        this.keyType = keyType;
+        this.keyConvertor = keyConvertor;
+        this.valueType = valueType;
+        this.valueConvertor = valueConvertor;
+    }
+
+    @Override
+    public Map<K, V> convert(String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] items = StringUtils.split(value, ',');
+        Map<K, V> results = newMap(items.length);
+        for (String item : items) {
+            int ipos = item.indexOf('=');
+            if (ipos < 0) {
+                throw TypeCastException.create(value, mapType, null);
+            }
+            K k = convertElement(item.substring(0, ipos).trim(), keyType, keyConvertor);
+            V v = convertElement(item.substring(ipos + 1).trim(), valueType, valueConvertor);
+            results.put(k, v);
+        }
+        return results;
+    }
+
+    @Override
+    public Map<K, V> convert(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Map<K, V> results = newMap(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                K k = convertElement(entry.getKey(), keyType, keyConvertor);
+                V v = convertElement(entry.getValue(), valueType, valueConvertor);
+                results.put(k, v);
+            }
+            return results;
+        }
+        return convert(value.toString());
+    }
+
+    private static <E> E convertElement(Object value, Class<?> type, Convertor<E> convertor) {
+        if (convertor == null) {
+            return (E) value;
+        }
+        if (type != null && type.isInstance(value)) {
+            return (E) value;
+        }
+        return convertor.convert(value);
+    }
+
+    private Map<K, V> newMap(int size) {
+        int capacity = Math.max(16, (int) (size / 0.75f) + 1);
+        if (mapType == Map.class) {
+            return new LinkedHashMap<K, V>(capacity);
+        }
+        if (mapType == SortedMap.class || mapType == NavigableMap.class) {
+            return new TreeMap<K, V>();
+        }
+        if (mapType == ConcurrentMap.class) {
+            return new ConcurrentHashMap<K, V>(capacity);
+        }
+        if (mapType == ConcurrentNavigableMap.class) {
+            return new ConcurrentSkipListMap<K, V>();
+        }
+        try {
+            return (Map<K, V>) mapType.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new TypeCastException("Unable to create map: " + mapType.getName(), e);
+        }
+    }
+}
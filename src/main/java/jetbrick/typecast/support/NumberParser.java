@@ -0,0 +1,182 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.typecast.support;
+
+/**
+ * 在不抛出 NumberFormatException 的前提下校验数字字符串.
+ *
+ * 校验规则与对应的 JDK 解析方法 (Long.parseLong, Double.valueOf, new BigDecimal 等) 保持一致.
+ */
+final class NumberParser {
+
+    /**
+     * 校验是否为 [min, max] 范围内的十进制整数 (规则同 Long.parseLong).
+     */
+    static boolean isLong(String s, long min, long max) {
+        int length = s.length();
+        if (length == 0) {
+            return false;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                return false;
+            }
+            negative = (first == '-');
+            i = 1;
+        }
+        // 使用负数累加，避免 Long.MIN_VALUE 溢出
+        long limit = negative ? min : -max;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0) {
+                return false;
+            }
+            if (result < Long.MIN_VALUE / 10) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        return true;
+    }
+
+    /**
+     * 校验是否为整数 (规则同 new BigInteger(s)).
+     */
+    static boolean isBigInteger(String s) {
+        int length = s.length();
+        int i = 0;
+        if (length > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+            i = 1;
+        }
+        if (i == length) {
+            return false;
+        }
+        for (; i < length; i++) {
+            if (Character.digit(s.charAt(i), 10) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 校验是否为浮点数 (规则同 new BigDecimal(s)).
+     */
+    static boolean isBigDecimal(String s) {
+        int length = s.length();
+        int i = 0;
+        if (length > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+            i = 1;
+        }
+        return scanDecimal(s, i, length, true) == length;
+    }
+
+    /**
+     * 校验是否为浮点数 (规则同 Double.valueOf).
+     *
+     * 十六进制浮点数 (0x...) 总是返回 true，由调用者使用 JDK 方法进行最终解析.
+     */
+    static boolean isDouble(String s) {
+        int begin = 0;
+        int end = s.length();
+        while (begin < end && s.charAt(begin) <= ' ') {
+            begin++;
+        }
+        while (end > begin && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (begin == end) {
+            return false;
+        }
+        char first = s.charAt(begin);
+        if (first == '-' || first == '+') {
+            begin++;
+        }
+        if (s.startsWith("NaN", begin) && begin + 3 == end) {
+            return true;
+        }
+        if (s.startsWith("Infinity", begin) && begin + 8 == end) {
+            return true;
+        }
+        if (end - begin > 2 && s.charAt(begin) == '0' && (s.charAt(begin + 1) == 'x' || s.charAt(begin + 1) == 'X')) {
+            return true;
+        }
+        int i = scanDecimal(s, begin, end, false);
+        if (i < 0) {
+            return false;
+        }
+        if (i < end) {
+            char c = s.charAt(i);
+            if (c == 'f' || c == 'F' || c == 'd' || c == 'D') {
+                i++;
+            }
+        }
+        return i == end;
+    }
+
+    // digits ['.' [digits]] | '.' digits, 后面跟随可选的指数 [eE][+-]digits. 返回结束位置，失败返回 -1
+    private static int scanDecimal(String s, int i, int end, boolean unicodeDigits) {
+        int digits = 0;
+        while (i < end && isDigit(s.charAt(i), unicodeDigits)) {
+            i++;
+            digits++;
+        }
+        if (i < end && s.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(s.charAt(i), unicodeDigits)) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return -1;
+        }
+        if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                i++;
+            }
+            int expDigits = 0;
+            while (i < end && isDigit(s.charAt(i), unicodeDigits)) {
+                i++;
+                expDigits++;
+            }
+            if (expDigits == 0) {
+                return -1;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c, boolean unicodeDigits) {
+        if (c >= '0' && c <= '9') {
+            return true;
+        }
+        return unicodeDigits && Character.isDigit(c);
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.typecast.support;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import jetbrick.typecast.Convertor;
+import jetbrick.typecast.TypeCastException;
+
+/**
+ * 大数组的批量转换，超过阈值后按块并行转换.
+ *
+ * 每个块直接写入预先分配好的目标数组 (支持 primitive 数组).
+ */
+public final class ParallelArrayConvertor {
+    /** 少于该数量的元素在调用线程中直接转换 */
+    public static final int PARALLEL_THRESHOLD = 8192;
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    private final Class<?> elementType;
+    private final Convertor<?> elementConvertor;
+    private final Executor executor;
+
+    public ParallelArrayConvertor(Class<?> elementType, Convertor<?> elementConvertor, Executor executor) {
+        this.elementType = elementType;
+        this.elementConvertor = elementConvertor;
+        this.executor = executor;
+    }
+
+    public Object convert(Object[] values) {
+        if (values == null) {
+            return null;
+        }
+        int length = values.length;
+        Object results = Array.newInstance(elementType, length);
+
+        if (length < PARALLEL_THRESHOLD || executor == null) {
+            convertRange(values, results, 0, length);
+            return results;
+        }
+
+        int parallelism = (executor instanceof ForkJoinPool) ? ((ForkJoinPool) executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, length / (parallelism * 4) + 1);
+
+        if (executor instanceof ForkJoinPool) {
+            ((ForkJoinPool) executor).invoke(new ConvertTask(values, results, 0, length, chunkSize));
+        } else {
+            convertByExecutor(values, results, chunkSize);
+        }
+        return results;
+    }
+
+    private void convertByExecutor(final Object[] values, final Object results, int chunkSize) {
+        int length = values.length;
+        int chunks = (length + chunkSize - 1) / chunkSize;
+        final CountDownLatch latch = new CountDownLatch(chunks - 1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        // 最后一个块由调用线程执行
+        int submitted = 0;
+        try {
+            for (; submitted < chunks - 1; submitted++) {
+                final int from = submitted * chunkSize;
+                final int to = from + chunkSize;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (error.get() == null) {
+                                convertRange(values, results, from, to);
+                            }
+                        } catch (Throwable e) {
+                            error.compareAndSet(null, e);
+                        } finally {
+                            latch.countDown();
+                        }
+                    }
+                });
+            }
+        } catch (RejectedExecutionException e) {
+            // executor 已经饱和或者关闭，剩余的块在调用线程中执行
+        }
+        for (int i = submitted; i < chunks; i++) {
+            int from = i * chunkSize;
+            try {
+                if (error.get() == null) {
+                    convertRange(values, results, from, Math.min(from + chunkSize, length));
+                }
+            } catch (Throwable e) {
+                error.compareAndSet(null, e);
+            } finally {
+                if (i < chunks - 1) {
+                    latch.countDown();
+                }
+            }
+        }
+
+        // 必须等待所有已提交的块结束，否则它们可能在返回之后继续写 results
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        Throwable e = error.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        if (e != null) {
+            throw new TypeCastException(e);
+        }
+    }
+
+    private void convertRange(Object[] values, Object results, int from, int to) {
+        if (elementType.isPrimitive()) {
+            if (elementType == Integer.TYPE) {
+                int[] array = (int[]) results;
+                for (int i = from; i < to; i++) {
+                    array[i] = ((Number) convertElement(values[i])).intValue();
+                }
+            } else if (elementType == Long.TYPE) {
+                long[] array = (long[]) results;
+                for (int i = from; i < to; i++) {
+                    array[i] = ((Number) convertElement(values[i])).longValue();
+                }
+            } else if (elementType == Double.TYPE) {
+                double[] array = (double[]) results;
+                for (int i = from; i < to; i++) {
+                    array[i] = ((Number) convertElement(values[i])).doubleValue();
+                }
+            } else if (elementType == Float.TYPE) {
+                float[] array = (float[]) results;
+                for (int i = from; i < to; i++) {
+                    array[i] = ((Number) convertElement(values[i])).floatValue();
+                }
+            } else if (elementType == Short.TYPE) {
+                short[] array = (short[]) results;
+                for (int i = from; i < to; i++) {
+                    array[i] = ((Number) convertElement(values[i])).shortValue();
+                }
+            } else if (elementType == Byte.TYPE) {
+                byte[] array = (byte[]) results;
+                for (int i = from; i < to; i++) {
+                    array[i] = ((Number) convertElement(values[i])).byteValue();
+                }
+            } else if (elementType == Boolean.TYPE) {
+                boolean[] array = (boolean[]) results;
+                for (int i = from; i < to; i++) {
+                    array[i] = ((Boolean) convertElement(values[i])).booleanValue();
+                }
+            } else if (elementType == Character.TYPE) {
+                char[] array = (char[]) results;
+                for (int i = from; i < to; i++) {
+                    array[i] = ((Character) convertElement(values[i])).charValue();
+                }
+            } else {
+                throw new IllegalStateException("Unreachable code");
+            }
+        } else {
+            Object[] array = (Object[]) results;
+            for (int i = from; i < to; i++) {
+                Object value = values[i];
+                if (value == null || elementType.isInstance(value)) {
+                    array[i] = value;
+                } else {
+                    array[i] = elementConvertor.convert(value);
+                }
+            }
+        }
+    }
+
+    private Object convertElement(Object value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        return elementConvertor.convert(value);
+    }
+
+    @SuppressWarnings("serial")
+    final class ConvertTask extends RecursiveAction {
+        private final Object[] values;
+        private final Object results;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        ConvertTask(Object[] values, Object results, int from, int to, int chunkSize) {
+            this.values = values;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                convertRange(values, results, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ConvertTask(values, results, from, middle, chunkSize), new ConvertTask(values, results, middle, to, chunkSize));
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 import jetbrick.typecast.TypeCastException;
 
@@ -30,11 +31,10 @@ public final class ShortConvertor implements Convertor<Short> {
         if (value == null) {
             return null;
         }
-        try {
-            return Short.valueOf(value);
-        } catch (NumberFormatException e) {
-            throw TypeCastException.create(value, Short.class, e);
+        if (!NumberParser.isLong(value, Short.MIN_VALUE, Short.MAX_VALUE)) {
+            throw TypeCastException.createStackless(value, Short.class);
         }
+        return Short.valueOf(value);
     }
 
     @Override
@@ -50,4 +50,19 @@ public final class ShortConvertor implements Convertor<Short> {
         }
         return convert(value.toString());
     }
+
+    @Override
+    public Optional<Short> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof Number) {
+            return Optional.of(convert(value));
+        }
+        String s = value.toString();
+        if (!NumberParser.isLong(s, Short.MIN_VALUE, Short.MAX_VALUE)) {
+            return Optional.empty();
+        }
+        return Optional.of(Short.valueOf(s));
+    }
 }
@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 
 public final class SqlDateConvertor implements Convertor<java.sql.Date> {
@@ -42,4 +43,19 @@ public final class SqlDateConvertor implements Convertor<java.sql.Date> {
         }
         return new java.sql.Date(DateConvertor.toMilliseconds(value, java.sql.Date.class));
     }
+
+    @Override
+    public Optional<java.sql.Date> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof java.sql.Date) {
+            return Optional.of((java.sql.Date) value);
+        }
+        Long milliseconds = DateConvertor.tryToMilliseconds(value);
+        if (milliseconds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(milliseconds));
+    }
 }
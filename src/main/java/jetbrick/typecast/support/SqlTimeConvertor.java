@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 
 public final class SqlTimeConvertor implements Convertor<java.sql.Time> {
@@ -42,4 +43,19 @@ public final class SqlTimeConvertor implements Convertor<java.sql.Time> {
         }
         return new java.sql.Time(DateConvertor.toMilliseconds(value, java.sql.Time.class));
     }
+
+    @Override
+    public Optional<java.sql.Time> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof java.sql.Time) {
+            return Optional.of((java.sql.Time) value);
+        }
+        Long milliseconds = DateConvertor.tryToMilliseconds(value);
+        if (milliseconds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(milliseconds));
+    }
 }
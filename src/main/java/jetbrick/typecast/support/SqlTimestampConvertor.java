@@ -19,6 +19,7 @@
  */
 package jetbrick.typecast.support;
 
+import java.util.Optional;
 import jetbrick.typecast.Convertor;
 
 public final class SqlTimestampConvertor implements Convertor<java.sql.Timestamp> {
@@ -42,4 +43,19 @@ public final class SqlTimestampConvertor implements Convertor<java.sql.Timestamp
         }
         return new java.sql.Timestamp(DateConvertor.toMilliseconds(value, java.sql.Timestamp.class));
     }
+
+    @Override
+    public Optional<java.sql.Timestamp> tryConvert(Object value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (value instanceof java.sql.Timestamp) {
+            return Optional.of((java.sql.Timestamp) value);
+        }
+        Long milliseconds = DateConvertor.tryToMilliseconds(value);
+        if (milliseconds == null) {
+            return Optional.empty();
+        }
+        return Optional.of(convert(milliseconds));
+    }
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util;
+
+import java.text.DateFormat;
+import java.text.FieldPosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * 按秒缓存格式化结果的日期格式化器，线程安全 (无锁).
+ *
+ * 同一秒内的时间只格式化一次，如果 pattern 包含毫秒 (SSS)，则直接替换缓存结果中的毫秒部分.
+ * 适用于日志、JSON 等高频格式化当前时间的场景.
+ *
+ * @author Guoqiang Chen
+ */
+public final class CachedDateFormat {
+    private static final int MILLIS = 0;
+    private static final int NO_MILLIS = -1;
+    private static final int UNCACHEABLE = -2;
+
+    private final String pattern;
+    private final TimeZone timeZone;
+    private final ThreadLocal<SimpleDateFormat> formatter;
+    private final int mode; // MILLIS, NO_MILLIS or UNCACHEABLE
+    private volatile Entry cache;
+
+    /**
+     * 使用当前的默认时区创建. 时区在创建时确定，之后调用 {@link TimeZone#setDefault} 不会影响这个对象.
+     */
+    public CachedDateFormat(String pattern) {
+        this(pattern, TimeZone.getDefault());
+    }
+
+    public CachedDateFormat(String pattern, TimeZone timeZone) {
+        this.pattern = pattern;
+        this.timeZone = timeZone;
+        this.formatter = new ThreadLocal<SimpleDateFormat>() {
+            @Override
+            protected SimpleDateFormat initialValue() {
+                SimpleDateFormat df = new SimpleDateFormat(CachedDateFormat.this.pattern);
+                df.setTimeZone(CachedDateFormat.this.timeZone);
+                return df;
+            }
+        };
+        this.mode = findMillisMode(pattern);
+        this.cache = new Entry(Long.MIN_VALUE, null, NO_MILLIS);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    public String format(Date date) {
+        return format(date.getTime());
+    }
+
+    public String format(long millis) {
+        if (mode == UNCACHEABLE) {
+            return formatter.get().format(new Date(millis));
+        }
+
+        long second = Math.floorDiv(millis, 1000L);
+        Entry entry = cache;
+        if (entry.second != second) {
+            entry = newEntry(second);
+            cache = entry;
+        }
+
+        if (mode == NO_MILLIS) {
+            return entry.text;
+        }
+
+        int ms = (int) Math.floorMod(millis, 1000L);
+        StringBuilder sb = new StringBuilder(entry.text.length());
+        sb.append(entry.text, 0, entry.millisIndex);
+        sb.append((char) ('0' + ms / 100));
+        sb.append((char) ('0' + (ms / 10) % 10));
+        sb.append((char) ('0' + ms % 10));
+        sb.append(entry.text, entry.millisIndex + 3, entry.text.length());
+        return sb.toString();
+    }
+
+    // 毫秒前面可能有 d, M, H, MMMM, EEEE 等变长的字段，毫秒的位置需要对每一秒重新计算
+    private Entry newEntry(long second) {
+        Date date = new Date(second * 1000L);
+        if (mode == NO_MILLIS) {
+            return new Entry(second, formatter.get().format(date), NO_MILLIS);
+        }
+        FieldPosition pos = new FieldPosition(DateFormat.MILLISECOND_FIELD);
+        String text = formatter.get().format(date, new StringBuffer(), pos).toString();
+        return new Entry(second, text, pos.getBeginIndex());
+    }
+
+    /**
+     * 检查 pattern 中的毫秒格式.
+     *
+     * @return 没有毫秒返回 NO_MILLIS, 毫秒格式不是 SSS 则返回 UNCACHEABLE
+     */
+    private static int findMillisMode(String pattern) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == 'S') {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return NO_MILLIS;
+        }
+        if (count != 3 || !pattern.contains("SSS")) {
+            return UNCACHEABLE;
+        }
+        return MILLIS;
+    }
+
+    // 不可变对象，通过 volatile 发布
+    static final class Entry {
+        final long second;
+        final String text;
+        final int millisIndex; // SSS 在 text 中的位置
+
+        Entry(long second, String text, int millisIndex) {
+            this.second = second;
+            this.text = text;
+            this.millisIndex = millisIndex;
+        }
+    }
+}
@@ -20,11 +20,12 @@
 package jetbrick.util;
 
 import java.text.DateFormat;
-import java.text.ParseException;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public final class DateUtils {
     public static final long SECOND_IN_MILLIS = 1000;
@@ -87,6 +88,10 @@ public final class DateUtils {
 	};
 	//@formatter:on
 
+    // pattern 由调用者传入，限制缓存的数量，避免动态拼接的 pattern 造成内存泄漏
+    private static final int MAX_CACHED_FORMATS = 64;
+    private static final ConcurrentMap<String, CachedDateFormat> CACHED_FORMATS = new ConcurrentHashMap<String, CachedDateFormat>();
+
     /**
      * 用指定的格式格式化当前时间.
      */
@@ -102,6 +107,38 @@ public final class DateUtils {
         return df.format(date);
     }
 
+    /**
+     * 用指定的格式格式化指定时间，同一秒内的格式化结果会被缓存，适用于高频格式化当前时间.
+     * <p>
+     * 只缓存前 {@value #MAX_CACHED_FORMATS} 个不同的 pattern，之后的 pattern 不使用缓存.
+     * 使用每个 pattern 第一次被调用时的默认时区，之后的 {@link TimeZone#setDefault} 不会生效.
+     *
+     * @see CachedDateFormat
+     */
+    public static String formatCached(long millis, String pattern) {
+        CachedDateFormat df = CACHED_FORMATS.get(pattern);
+        if (df == null) {
+            if (CACHED_FORMATS.size() >= MAX_CACHED_FORMATS) {
+                return format(new Date(millis), pattern);
+            }
+            df = new CachedDateFormat(pattern);
+            CachedDateFormat old = CACHED_FORMATS.putIfAbsent(pattern, df);
+            if (old != null) {
+                df = old;
+            }
+        }
+        return df.format(millis);
+    }
+
+    /**
+     * 用指定的格式格式化指定时间，同一秒内的格式化结果会被缓存.
+     *
+     * @see #formatCached(long, String)
+     */
+    public static String formatCached(Date date, String pattern) {
+        return formatCached(date.getTime(), pattern);
+    }
+
     /**
      * 用尝试多种格式解析日期时间.
      *
@@ -117,11 +154,7 @@ public final class DateUtils {
             d = parseW3CDateTime(date);
         }
         if (d == null) {
-            try {
-                d = DateFormat.getInstance().parse(date);
-            } catch (ParseException e) {
-                d = null;
-            }
+            d = DateFormat.getInstance().parse(date, new ParsePosition(0));
         }
         return d;
     }
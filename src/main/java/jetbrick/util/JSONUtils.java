@@ -19,7 +19,6 @@
  */
 package jetbrick.util;
 
-import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -54,8 +53,7 @@ public final class JSONUtils {
     }
 
     private static String dateToJSONString(Date date) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        return stringToJSONString(dateFormat.format(date));
+        return stringToJSONString(DateUtils.formatCached(date.getTime(), DateUtils.STD_DATETIME_PATTERN));
     }
 
     private static String iteratorToJSONString(Iterator<?> it) {
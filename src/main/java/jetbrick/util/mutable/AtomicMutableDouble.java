@@ -0,0 +1,184 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util.mutable;
+
+/**
+ * 线程安全的 MutableDouble，value 以 Double.doubleToRawLongBits 的形式保存，基于 AtomicLongFieldUpdater 实现原子操作，
+ * 并且和 {@link PaddedMutableDouble} 一样使用 cache line 填充.
+ * <p>
+ * 注意：{@link #compareAndSet(double, double)} 按照 bit 比较 (而不是 ==)，所以 0.0 和 -0.0 不相等，NaN 和 NaN 相等.
+ *
+ * @author Guoqiang Chen
+ */
+@SuppressWarnings("serial")
+public final class AtomicMutableDouble extends Padding.VolatileLongValue implements Comparable<AtomicMutableDouble>, Cloneable {
+    // right padding
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    public AtomicMutableDouble() {
+    }
+
+    public AtomicMutableDouble(double value) {
+        this.value = Double.doubleToRawLongBits(value);
+    }
+
+    public AtomicMutableDouble(String value) {
+        this(Double.parseDouble(value));
+    }
+
+    public AtomicMutableDouble(Number number) {
+        this(number.doubleValue());
+    }
+
+    public double getValue() {
+        return Double.longBitsToDouble(value);
+    }
+
+    public void setValue(double value) {
+        this.value = Double.doubleToRawLongBits(value);
+    }
+
+    public void setValue(Number value) {
+        setValue(value.doubleValue());
+    }
+
+    /**
+     * 最终会设置为指定的值，但是不保证其它线程立即可见 (比 {@link #setValue(double)} 开销更小).
+     */
+    public void lazySet(double value) {
+        Padding.LONG_VALUE.lazySet(this, Double.doubleToRawLongBits(value));
+    }
+
+    public boolean compareAndSet(double expect, double update) {
+        return Padding.LONG_VALUE.compareAndSet(this, Double.doubleToRawLongBits(expect), Double.doubleToRawLongBits(update));
+    }
+
+    public double getAndSet(double value) {
+        return Double.longBitsToDouble(Padding.LONG_VALUE.getAndSet(this, Double.doubleToRawLongBits(value)));
+    }
+
+    public void increment() {
+        addAndGet(1);
+    }
+
+    public void decrement() {
+        addAndGet(-1);
+    }
+
+    public void add(double delta) {
+        addAndGet(delta);
+    }
+
+    public double getAndAdd(double delta) {
+        while (true) {
+            long current = value;
+            double currentValue = Double.longBitsToDouble(current);
+            long next = Double.doubleToRawLongBits(currentValue + delta);
+            if (Padding.LONG_VALUE.compareAndSet(this, current, next)) {
+                return currentValue;
+            }
+        }
+    }
+
+    public double addAndGet(double delta) {
+        while (true) {
+            long current = value;
+            double nextValue = Double.longBitsToDouble(current) + delta;
+            if (Padding.LONG_VALUE.compareAndSet(this, current, Double.doubleToRawLongBits(nextValue))) {
+                return nextValue;
+            }
+        }
+    }
+
+    public double getAndIncrement() {
+        return getAndAdd(1);
+    }
+
+    public double incrementAndGet() {
+        return addAndGet(1);
+    }
+
+    public double getAndDecrement() {
+        return getAndAdd(-1);
+    }
+
+    public double decrementAndGet() {
+        return addAndGet(-1);
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(getValue());
+    }
+
+    @Override
+    public int hashCode() {
+        long bits = Double.doubleToLongBits(getValue());
+        return (int) (bits ^ bits >>> 32);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null) {
+            if (obj instanceof AtomicMutableDouble) {
+                return Double.doubleToLongBits(getValue()) == Double.doubleToLongBits(((AtomicMutableDouble) obj).getValue());
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) getValue();
+    }
+
+    @Override
+    public long longValue() {
+        return (long) getValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) getValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return getValue();
+    }
+
+    public boolean isNaN() {
+        return Double.isNaN(getValue());
+    }
+
+    public boolean isInfinite() {
+        return Double.isInfinite(getValue());
+    }
+
+    @Override
+    public int compareTo(AtomicMutableDouble other) {
+        return Double.compare(getValue(), other.getValue());
+    }
+
+    @Override
+    public AtomicMutableDouble clone() {
+        return new AtomicMutableDouble(getValue());
+    }
+}
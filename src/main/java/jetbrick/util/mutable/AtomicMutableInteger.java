@@ -0,0 +1,162 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util.mutable;
+
+/**
+ * 线程安全的 MutableInteger，基于 AtomicIntegerFieldUpdater 实现原子操作 (没有额外的 Atomic 对象)，
+ * 并且和 {@link PaddedMutableInteger} 一样使用 cache line 填充，适用于多个线程共享的热点计数器.
+ *
+ * @author Guoqiang Chen
+ */
+@SuppressWarnings("serial")
+public final class AtomicMutableInteger extends Padding.VolatileIntValue implements Comparable<AtomicMutableInteger>, Cloneable {
+    // right padding
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    public AtomicMutableInteger() {
+    }
+
+    public AtomicMutableInteger(int value) {
+        this.value = value;
+    }
+
+    public AtomicMutableInteger(String value) {
+        this.value = Integer.parseInt(value);
+    }
+
+    public AtomicMutableInteger(Number number) {
+        value = number.intValue();
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public void setValue(int value) {
+        this.value = value;
+    }
+
+    public void setValue(Number value) {
+        this.value = value.intValue();
+    }
+
+    /**
+     * 最终会设置为指定的值，但是不保证其它线程立即可见 (比 {@link #setValue(int)} 开销更小).
+     */
+    public void lazySet(int value) {
+        Padding.INT_VALUE.lazySet(this, value);
+    }
+
+    public boolean compareAndSet(int expect, int update) {
+        return Padding.INT_VALUE.compareAndSet(this, expect, update);
+    }
+
+    public int getAndSet(int value) {
+        return Padding.INT_VALUE.getAndSet(this, value);
+    }
+
+    public void increment() {
+        Padding.INT_VALUE.incrementAndGet(this);
+    }
+
+    public void decrement() {
+        Padding.INT_VALUE.decrementAndGet(this);
+    }
+
+    public void add(int delta) {
+        Padding.INT_VALUE.addAndGet(this, delta);
+    }
+
+    public int getAndAdd(int delta) {
+        return Padding.INT_VALUE.getAndAdd(this, delta);
+    }
+
+    public int addAndGet(int delta) {
+        return Padding.INT_VALUE.addAndGet(this, delta);
+    }
+
+    public int getAndIncrement() {
+        return Padding.INT_VALUE.getAndIncrement(this);
+    }
+
+    public int incrementAndGet() {
+        return Padding.INT_VALUE.incrementAndGet(this);
+    }
+
+    public int getAndDecrement() {
+        return Padding.INT_VALUE.getAndDecrement(this);
+    }
+
+    public int decrementAndGet() {
+        return Padding.INT_VALUE.decrementAndGet(this);
+    }
+
+    @Override
+    public String toString() {
+        return Integer.toString(value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null) {
+            if (obj instanceof AtomicMutableInteger) {
+                return value == ((AtomicMutableInteger) obj).value;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int intValue() {
+        return value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(AtomicMutableInteger other) {
+        int v = value;
+        int o = other.value;
+        return v == o ? 0 : v < o ? -1 : 1;
+    }
+
+    @Override
+    public AtomicMutableInteger clone() {
+        return new AtomicMutableInteger(value);
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util.mutable;
+
+/**
+ * 线程安全的 MutableLong，基于 AtomicLongFieldUpdater 实现原子操作 (没有额外的 Atomic 对象)，
+ * 并且和 {@link PaddedMutableLong} 一样使用 cache line 填充，适用于多个线程共享的热点计数器.
+ *
+ * @author Guoqiang Chen
+ */
+@SuppressWarnings("serial")
+public final class AtomicMutableLong extends Padding.VolatileLongValue implements Comparable<AtomicMutableLong>, Cloneable {
+    // right padding
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    public AtomicMutableLong() {
+    }
+
+    public AtomicMutableLong(long value) {
+        this.value = value;
+    }
+
+    public AtomicMutableLong(String value) {
+        this.value = Long.parseLong(value);
+    }
+
+    public AtomicMutableLong(Number number) {
+        value = number.longValue();
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    public void setValue(Number value) {
+        this.value = value.longValue();
+    }
+
+    /**
+     * 最终会设置为指定的值，但是不保证其它线程立即可见 (比 {@link #setValue(long)} 开销更小).
+     */
+    public void lazySet(long value) {
+        Padding.LONG_VALUE.lazySet(this, value);
+    }
+
+    public boolean compareAndSet(long expect, long update) {
+        return Padding.LONG_VALUE.compareAndSet(this, expect, update);
+    }
+
+    public long getAndSet(long value) {
+        return Padding.LONG_VALUE.getAndSet(this, value);
+    }
+
+    public void increment() {
+        Padding.LONG_VALUE.incrementAndGet(this);
+    }
+
+    public void decrement() {
+        Padding.LONG_VALUE.decrementAndGet(this);
+    }
+
+    public void add(long delta) {
+        Padding.LONG_VALUE.addAndGet(this, delta);
+    }
+
+    public long getAndAdd(long delta) {
+        return Padding.LONG_VALUE.getAndAdd(this, delta);
+    }
+
+    public long addAndGet(long delta) {
+        return Padding.LONG_VALUE.addAndGet(this, delta);
+    }
+
+    public long getAndIncrement() {
+        return Padding.LONG_VALUE.getAndIncrement(this);
+    }
+
+    public long incrementAndGet() {
+        return Padding.LONG_VALUE.incrementAndGet(this);
+    }
+
+    public long getAndDecrement() {
+        return Padding.LONG_VALUE.getAndDecrement(this);
+    }
+
+    public long decrementAndGet() {
+        return Padding.LONG_VALUE.decrementAndGet(this);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+
+    @Override
+    public int hashCode() {
+        long v = value;
+        return (int) (v ^ v >>> 32);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null) {
+            if (obj instanceof AtomicMutableLong) {
+                return value == ((AtomicMutableLong) obj).value;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(AtomicMutableLong other) {
+        long v = value;
+        long o = other.value;
+        return v == o ? 0 : v < o ? -1 : 1;
+    }
+
+    @Override
+    public AtomicMutableLong clone() {
+        return new AtomicMutableLong(value);
+    }
+}
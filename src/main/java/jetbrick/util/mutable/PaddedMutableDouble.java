@@ -0,0 +1,163 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util.mutable;
+
+/**
+ * 使用 cache line 填充的 MutableDouble，适用于每个线程各自持有一个实例，并在循环中频繁更新的场景.
+ * <p>
+ * 非线程安全，多个线程共享时请使用 {@link AtomicMutableDouble}，除了 lazySet 和 compareAndSet 之外，两者的 API 相同.
+ *
+ * @author Guoqiang Chen
+ */
+@SuppressWarnings("serial")
+public final class PaddedMutableDouble extends Padding.DoubleValue implements Comparable<PaddedMutableDouble>, Cloneable {
+    // right padding
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    public PaddedMutableDouble() {
+    }
+
+    public PaddedMutableDouble(double value) {
+        this.value = value;
+    }
+
+    public PaddedMutableDouble(String value) {
+        this.value = Double.parseDouble(value);
+    }
+
+    public PaddedMutableDouble(Number number) {
+        value = number.doubleValue();
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    public void setValue(Number value) {
+        this.value = value.doubleValue();
+    }
+
+    public double getAndSet(double value) {
+        double old = this.value;
+        this.value = value;
+        return old;
+    }
+
+    public void increment() {
+        value++;
+    }
+
+    public void decrement() {
+        value--;
+    }
+
+    public void add(double delta) {
+        value += delta;
+    }
+
+    public double getAndAdd(double delta) {
+        double old = value;
+        value = old + delta;
+        return old;
+    }
+
+    public double addAndGet(double delta) {
+        return value += delta;
+    }
+
+    public double getAndIncrement() {
+        return value++;
+    }
+
+    public double incrementAndGet() {
+        return ++value;
+    }
+
+    public double getAndDecrement() {
+        return value--;
+    }
+
+    public double decrementAndGet() {
+        return --value;
+    }
+
+    @Override
+    public String toString() {
+        return Double.toString(value);
+    }
+
+    @Override
+    public int hashCode() {
+        long bits = Double.doubleToLongBits(value);
+        return (int) (bits ^ bits >>> 32);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null) {
+            if (obj instanceof PaddedMutableDouble) {
+                return Double.doubleToLongBits(value) == Double.doubleToLongBits(((PaddedMutableDouble) obj).value);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        return (long) value;
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    public boolean isNaN() {
+        return Double.isNaN(value);
+    }
+
+    public boolean isInfinite() {
+        return Double.isInfinite(value);
+    }
+
+    @Override
+    public int compareTo(PaddedMutableDouble other) {
+        return Double.compare(value, other.value);
+    }
+
+    @Override
+    public PaddedMutableDouble clone() {
+        return new PaddedMutableDouble(value);
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util.mutable;
+
+/**
+ * 使用 cache line 填充的 MutableInteger，适用于每个线程各自持有一个实例，并在循环中频繁更新的场景.
+ * <p>
+ * 非线程安全，多个线程共享时请使用 {@link AtomicMutableInteger}，除了 lazySet 和 compareAndSet 之外，两者的 API 相同.
+ *
+ * @author Guoqiang Chen
+ */
+@SuppressWarnings("serial")
+public final class PaddedMutableInteger extends Padding.IntValue implements Comparable<PaddedMutableInteger>, Cloneable {
+    // right padding
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    public PaddedMutableInteger() {
+    }
+
+    public PaddedMutableInteger(int value) {
+        this.value = value;
+    }
+
+    public PaddedMutableInteger(String value) {
+        this.value = Integer.parseInt(value);
+    }
+
+    public PaddedMutableInteger(Number number) {
+        value = number.intValue();
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public void setValue(int value) {
+        this.value = value;
+    }
+
+    public void setValue(Number value) {
+        this.value = value.intValue();
+    }
+
+    public int getAndSet(int value) {
+        int old = this.value;
+        this.value = value;
+        return old;
+    }
+
+    public void increment() {
+        value++;
+    }
+
+    public void decrement() {
+        value--;
+    }
+
+    public void add(int delta) {
+        value += delta;
+    }
+
+    public int getAndAdd(int delta) {
+        int old = value;
+        value = old + delta;
+        return old;
+    }
+
+    public int addAndGet(int delta) {
+        return value += delta;
+    }
+
+    public int getAndIncrement() {
+        return value++;
+    }
+
+    public int incrementAndGet() {
+        return ++value;
+    }
+
+    public int getAndDecrement() {
+        return value--;
+    }
+
+    public int decrementAndGet() {
+        return --value;
+    }
+
+    @Override
+    public String toString() {
+        return Integer.toString(value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null) {
+            if (obj instanceof PaddedMutableInteger) {
+                return value == ((PaddedMutableInteger) obj).value;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int intValue() {
+        return value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(PaddedMutableInteger other) {
+        int v = value;
+        int o = other.value;
+        return v == o ? 0 : v < o ? -1 : 1;
+    }
+
+    @Override
+    public PaddedMutableInteger clone() {
+        return new PaddedMutableInteger(value);
+    }
+}
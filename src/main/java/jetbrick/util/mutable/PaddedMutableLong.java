@@ -0,0 +1,157 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util.mutable;
+
+/**
+ * 使用 cache line 填充的 MutableLong，适用于每个线程各自持有一个实例，并在循环中频繁更新的场景.
+ * <p>
+ * 非线程安全，多个线程共享时请使用 {@link AtomicMutableLong}，除了 lazySet 和 compareAndSet 之外，两者的 API 相同.
+ *
+ * @author Guoqiang Chen
+ */
+@SuppressWarnings("serial")
+public final class PaddedMutableLong extends Padding.LongValue implements Comparable<PaddedMutableLong>, Cloneable {
+    // right padding
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    public PaddedMutableLong() {
+    }
+
+    public PaddedMutableLong(long value) {
+        this.value = value;
+    }
+
+    public PaddedMutableLong(String value) {
+        this.value = Long.parseLong(value);
+    }
+
+    public PaddedMutableLong(Number number) {
+        value = number.longValue();
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    public void setValue(Number value) {
+        this.value = value.longValue();
+    }
+
+    public long getAndSet(long value) {
+        long old = this.value;
+        this.value = value;
+        return old;
+    }
+
+    public void increment() {
+        value++;
+    }
+
+    public void decrement() {
+        value--;
+    }
+
+    public void add(long delta) {
+        value += delta;
+    }
+
+    public long getAndAdd(long delta) {
+        long old = value;
+        value = old + delta;
+        return old;
+    }
+
+    public long addAndGet(long delta) {
+        return value += delta;
+    }
+
+    public long getAndIncrement() {
+        return value++;
+    }
+
+    public long incrementAndGet() {
+        return ++value;
+    }
+
+    public long getAndDecrement() {
+        return value--;
+    }
+
+    public long decrementAndGet() {
+        return --value;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+
+    @Override
+    public int hashCode() {
+        long v = value;
+        return (int) (v ^ v >>> 32);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null) {
+            if (obj instanceof PaddedMutableLong) {
+                return value == ((PaddedMutableLong) obj).value;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) value;
+    }
+
+    @Override
+    public long longValue() {
+        return value;
+    }
+
+    @Override
+    public float floatValue() {
+        return value;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(PaddedMutableLong other) {
+        long v = value;
+        long o = other.value;
+        return v == o ? 0 : v < o ? -1 : 1;
+    }
+
+    @Override
+    public PaddedMutableLong clone() {
+        return new PaddedMutableLong(value);
+    }
+}
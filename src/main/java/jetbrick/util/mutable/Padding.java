@@ -0,0 +1,60 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util.mutable;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Padded/Atomic 系列类型的父类.
+ * <p>
+ * 通过继承保证 value 前后各有 56 bytes 的填充 (JVM 不会把子类字段排在父类字段之前)，
+ * 相邻分配的两个对象的 value 不会落在同一个 cache line 中，避免伪共享.
+ * 和 @Contended 不同，这种方式不需要 -XX:-RestrictContended 参数.
+ */
+@SuppressWarnings("serial")
+final class Padding {
+    static final AtomicIntegerFieldUpdater<VolatileIntValue> INT_VALUE = AtomicIntegerFieldUpdater.newUpdater(VolatileIntValue.class, "value");
+    static final AtomicLongFieldUpdater<VolatileLongValue> LONG_VALUE = AtomicLongFieldUpdater.newUpdater(VolatileLongValue.class, "value");
+
+    static abstract class Lhs extends Number {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    static abstract class IntValue extends Lhs {
+        int value;
+    }
+
+    static abstract class LongValue extends Lhs {
+        long value;
+    }
+
+    static abstract class DoubleValue extends Lhs {
+        double value;
+    }
+
+    static abstract class VolatileIntValue extends Lhs {
+        volatile int value;
+    }
+
+    static abstract class VolatileLongValue extends Lhs {
+        volatile long value;
+    }
+}
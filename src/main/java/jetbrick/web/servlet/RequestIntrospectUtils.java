@@ -20,7 +20,6 @@
 package jetbrick.web.servlet;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
 import javax.servlet.ServletRequest;
 import jetbrick.bean.KlassInfo;
@@ -64,9 +63,8 @@ public abstract class RequestIntrospectUtils {
                 Class<?> componentType = type.getComponentType();
                 Object data = TypeCastUtils.convertToArray(values, componentType);
                 prop.set(form, data);
-            } else if (type == List.class || type == Collection.class) {
-                Class<?> componentType = prop.getRawComponentType(formClass, 0);
-                Object data = TypeCastUtils.convertToList(values, componentType);
+            } else if (Collection.class.isAssignableFrom(type)) {
+                Object data = TypeCastUtils.convert(values, prop.getGenericType(formClass));
                 prop.set(form, data);
             } else {
                 String value = StringUtils.trimToNull(values[0]);
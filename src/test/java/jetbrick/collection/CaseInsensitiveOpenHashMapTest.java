@@ -0,0 +1,128 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CaseInsensitiveOpenHashMapTest {
+    // 包含 ASCII 和非 ASCII 字符，K (开尔文符号) 转换为小写后是 ASCII 的 'k'
+    private static final String ALPHABET = "aAbBkKéÉK-";
+
+    @Test
+    public void testBasic() {
+        Map<String, Integer> map = new CaseInsensitiveOpenHashMap<Integer>(Locale.ROOT);
+        map.put("Content-Type", 1);
+        Assert.assertEquals(Integer.valueOf(1), map.get("content-type"));
+        Assert.assertEquals(Integer.valueOf(1), map.put("CONTENT-TYPE", 2));
+        Assert.assertEquals("Content-Type", map.keySet().iterator().next()); // 保留第一次 put 的 key
+        Assert.assertEquals(Integer.valueOf(2), map.get("Content-type"));
+
+        map.put("ÉTÉ", 3);
+        Assert.assertEquals(Integer.valueOf(3), map.get("été"));
+        Assert.assertEquals(Integer.valueOf(3), map.remove("éTé"));
+        Assert.assertNull(map.get("ÉTÉ"));
+        Assert.assertNull(map.get(null));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        Random random = new Random(37);
+        CaseInsensitiveOpenHashMap<Integer> map = new CaseInsensitiveOpenHashMap<Integer>(Locale.ROOT);
+        Map<String, Integer> oracle = new HashMap<String, Integer>(); // folded key -> value
+        Map<String, String> originalKeys = new HashMap<String, String>(); // folded key -> first key
+
+        for (int i = 0; i < 100000; i++) {
+            String key = newKey(random);
+            String folded = fold(key);
+            int op = random.nextInt(100);
+            if (op < 55) {
+                Integer value = random.nextInt(1000);
+                Assert.assertEquals(oracle.put(folded, value), map.put(key, value));
+                if (!originalKeys.containsKey(folded)) {
+                    originalKeys.put(folded, key);
+                }
+            } else if (op < 90) {
+                Assert.assertEquals(oracle.remove(folded), map.remove(key));
+                originalKeys.remove(folded);
+            } else if (op < 99) {
+                // 通过 iterator 删除一部分 entry，同时修改另一部分的 value
+                Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, Integer> entry = it.next();
+                    String f = fold(entry.getKey());
+                    if (random.nextInt(20) == 0) {
+                        it.remove();
+                        oracle.remove(f);
+                        originalKeys.remove(f);
+                    } else if (random.nextInt(20) == 0) {
+                        entry.setValue(-1);
+                        oracle.put(f, -1);
+                    }
+                }
+            } else if (random.nextInt(10) == 0) {
+                map.clear();
+                oracle.clear();
+                originalKeys.clear();
+            }
+
+            Assert.assertEquals(oracle.size(), map.size());
+            Assert.assertEquals(oracle.get(folded), map.get(key));
+            Assert.assertEquals(oracle.containsKey(folded), map.containsKey(key));
+        }
+
+        Assert.assertEquals(oracle.size(), map.size());
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            String folded = fold(entry.getKey());
+            Assert.assertEquals(originalKeys.get(folded), entry.getKey());
+            Assert.assertEquals(oracle.get(folded), entry.getValue());
+        }
+    }
+
+    // 和 CaseInsensitiveOpenHashMap 的规则一致: ASCII 字符串只转换 A-Z，其它的使用 locale 规则
+    private static String fold(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) >= 0x80) {
+                return key.toLowerCase(Locale.ROOT);
+            }
+        }
+        StringBuilder sb = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            sb.append((c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c);
+        }
+        return sb.toString();
+    }
+
+    private static String newKey(Random random) {
+        int length = 1 + random.nextInt(4);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+import jetbrick.collection.bidimap.BidiHashMap;
+import jetbrick.collection.bidimap.BidiMap;
+import jetbrick.collection.multimap.MultiValueHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ArrayStack, MultiValueMap, BidiMap 以及 ImmutableMap 的性能测试，和对应的 JDK 用法对比.
+ *
+ * <pre>
+ * make bench class=jetbrick.collection.CollectionBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SizeState {
+        @Param({ "4", "64", "4096", "1048576" })
+        public int size;
+
+        public String[] keys;
+        public int index;
+
+        // multimap: 每个 key 平均 2 个 value，一半 key 只有一个 value
+        public MultiValueHashMap<String, Object> multiMap;
+        public Map<String, List<Object>> jdkMultiMap;
+
+        public BidiMap<String, Integer> bidiMap;
+        public ImmutableBidiMap<String, Integer> immutableBidiMap;
+        public Map<String, Integer> jdkMap;
+        public Map<Integer, String> jdkReverseMap;
+        public ImmutableMap<String, Integer> immutableMap;
+
+        @Setup
+        public void setup() {
+            keys = MapBenchmark.newKeys(size);
+            multiMap = new MultiValueHashMap<String, Object>();
+            jdkMultiMap = new HashMap<String, List<Object>>();
+            bidiMap = new BidiHashMap<String, Integer>();
+            jdkMap = new HashMap<String, Integer>();
+            jdkReverseMap = new HashMap<Integer, String>();
+            ImmutableBidiMap.Builder<String, Integer> builder = ImmutableBidiMap.builder(size);
+            for (int i = 0; i < size; i++) {
+                String key = keys[i];
+                addMulti(this, key, key);
+                if ((i & 1) == 0) {
+                    addMulti(this, key, key);
+                    addMulti(this, key, key);
+                }
+                bidiMap.put(key, i);
+                jdkMap.put(key, i);
+                jdkReverseMap.put(i, key);
+                builder.put(key, i);
+            }
+            immutableBidiMap = builder.build();
+            immutableMap = ImmutableMap.copyOf(jdkMap);
+        }
+
+        public int next() {
+            return index++ & (keys.length - 1);
+        }
+    }
+
+    static void addMulti(SizeState s, String key, Object value) {
+        s.multiMap.put(key, value);
+        List<Object> list = s.jdkMultiMap.get(key);
+        if (list == null) {
+            list = new ArrayList<Object>();
+            s.jdkMultiMap.put(key, list);
+        }
+        list.add(value);
+    }
+
+    // -------- stack: push size 个元素，然后全部 pop -------------------------
+
+    @Benchmark
+    public void arrayStack(SizeState s, Blackhole bh) {
+        ArrayStack<Object> stack = new ArrayStack<Object>();
+        for (String key : s.keys) {
+            stack.push(key);
+        }
+        while (!stack.empty()) {
+            bh.consume(stack.pop());
+        }
+    }
+
+    @Benchmark
+    public void arrayDequeJdk(SizeState s, Blackhole bh) {
+        ArrayDeque<Object> stack = new ArrayDeque<Object>();
+        for (String key : s.keys) {
+            stack.push(key);
+        }
+        while (!stack.isEmpty()) {
+            bh.consume(stack.pop());
+        }
+    }
+
+    @Benchmark
+    public void stackJdk(SizeState s, Blackhole bh) {
+        Stack<Object> stack = new Stack<Object>();
+        for (String key : s.keys) {
+            stack.push(key);
+        }
+        while (!stack.empty()) {
+            bh.consume(stack.pop());
+        }
+    }
+
+    // -------- multimap -----------------------------------------------------
+
+    @Benchmark
+    public Object multiMapGetList(SizeState s) {
+        return s.multiMap.getList(s.keys[s.next()]);
+    }
+
+    @Benchmark
+    public Object multiMapGetListJdk(SizeState s) {
+        return s.jdkMultiMap.get(s.keys[s.next()]);
+    }
+
+    @Benchmark
+    public Object multiMapBuild(SizeState s) {
+        MultiValueHashMap<String, Object> map = new MultiValueHashMap<String, Object>();
+        for (String key : s.keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object multiMapBuildJdk(SizeState s) {
+        Map<String, List<Object>> map = new HashMap<String, List<Object>>();
+        for (String key : s.keys) {
+            List<Object> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<Object>();
+                map.put(key, list);
+            }
+            list.add(key);
+        }
+        return map;
+    }
+
+    // -------- bidimap / immutable map --------------------------------------
+
+    @Benchmark
+    public Object bidiMapGetKey(SizeState s) {
+        return s.bidiMap.getKey(s.next());
+    }
+
+    @Benchmark
+    public Object immutableBidiMapGetKey(SizeState s) {
+        return s.immutableBidiMap.getKey(s.next());
+    }
+
+    @Benchmark
+    public Object bidiMapGetKeyJdk(SizeState s) {
+        return s.jdkReverseMap.get(s.next());
+    }
+
+    @Benchmark
+    public Object immutableMapGet(SizeState s) {
+        return s.immutableMap.get(s.keys[s.next()]);
+    }
+
+    @Benchmark
+    public Object immutableMapGetJdk(SizeState s) {
+        return s.jdkMap.get(s.keys[s.next()]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include("^" + CollectionBenchmark.class.getName() + "\\.").addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentCounterMapTest {
+
+    @Test
+    public void testIncrement() {
+        ConcurrentCounterMap<String> counters = new ConcurrentCounterMap<String>();
+        counters.increment("a");
+        counters.increment("a", 5);
+        counters.decrement("b");
+        Assert.assertEquals(6, counters.get("a"));
+        Assert.assertEquals(-1, counters.get("b"));
+        Assert.assertEquals(0, counters.get("c"));
+        Assert.assertEquals(5, counters.sum());
+
+        Map<String, Long> snapshot = counters.snapshotAndReset();
+        Assert.assertEquals(Long.valueOf(6), snapshot.get("a"));
+        Assert.assertEquals(0, counters.get("a"));
+        counters.increment("b", 3);
+        Assert.assertEquals(3, counters.remove("b"));
+        Assert.assertFalse(counters.containsKey("b"));
+    }
+
+    @Test
+    public void testSnapshotAndResetConcurrently() throws Exception {
+        final ConcurrentCounterMap<Integer> counters = new ConcurrentCounterMap<Integer>();
+        final int threads = 8;
+        final int increments = 200000;
+        final int keys = 4; // 少量的热点 key，保证出现竞争
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicBoolean running = new AtomicBoolean(true);
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < increments; i++) {
+                            counters.increment(i % keys);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        // 导出线程不断地 snapshotAndReset，所有快照的总和必须等于 increment 的次数
+        final Map<Integer, Long> totals = new HashMap<Integer, Long>();
+        Thread exporter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (running.get()) {
+                    merge(totals, counters.snapshotAndReset());
+                }
+            }
+        });
+        exporter.start();
+        start.countDown();
+        done.await();
+        running.set(false);
+        exporter.join();
+        merge(totals, counters.snapshotAndReset());
+
+        for (int key = 0; key < keys; key++) {
+            Assert.assertEquals(Long.valueOf((long) threads * increments / keys), totals.get(key));
+        }
+        Assert.assertEquals(0, counters.sum());
+    }
+
+    private static void merge(Map<Integer, Long> totals, Map<Integer, Long> snapshot) {
+        for (Map.Entry<Integer, Long> entry : snapshot.entrySet()) {
+            Long total = totals.get(entry.getKey());
+            totals.put(entry.getKey(), (total == null ? 0 : total) + entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 并发 Map/Cache 的性能测试，和 ConcurrentHashMap 以及 Collections.synchronizedMap 对比.
+ * <p>
+ * 默认 8 个线程，{@link #main(String[])} 会分别使用 8 和 32 个线程运行，通过 make 运行时使用 JMH 的 -t 参数指定.
+ * 注意：CopyOnWriteMap 和 PersistentCopyOnWriteMap 在 put 负载、大 size 下会非常慢，这正是需要测量的结果.
+ *
+ * <pre>
+ * make bench class=jetbrick.collection.ConcurrentMapBenchmark args="-t 32"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ConcurrentMapBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class CacheState {
+        //@formatter:off
+        @Param({
+            "ConcurrentHashMap",          // JDK
+            "synchronizedMap",            // JDK
+            "CopyOnWriteMap",
+            "PersistentCopyOnWriteMap",
+            "ConcurrentSoftHashMap",
+            "TimedSizeCache",
+        })
+        public String impl;
+        //@formatter:on
+
+        @Param({ "4", "64", "4096", "1048576" })
+        public int size;
+
+        public Target target;
+        public String[] keys;
+
+        @Setup
+        public void setup() {
+            target = newTarget(impl, size);
+            keys = MapBenchmark.newKeys(size);
+            Map<String, Object> data = new HashMap<String, Object>(size * 2);
+            for (String key : keys) {
+                data.put(key, key);
+            }
+            target.putAll(data);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        public int index = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Benchmark
+    public Object get(CacheState s, ThreadState t) {
+        return s.target.get(s.keys[t.index++ & (s.keys.length - 1)]);
+    }
+
+    @Benchmark
+    public void put(CacheState s, ThreadState t) {
+        String key = s.keys[t.index++ & (s.keys.length - 1)];
+        s.target.put(key, key);
+    }
+
+    @Benchmark
+    public Object mixed(CacheState s, ThreadState t) {
+        // 90% get, 10% put
+        int i = t.index++;
+        String key = s.keys[i & (s.keys.length - 1)];
+        if ((i & 0xFFFF) % 10 == 0) {
+            s.target.put(key, key);
+            return null;
+        }
+        return s.target.get(key);
+    }
+
+    // ----------------------------------------------------------------------
+
+    /**
+     * 统一 Map 和 TimedSizeCache 的访问接口.
+     */
+    public static abstract class Target {
+        public abstract Object get(String key);
+
+        public abstract void put(String key, Object value);
+
+        // 初始化数据，copy-on-write 实现只需要复制一次
+        public void putAll(Map<String, Object> data) {
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    static Target newTarget(String impl, int size) {
+        switch (impl) {
+        case "ConcurrentHashMap":
+            return forMap(new ConcurrentHashMap<String, Object>());
+        case "synchronizedMap":
+            return forMap(Collections.synchronizedMap(new HashMap<String, Object>()));
+        case "CopyOnWriteMap":
+            return forMap(new CopyOnWriteMap<String, Object>());
+        case "PersistentCopyOnWriteMap":
+            return forMap(new PersistentCopyOnWriteMap<String, Object>());
+        case "ConcurrentSoftHashMap":
+            return forMap(new ConcurrentSoftHashMap<String, Object>());
+        case "TimedSizeCache":
+            final TimedSizeCache<String, Object> cache = new TimedSizeCache<String, Object>(size);
+            return new Target() {
+                @Override
+                public Object get(String key) {
+                    return cache.get(key);
+                }
+
+                @Override
+                public void put(String key, Object value) {
+                    cache.put(key, value);
+                }
+            };
+        default:
+            throw new IllegalArgumentException(impl);
+        }
+    }
+
+    static Target forMap(final Map<String, Object> map) {
+        return new Target() {
+            @Override
+            public Object get(String key) {
+                return map.get(key);
+            }
+
+            @Override
+            public void put(String key, Object value) {
+                map.put(key, value);
+            }
+
+            @Override
+            public void putAll(Map<String, Object> data) {
+                map.putAll(data);
+            }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads : new int[] { 8, 32 }) {
+            new Runner(new OptionsBuilder().include("^" + ConcurrentMapBenchmark.class.getName() + "\\.").threads(threads).addProfiler(GCProfiler.class).build()).run();
+        }
+    }
+}
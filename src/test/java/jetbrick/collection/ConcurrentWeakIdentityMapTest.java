@@ -0,0 +1,160 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentWeakIdentityMapTest {
+
+    @Test
+    public void testRandomAgainstIdentityHashMap() {
+        Random random = new Random(1);
+        ConcurrentWeakIdentityMap<String, Integer> map = new ConcurrentWeakIdentityMap<String, Integer>();
+        Map<String, Integer> oracle = new IdentityHashMap<String, Integer>();
+        // equals 相同但是 identity 不同的 key
+        String[] keys = new String[64];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new String("k" + (i % 8));
+        }
+        Function<String, Integer> function = new Function<String, Integer>() {
+            @Override
+            public Integer apply(String key) {
+                return -1;
+            }
+        };
+        for (int i = 0; i < 100000; i++) {
+            String key = keys[random.nextInt(keys.length)];
+            Integer value = random.nextInt(4);
+            switch (random.nextInt(8)) {
+            case 0:
+                Assert.assertEquals(oracle.put(key, value), map.put(key, value));
+                break;
+            case 1:
+                Integer old = oracle.get(key);
+                if (old == null) {
+                    oracle.put(key, value);
+                }
+                Assert.assertEquals(old, map.putIfAbsent(key, value));
+                break;
+            case 2:
+                if (!oracle.containsKey(key)) {
+                    oracle.put(key, -1);
+                }
+                Assert.assertEquals(oracle.get(key), map.computeIfAbsent(key, function));
+                break;
+            case 3:
+                Assert.assertEquals(oracle.remove(key), map.remove(key));
+                break;
+            case 4:
+                boolean removed = value.equals(oracle.get(key));
+                if (removed) {
+                    oracle.remove(key);
+                }
+                Assert.assertEquals(removed, map.remove(key, value));
+                break;
+            case 5:
+                boolean replaced = value.equals(oracle.get(key));
+                if (replaced) {
+                    oracle.put(key, value + 1);
+                }
+                Assert.assertEquals(replaced, map.replace(key, value, value + 1));
+                break;
+            case 6:
+                Assert.assertEquals(oracle.containsKey(key) ? oracle.put(key, value) : null, map.replace(key, value));
+                break;
+            default:
+                if (random.nextInt(100) == 0) {
+                    map.clear();
+                    oracle.clear();
+                }
+            }
+            Assert.assertEquals(oracle.size(), map.size());
+            Assert.assertEquals(oracle.containsKey(key), map.containsKey(key));
+            Assert.assertEquals(oracle.get(key), map.get(key));
+            Assert.assertNull(map.get(new String(key)));
+        }
+
+        Map<String, Integer> entries = new IdentityHashMap<String, Integer>();
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> entry = it.next();
+            Assert.assertNull(entries.put(entry.getKey(), entry.getValue()));
+            if (entry.getValue().intValue() == 0) {
+                it.remove();
+                oracle.remove(entry.getKey());
+            }
+        }
+        Assert.assertEquals(oracle.size(), map.size());
+        Assert.assertEquals(oracle.size(), entries.size() - countZero(entries));
+    }
+
+    @Test
+    public void testPurge() throws Exception {
+        ConcurrentWeakIdentityMap<Object, Integer> map = new ConcurrentWeakIdentityMap<Object, Integer>();
+        List<Object> retained = new ArrayList<Object>();
+        List<Object> dropped = new ArrayList<Object>();
+        for (int i = 0; i < 1000; i++) {
+            Object key = new Object();
+            map.put(key, i);
+            if (i % 2 == 0) {
+                retained.add(key);
+            } else {
+                dropped.add(key);
+            }
+        }
+        Assert.assertEquals(1000, map.size());
+        dropped = null;
+
+        // size() 会调用 purge()，等待 GC 回收一半的 key
+        long deadline = System.currentTimeMillis() + 10000;
+        while (map.size() > retained.size() && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(retained.size(), map.size());
+        for (int i = 0; i < retained.size(); i++) {
+            Assert.assertEquals(Integer.valueOf(i * 2), map.get(retained.get(i)));
+        }
+        int n = 0;
+        for (Map.Entry<Object, Integer> entry : map.entrySet()) {
+            Assert.assertEquals(0, entry.getValue().intValue() % 2);
+            n++;
+        }
+        Assert.assertEquals(retained.size(), n);
+    }
+
+    private static int countZero(Map<String, Integer> entries) {
+        int n = 0;
+        for (Integer value : entries.values()) {
+            if (value.intValue() == 0) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
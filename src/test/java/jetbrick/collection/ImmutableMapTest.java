@@ -0,0 +1,149 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import jetbrick.collection.PersistentHashMapTest.Key;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImmutableMapTest {
+
+    @Test
+    public void testRandomAgainstLinkedHashMap() {
+        Random random = new Random(1);
+        for (int round = 0; round < 500; round++) {
+            int size = random.nextInt(round < 100 ? 8 : 300);
+            Map<Key, String> oracle = newOracle(random, size);
+            ImmutableMap<Key, String> map;
+            if (random.nextBoolean()) {
+                map = ImmutableMap.copyOf(oracle);
+            } else {
+                ImmutableMap.Builder<Key, String> builder = ImmutableMap.builder(random.nextInt(4));
+                for (Map.Entry<Key, String> entry : oracle.entrySet()) {
+                    builder.put(entry.getKey(), entry.getValue());
+                }
+                map = builder.build();
+            }
+            verify(oracle, map, random);
+        }
+    }
+
+    @Test
+    public void testRandomBidiAgainstLinkedHashMap() {
+        Random random = new Random(2);
+        for (int round = 0; round < 500; round++) {
+            int size = random.nextInt(round < 100 ? 8 : 300);
+            Map<Key, String> oracle = newOracle(random, size);
+            ImmutableBidiMap<Key, String> map = ImmutableBidiMap.copyOf(oracle);
+            verify(oracle, map, random);
+
+            Map<String, Key> inverse = new LinkedHashMap<String, Key>();
+            for (Map.Entry<Key, String> entry : oracle.entrySet()) {
+                inverse.put(entry.getValue(), entry.getKey());
+            }
+            Assert.assertEquals(inverse, map.inverse());
+            Assert.assertSame(map, map.inverse().inverse());
+            for (int i = 0; i < 20; i++) {
+                String value = "v" + random.nextInt(size * 2 + 1);
+                Assert.assertEquals(inverse.get(value), map.getKey(value));
+                Assert.assertEquals(inverse.containsKey(value), map.containsValue(value));
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicateKey() {
+        ImmutableMap.Builder<Key, String> builder = ImmutableMap.builder();
+        builder.put(new Key(1, 0), "a").put(new Key(2, 0), "b").put(new Key(1, 0), "c");
+        try {
+            builder.build();
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDuplicateBidiValue() {
+        ImmutableBidiMap.Builder<String, String> builder = ImmutableBidiMap.builder();
+        builder.put("a", "x").put("b", "y").put("c", "x");
+        try {
+            builder.build();
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    // key 的 hash 只有很少的几种，保证出现大量的探测冲突; value 不重复
+    private static Map<Key, String> newOracle(Random random, int size) {
+        Map<Key, String> oracle = new LinkedHashMap<Key, String>();
+        int hashes = 1 + random.nextInt(size + 1);
+        int shift = random.nextInt(20);
+        while (oracle.size() < size) {
+            int id = random.nextInt(size * 2);
+            oracle.put(new Key(id, (id % hashes) << shift), "v" + id);
+        }
+        return oracle;
+    }
+
+    private static void verify(Map<Key, String> oracle, Map<Key, String> map, Random random) {
+        Assert.assertEquals(oracle.size(), map.size());
+        Assert.assertEquals(oracle.isEmpty(), map.isEmpty());
+        Assert.assertEquals(oracle, map);
+        Assert.assertEquals(map, oracle);
+        Assert.assertEquals(oracle.hashCode(), map.hashCode());
+        Assert.assertEquals(new ArrayList<Map.Entry<Key, String>>(oracle.entrySet()), new ArrayList<Map.Entry<Key, String>>(map.entrySet()));
+
+        for (Map.Entry<Key, String> entry : oracle.entrySet()) {
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+            Assert.assertTrue(map.containsKey(entry.getKey()));
+            Assert.assertTrue(map.containsValue(entry.getValue()));
+        }
+        // 不存在的 key，包括 hash 相同但是 id 不同的 key
+        for (int i = 0; i < 20; i++) {
+            Key key = new Key(-1 - i, random.nextInt(8) << random.nextInt(20));
+            Assert.assertNull(map.get(key));
+            Assert.assertFalse(map.containsKey(key));
+        }
+        Assert.assertNull(map.get(null));
+        Assert.assertFalse(map.containsKey(null));
+        Assert.assertFalse(map.containsValue("none"));
+
+        final List<Key> keys = new ArrayList<Key>();
+        final Map<Key, String> entries = new HashMap<Key, String>();
+        map.forEach(new BiConsumer<Key, String>() {
+            @Override
+            public void accept(Key key, String value) {
+                keys.add(key);
+                entries.put(key, value);
+            }
+        });
+        Assert.assertEquals(new ArrayList<Key>(oracle.keySet()), keys);
+        Assert.assertEquals(oracle, entries);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ListMapTest {
+
+    @Test
+    public void testRandomAgainstLinkedHashMap() {
+        // 0: 总是使用 hash 索引，8: 默认值，1000: 总是顺序查找
+        for (int hashThreshold : new int[] { 0, 8, 1000 }) {
+            Random random = new Random(hashThreshold);
+            ListMap<Integer, Integer> map = new ListMap<Integer, Integer>(0, hashThreshold);
+            Map<Integer, Integer> oracle = new LinkedHashMap<Integer, Integer>();
+
+            for (int i = 0; i < 50000; i++) {
+                // key 的范围随时间变化，使 size 在阈值上下来回变化；包含 null key
+                int range = 4 + (i / 1000 % 10) * 20;
+                Integer key = (random.nextInt(100) == 0) ? null : Integer.valueOf(random.nextInt(range));
+                int op = random.nextInt(10);
+                if (op < 5) {
+                    Integer value = random.nextInt(100);
+                    Assert.assertEquals(oracle.put(key, value), map.put(key, value));
+                } else if (op < 9) {
+                    Assert.assertEquals(oracle.remove(key), map.remove(key));
+                } else if (random.nextInt(50) == 0) {
+                    map.clear();
+                    oracle.clear();
+                }
+
+                Assert.assertEquals(oracle.size(), map.size());
+                Assert.assertEquals(oracle.get(key), map.get(key));
+                Assert.assertEquals(oracle.containsKey(key), map.containsKey(key));
+                if (i % 100 == 0) {
+                    Assert.assertEquals(entries(oracle), entries(map));
+                }
+            }
+            Assert.assertEquals(entries(oracle), entries(map));
+            Assert.assertEquals(toList(oracle.keySet()), toList(map.keySet()));
+            Assert.assertEquals(toList(oracle.values()), toList(map.values()));
+        }
+    }
+
+    // ListMap 的 keySet/values 不支持 toArray，不能直接用于创建 ArrayList
+    private static List<Integer> toList(Iterable<Integer> values) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    // 按照遍历顺序返回所有的 key=value
+    private static List<String> entries(Map<Integer, Integer> map) {
+        List<String> list = new ArrayList<String>(map.size());
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            list.add(entry.getKey() + "=" + entry.getValue());
+        }
+        return list;
+    }
+}
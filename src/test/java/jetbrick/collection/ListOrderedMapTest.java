@@ -0,0 +1,119 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ListOrderedMapTest {
+
+    @Test
+    public void testRandomAgainstListAndHashMap() {
+        Random random = new Random(39);
+        ListOrderedMap<Integer, Integer> map = new ListOrderedMap<Integer, Integer>();
+        List<Integer> order = new ArrayList<Integer>(); // oracle: key 的顺序
+        Map<Integer, Integer> values = new HashMap<Integer, Integer>(); // oracle: key -> value
+
+        for (int i = 0; i < 50000; i++) {
+            Integer key = random.nextInt(200);
+            Integer value = random.nextInt(1000);
+            int op = random.nextInt(100);
+            if (op < 30) {
+                Assert.assertEquals(values.put(key, value), map.put(key, value));
+                if (!order.contains(key)) {
+                    order.add(key);
+                }
+            } else if (op < 50) {
+                // 插入到指定的位置，key 已经存在时移动到该位置
+                int size = order.size();
+                boolean exists = order.contains(key);
+                int index = random.nextInt(exists ? size : size + 1);
+                Map.Entry<Integer, Integer> old = map.put(index, key, value);
+                if (!exists) {
+                    Integer expected = (index < size) ? order.get(index) : null;
+                    Assert.assertEquals(expected, (old == null) ? null : old.getKey());
+                } else {
+                    order.remove(key);
+                }
+                order.add(index, key);
+                values.put(key, value);
+            } else if (op < 70) {
+                Assert.assertEquals(values.remove(key), map.remove(key));
+                order.remove(key);
+            } else if (op < 80 && !order.isEmpty()) {
+                int index = random.nextInt(order.size());
+                Map.Entry<Integer, Integer> removed = map.remove(index);
+                Assert.assertEquals(order.remove(index), removed.getKey());
+                Assert.assertEquals(values.remove(removed.getKey()), removed.getValue());
+            } else if (op < 85) {
+                // 通过 iterator 删除
+                Iterator<Integer> it = map.keySet().iterator();
+                while (it.hasNext()) {
+                    Integer k = it.next();
+                    if (random.nextInt(10) == 0) {
+                        it.remove();
+                        order.remove(k);
+                        values.remove(k);
+                    }
+                }
+            } else if (op < 95 && !order.isEmpty()) {
+                int index = random.nextInt(order.size());
+                map.valueList().set(index, value);
+                values.put(order.get(index), value);
+            } else if (op == 99 && random.nextInt(20) == 0) {
+                map.clear();
+                order.clear();
+                values.clear();
+            }
+
+            Assert.assertEquals(values.size(), map.size());
+            Assert.assertEquals(values.get(key), map.get(key));
+            Assert.assertEquals(order.indexOf(key), map.indexOf(key));
+            if (!order.isEmpty()) {
+                int index = random.nextInt(order.size());
+                Assert.assertEquals(order.get(index), map.getKey(index));
+            }
+            if (i % 100 == 0) {
+                assertSameOrder(order, values, map);
+            }
+        }
+        assertSameOrder(order, values, map);
+    }
+
+    private static void assertSameOrder(List<Integer> order, Map<Integer, Integer> values, ListOrderedMap<Integer, Integer> map) {
+        Assert.assertEquals(order, new ArrayList<Integer>(map.keySet()));
+        Assert.assertEquals(order, new ArrayList<Integer>(map.keyList()));
+        List<Integer> expectedValues = new ArrayList<Integer>(order.size());
+        for (Integer key : order) {
+            expectedValues.add(values.get(key));
+        }
+        Assert.assertEquals(expectedValues, new ArrayList<Integer>(map.values()));
+        int index = 0;
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            Assert.assertEquals(order.get(index++), entry.getKey());
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoadingCacheTest {
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final LoadingCache<String, String> cache = new LoadingCache<String, String>(100, 0);
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Function<String, String> loader = new Function<String, String>() {
+            @Override
+            public String apply(String key) {
+                calls.incrementAndGet();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return key.toUpperCase();
+            }
+        };
+
+        final Object[] results = new Object[16];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        results[index] = cache.get("key", loader);
+                    } catch (Throwable e) {
+                        results[index] = e;
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Object result : results) {
+            Assert.assertEquals("KEY", result);
+        }
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testGetAll() {
+        LoadingCache<String, String> cache = new LoadingCache<String, String>(100, 0);
+        cache.put("a", "A");
+
+        final AtomicInteger calls = new AtomicInteger();
+        Map<String, String> results = cache.getAll(Arrays.asList("a", "b", "c"), new Function<Collection<String>, Map<String, String>>() {
+            @Override
+            public Map<String, String> apply(Collection<String> keys) {
+                calls.incrementAndGet();
+                Assert.assertEquals(2, keys.size());
+                Map<String, String> map = new HashMap<String, String>();
+                for (String key : keys) {
+                    map.put(key, key.toUpperCase());
+                }
+                return map;
+            }
+        });
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(results.keySet().toArray()));
+        Assert.assertEquals("C", cache.getIfPresent("c"));
+    }
+
+    @Test
+    public void testStats() {
+        LoadingCache<String, String> cache = new LoadingCache<String, String>(2, 0);
+        cache.enableStats();
+        Function<String, String> loader = new Function<String, String>() {
+            @Override
+            public String apply(String key) {
+                return key.toUpperCase();
+            }
+        };
+        cache.get("a", loader);
+        cache.get("a", loader);
+        cache.get("b", loader);
+        cache.get("c", loader);
+
+        CacheStats stats = cache.getStats();
+        Assert.assertEquals(1, stats.getHitCount());
+        Assert.assertEquals(3, stats.getMissCount());
+        Assert.assertEquals(3, stats.getLoadSuccessCount());
+        Assert.assertEquals(1, stats.getSizeEvictionCount());
+        Assert.assertEquals(2, stats.getWeight());
+    }
+
+    @Test
+    public void testInvalidateDuringLoad() throws Exception {
+        final LoadingCache<String, String> cache = new LoadingCache<String, String>(100, 0);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        final Function<String, String> loader = new Function<String, String>() {
+            @Override
+            public String apply(String key) {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "STALE";
+            }
+        };
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.set(cache.get("a", loader));
+                } catch (Throwable e) {
+                    result.set(e);
+                }
+            }
+        });
+        thread.start();
+        loading.await();
+        cache.invalidate("a");
+        release.countDown();
+        thread.join();
+
+        Assert.assertEquals("STALE", result.get());
+        Assert.assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void testPutDuringLoad() throws Exception {
+        final LoadingCache<String, String> cache = new LoadingCache<String, String>(100, 0);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Function<String, String> loader = new Function<String, String>() {
+            @Override
+            public String apply(String key) {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "STALE";
+            }
+        };
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                cache.get("a", loader);
+            }
+        });
+        thread.start();
+        loading.await();
+        cache.put("a", "NEW");
+        release.countDown();
+        thread.join();
+
+        Assert.assertEquals("NEW", cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void testRecursiveLoad() {
+        final LoadingCache<String, String> cache = new LoadingCache<String, String>(100, 0);
+        Function<String, String> loader = new Function<String, String>() {
+            @Override
+            public String apply(String key) {
+                return cache.get(key, this);
+            }
+        };
+        try {
+            cache.get("a", loader);
+            Assert.fail("recursive load should fail");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        // 失败之后可以重新加载
+        Assert.assertEquals("A", cache.get("a", new Function<String, String>() {
+            @Override
+            public String apply(String key) {
+                return key.toUpperCase();
+            }
+        }));
+    }
+
+    @Test
+    public void testLoadErrorStats() {
+        LoadingCache<String, String> cache = new LoadingCache<String, String>(100, 0);
+        cache.enableStats();
+        try {
+            cache.get("a", new Function<String, String>() {
+                @Override
+                public String apply(String key) {
+                    throw new AssertionError("boom");
+                }
+            });
+            Assert.fail();
+        } catch (AssertionError e) {
+            Assert.assertEquals("boom", e.getMessage());
+        }
+        Assert.assertEquals(1, cache.getStats().getLoadFailureCount());
+    }
+
+    @Test
+    public void testRefreshRejected() throws Exception {
+        final CountDownLatch executing = new CountDownLatch(1);
+        final CountDownLatch reject = new CountDownLatch(1);
+        // 等待 reject 之后拒绝执行刷新任务
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executing.countDown();
+                try {
+                    reject.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new RejectedExecutionException();
+            }
+        };
+        final LoadingCache<String, String> cache = new LoadingCache<String, String>(100, 200, 1, executor);
+        cache.put("a", "OLD");
+        Thread.sleep(10);
+
+        final AtomicReference<Object> refreshing = new AtomicReference<Object>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                refreshing.set(cache.get("a", new Function<String, String>() {
+                    @Override
+                    public String apply(String key) {
+                        return "REFRESHED";
+                    }
+                }));
+            }
+        });
+        thread.start();
+        executing.await();
+
+        // 对象过期之后，加载同一个 key 的线程等待刷新的结果
+        while (cache.getIfPresent("a") != null) {
+            Thread.sleep(10);
+        }
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicReference<Object> loaded = new AtomicReference<Object>();
+        Thread loader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    loaded.set(cache.get("a", new Function<String, String>() {
+                        @Override
+                        public String apply(String key) {
+                            calls.incrementAndGet();
+                            return "NEW";
+                        }
+                    }));
+                } catch (Throwable e) {
+                    loaded.set(e);
+                }
+            }
+        });
+        loader.start();
+        Thread.sleep(50);
+        reject.countDown();
+        thread.join();
+        loader.join();
+
+        Assert.assertEquals("OLD", refreshing.get());
+        Assert.assertEquals("NEW", loaded.get());
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals("NEW", cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void testGetAllAfterRefreshRejected() throws Exception {
+        final CountDownLatch executing = new CountDownLatch(1);
+        final CountDownLatch reject = new CountDownLatch(1);
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executing.countDown();
+                try {
+                    reject.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new RejectedExecutionException();
+            }
+        };
+        final LoadingCache<String, String> cache = new LoadingCache<String, String>(100, 200, 1, executor);
+        cache.put("a", "OLD");
+        Thread.sleep(10);
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                cache.get("a", new Function<String, String>() {
+                    @Override
+                    public String apply(String key) {
+                        return "REFRESHED";
+                    }
+                });
+            }
+        });
+        thread.start();
+        executing.await();
+        while (cache.getIfPresent("a") != null) {
+            Thread.sleep(10);
+        }
+
+        final AtomicReference<Object> results = new AtomicReference<Object>();
+        Thread loader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    results.set(cache.getAll(Arrays.asList("a", "b"), new Function<Collection<String>, Map<String, String>>() {
+                        @Override
+                        public Map<String, String> apply(Collection<String> keys) {
+                            Map<String, String> map = new HashMap<String, String>();
+                            for (String key : keys) {
+                                map.put(key, key.toUpperCase());
+                            }
+                            return map;
+                        }
+                    }));
+                } catch (Throwable e) {
+                    results.set(e);
+                }
+            }
+        });
+        loader.start();
+        Thread.sleep(50);
+        reject.countDown();
+        thread.join();
+        loader.join();
+
+        Map<String, String> expected = new HashMap<String, String>();
+        expected.put("a", "A");
+        expected.put("b", "B");
+        Assert.assertEquals(expected, results.get());
+        Assert.assertEquals("A", cache.getIfPresent("a"));
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 单线程 Map 的性能测试，jetbrick.collection 中的实现和对应的 JDK 实现对比 (get/put/mixed 三种负载).
+ *
+ * <pre>
+ * make bench class=jetbrick.collection.MapBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MapState {
+        //@formatter:off
+        @Param({
+            "HashMap",                    // JDK
+            "ListMap",
+            "LinkedHashMap",              // JDK
+            "ListOrderedMap",
+            "TreeMap.CASE_INSENSITIVE",   // JDK
+            "CaseInsensitiveHashMap",
+            "CaseInsensitiveOpenHashMap",
+            "TreeMap",                    // JDK
+            "RadixTreeMap",
+        })
+        public String impl;
+        //@formatter:on
+
+        @Param({ "4", "64", "4096", "1048576" })
+        public int size;
+
+        public Map<String, Object> map;
+        public String[] keys; // 随机顺序，长度为 2 的幂
+        public int index;
+
+        @Setup
+        public void setup() {
+            map = newMap(impl);
+            keys = newKeys(size);
+            for (String key : keys) {
+                map.put(key, key);
+            }
+        }
+
+        public String nextKey() {
+            return keys[index++ & (keys.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public Object get(MapState s) {
+        return s.map.get(s.nextKey());
+    }
+
+    @Benchmark
+    public Object put(MapState s) {
+        String key = s.nextKey();
+        return s.map.put(key, key);
+    }
+
+    @Benchmark
+    public Object mixed(MapState s) {
+        // 75% get, 25% put
+        String key = s.nextKey();
+        if ((s.index & 3) == 0) {
+            return s.map.put(key, key);
+        }
+        return s.map.get(key);
+    }
+
+    // ----------------------------------------------------------------------
+
+    static Map<String, Object> newMap(String impl) {
+        switch (impl) {
+        case "HashMap":
+            return new HashMap<String, Object>();
+        case "ListMap":
+            return new ListMap<String, Object>();
+        case "LinkedHashMap":
+            return new LinkedHashMap<String, Object>();
+        case "ListOrderedMap":
+            return new ListOrderedMap<String, Object>();
+        case "TreeMap.CASE_INSENSITIVE":
+            return new TreeMap<String, Object>(String.CASE_INSENSITIVE_ORDER);
+        case "CaseInsensitiveHashMap":
+            return new CaseInsensitiveHashMap<Object>();
+        case "CaseInsensitiveOpenHashMap":
+            return new CaseInsensitiveOpenHashMap<Object>();
+        case "TreeMap":
+            return new TreeMap<String, Object>();
+        case "RadixTreeMap":
+            return new RadixTreeMap<Object>();
+        default:
+            throw new IllegalArgumentException(impl);
+        }
+    }
+
+    /**
+     * 生成 size 个不同的 key (类似 "user.profile.1234" 这样的层次化名称)，随机顺序.
+     */
+    static String[] newKeys(int size) {
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "module" + (i % 16) + ".Item." + i;
+        }
+        Random random = new Random(42);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+        return keys;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include("^" + MapBenchmark.class.getName() + "\\.").addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MembershipFilterTest {
+
+    @Test
+    public void testBloomFilterFpp() {
+        BloomFilter filter = BloomFilter.create(20000, 0.01);
+        Random random = new Random(1);
+        long[] values = new long[20000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong() & Long.MAX_VALUE;
+        }
+        filter.putAll(values);
+        for (long value : values) {
+            Assert.assertTrue(filter.mightContain(value));
+        }
+        // 不存在的元素 (负数) 的误判率
+        Assert.assertTrue(measureFpp(filter, random) < 0.02);
+        Assert.assertTrue(Math.abs(filter.getApproximateElementCount() - values.length) < values.length / 20);
+    }
+
+    @Test
+    public void testBloomFilterRoundTrip() throws IOException {
+        BloomFilter filter = BloomFilter.create(1000, 0.001);
+        Random random = new Random(2);
+        List<String> strings = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            String s = "s" + random.nextInt();
+            strings.add(s);
+            filter.put(s);
+            filter.put(s.getBytes("UTF-8"));
+        }
+        filter.put(-1L);
+
+        byte[] data = filter.toByteArray();
+        File file = File.createTempFile("bloom", ".bin");
+        try {
+            filter.writeTo(file);
+            for (BloomFilter copy : new BloomFilter[] { BloomFilter.fromByteArray(data), BloomFilter.readFrom(file) }) {
+                Assert.assertArrayEquals(data, copy.toByteArray());
+                Assert.assertEquals(filter.getBitSize(), copy.getBitSize());
+                Assert.assertEquals(filter.getNumHashFunctions(), copy.getNumHashFunctions());
+                Assert.assertEquals(filter.getApproximateElementCount(), copy.getApproximateElementCount());
+                for (String s : strings) {
+                    Assert.assertTrue(copy.mightContain(s));
+                    Assert.assertTrue(copy.mightContain(s.getBytes("UTF-8")));
+                }
+                Assert.assertTrue(copy.mightContain(-1L));
+                for (int i = 0; i < 1000; i++) {
+                    long value = random.nextLong();
+                    Assert.assertEquals(filter.mightContain(value), copy.mightContain(value));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCuckooFilterRandomAgainstMultiset() {
+        CuckooFilter filter = CuckooFilter.create(10000, 0.01);
+        Random random = new Random(3);
+        Map<Long, Integer> oracle = new HashMap<Long, Integer>();
+        List<Long> present = new ArrayList<Long>();
+        long count = 0;
+        for (int i = 0; i < 200000; i++) {
+            if (random.nextInt(2) == 0 && present.size() < 9000) {
+                // 重复插入同一个元素，每个元素最多 2 份
+                long value = present.isEmpty() || random.nextInt(10) > 0 ? random.nextInt(1 << 20) : present.get(random.nextInt(present.size()));
+                Integer n = oracle.get(value);
+                if (n == null || n < 2) {
+                    Assert.assertTrue(filter.put(value));
+                    oracle.put(value, n == null ? 1 : n + 1);
+                    present.add(value);
+                    count++;
+                }
+            } else if (!present.isEmpty()) {
+                int index = random.nextInt(present.size());
+                long value = present.get(index);
+                present.set(index, present.get(present.size() - 1));
+                present.remove(present.size() - 1);
+                Assert.assertTrue(filter.remove(value));
+                int n = oracle.get(value);
+                if (n == 1) {
+                    oracle.remove(value);
+                } else {
+                    oracle.put(value, n - 1);
+                }
+                count--;
+            }
+            Assert.assertEquals(count, filter.size());
+            if (i % 1000 == 0) {
+                for (Long value : oracle.keySet()) {
+                    Assert.assertTrue(filter.mightContain(value));
+                }
+            }
+        }
+        for (Long value : oracle.keySet()) {
+            Assert.assertTrue(filter.mightContain(value));
+        }
+        while (!present.isEmpty()) {
+            Assert.assertTrue(filter.remove(present.remove(present.size() - 1)));
+        }
+        Assert.assertEquals(0, filter.size());
+    }
+
+    @Test
+    public void testCuckooFilterFpp() {
+        CuckooFilter filter = CuckooFilter.create(20000, 0.01);
+        Random random = new Random(4);
+        long[] values = new long[20000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong() & Long.MAX_VALUE;
+        }
+        Assert.assertEquals(values.length, filter.putAll(values));
+        for (long value : values) {
+            Assert.assertTrue(filter.mightContain(value));
+        }
+        Assert.assertTrue(measureFpp(filter, random) < 0.02);
+    }
+
+    @Test
+    public void testCuckooFilterRoundTrip() throws IOException {
+        CuckooFilter filter = CuckooFilter.create(1000, 0.001);
+        Random random = new Random(5);
+        List<String> strings = new ArrayList<String>();
+        // 插入到接近满，让 victim 也参与序列化
+        while (filter.put("s" + strings.size())) {
+            strings.add("s" + strings.size());
+        }
+        String failed = "s" + strings.size();
+
+        byte[] data = filter.toByteArray();
+        File file = File.createTempFile("cuckoo", ".bin");
+        try {
+            filter.writeTo(file);
+            for (CuckooFilter copy : new CuckooFilter[] { CuckooFilter.fromByteArray(data), CuckooFilter.readFrom(file) }) {
+                Assert.assertArrayEquals(data, copy.toByteArray());
+                Assert.assertEquals(filter.size(), copy.size());
+                Assert.assertEquals(filter.getBitsPerTag(), copy.getBitsPerTag());
+                Assert.assertEquals(filter.getBucketCount(), copy.getBucketCount());
+                Assert.assertEquals(filter.mightContain(failed), copy.mightContain(failed));
+                for (String s : strings) {
+                    Assert.assertTrue(copy.mightContain(s));
+                }
+                for (int i = 0; i < 1000; i++) {
+                    long value = random.nextLong();
+                    Assert.assertEquals(filter.mightContain(value), copy.mightContain(value));
+                }
+                // 复制出来的 filter 可以继续修改
+                for (String s : strings) {
+                    Assert.assertTrue(copy.remove(s));
+                }
+                Assert.assertEquals(filter.size() - strings.size(), copy.size());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testInvalidData() {
+        byte[] data = BloomFilter.create(100, 0.01).toByteArray();
+        try {
+            BloomFilter.fromByteArray(new byte[data.length - 1]);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            CuckooFilter.fromByteArray(data);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static double measureFpp(BloomFilter filter, Random random) {
+        int falsePositives = 0;
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            if (filter.mightContain(random.nextLong() | Long.MIN_VALUE)) {
+                falsePositives++;
+            }
+        }
+        return (double) falsePositives / n;
+    }
+
+    private static double measureFpp(CuckooFilter filter, Random random) {
+        int falsePositives = 0;
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            if (filter.mightContain(random.nextLong() | Long.MIN_VALUE)) {
+                falsePositives++;
+            }
+        }
+        return (double) falsePositives / n;
+    }
+}
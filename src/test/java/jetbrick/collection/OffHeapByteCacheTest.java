@@ -0,0 +1,190 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapByteCacheTest {
+
+    @Test
+    public void testPutGet() {
+        OffHeapByteCache<String> cache = new OffHeapByteCache<String>(3000, 1000);
+        Assert.assertTrue(cache.put("a", new byte[] { 1, 2, 3 }));
+        Assert.assertTrue(cache.put("b", ByteBuffer.wrap(new byte[] { 0, 4, 5, 0 }, 1, 2)));
+
+        ByteBuffer slice = cache.get("a");
+        Assert.assertEquals(3, slice.remaining());
+        Assert.assertEquals(2, slice.get(1));
+        Assert.assertArrayEquals(new byte[] { 4, 5 }, cache.getBytes("b"));
+        Assert.assertEquals(5, cache.getUsedBytes());
+
+        Assert.assertTrue(cache.put("a", new byte[] { 9 }));
+        Assert.assertArrayEquals(new byte[] { 9 }, cache.getBytes("a"));
+        Assert.assertEquals(3, cache.getUsedBytes());
+
+        Assert.assertTrue(cache.remove("a"));
+        Assert.assertNull(cache.get("a"));
+        Assert.assertNull(cache.getBytes("a"));
+        Assert.assertEquals(2, cache.getUsedBytes());
+
+        Assert.assertFalse(cache.put("c", new byte[1001]));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testPutTooLargeRemovesOldValue() {
+        OffHeapByteCache<String> cache = new OffHeapByteCache<String>(3000, 1000);
+        Assert.assertTrue(cache.put("a", new byte[] { 1, 2, 3 }));
+        Assert.assertTrue(cache.put("b", new byte[] { 4 }));
+
+        Assert.assertFalse(cache.put("a", new byte[1001]));
+        Assert.assertFalse(cache.containsKey("a"));
+        Assert.assertNull(cache.get("a"));
+        Assert.assertNull(cache.getBytes("a"));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1, cache.getUsedBytes());
+        Assert.assertArrayEquals(new byte[] { 4 }, cache.getBytes("b"));
+    }
+
+    @Test
+    public void testEviction() {
+        OffHeapByteCache<Integer> cache = new OffHeapByteCache<Integer>(3000, 1000);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, value(i, 100));
+            Assert.assertTrue(cache.getUsedBytes() <= cache.getCapacity());
+        }
+        // 没有被访问过的对象按照写入顺序淘汰，保留的是最新写入的对象
+        int oldest = 1000 - cache.size();
+        for (int i = 0; i < 1000; i++) {
+            if (i < oldest) {
+                Assert.assertNull(cache.getBytes(i));
+            } else {
+                Assert.assertArrayEquals(value(i, 100), cache.getBytes(i));
+            }
+        }
+        Assert.assertTrue(cache.size() >= 20);
+        Assert.assertEquals(cache.size() * 100L, cache.getUsedBytes());
+    }
+
+    @Test
+    public void testSecondChance() {
+        OffHeapByteCache<Integer> cache = new OffHeapByteCache<Integer>(3000, 1000);
+        // 每个 segment 保存 10 个对象
+        for (int i = 0; i < 30; i++) {
+            cache.put(i, value(i, 100));
+        }
+        Assert.assertNotNull(cache.getBytes(0));
+
+        // 回收第一个 segment: 访问过的 0 被移动到新的 segment 中，1-9 被淘汰
+        cache.put(30, value(30, 100));
+        Assert.assertTrue(cache.containsKey(0)); // containsKey 不设置引用标记
+        for (int i = 1; i < 10; i++) {
+            Assert.assertFalse(cache.containsKey(i));
+        }
+        Assert.assertTrue(cache.containsKey(10));
+
+        // 移动之后的引用标记被清除，没有再次访问时，下一次回收被淘汰
+        for (int i = 31; i < 70; i++) {
+            cache.put(i, value(i, 100));
+        }
+        Assert.assertFalse(cache.containsKey(0));
+    }
+
+    @Test
+    public void testConcurrentReadWrite() throws Exception {
+        final OffHeapByteCache<Integer> cache = new OffHeapByteCache<Integer>(16 * 1024, 4096);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            final int seed = t;
+            readers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    while (running.get()) {
+                        int key = random.nextInt(200);
+                        byte[] bytes = cache.getBytes(key);
+                        if (bytes != null && !verify(key, bytes)) {
+                            failure.compareAndSet(null, "torn value for key " + key);
+                        }
+                    }
+                }
+            });
+            readers[t].start();
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(200);
+            cache.put(key, value(key + random.nextInt(1000) * 200, 8 + random.nextInt(300)));
+            if (random.nextInt(100) == 0) {
+                cache.remove(random.nextInt(200));
+            }
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        Assert.assertNull(failure.get());
+        Assert.assertTrue(cache.getUsedBytes() <= cache.getCapacity());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClose() {
+        OffHeapByteCache<String> cache = new OffHeapByteCache<String>(3000, 1000);
+        cache.put("a", new byte[] { 1 });
+        cache.close();
+        cache.get("a");
+    }
+
+    // value 的前 4 个字节是 seed，其余的字节由 seed 生成
+    private static byte[] value(int seed, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer.wrap(bytes).putInt(seed);
+        for (int i = 4; i < length; i++) {
+            bytes[i] = (byte) (seed * 31 + i);
+        }
+        return bytes;
+    }
+
+    private static boolean verify(int key, byte[] bytes) {
+        if (bytes.length < 8) {
+            return false;
+        }
+        int seed = ByteBuffer.wrap(bytes).getInt();
+        if (seed % 200 != key) {
+            return false;
+        }
+        for (int i = 4; i < bytes.length; i++) {
+            if (bytes[i] != (byte) (seed * 31 + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
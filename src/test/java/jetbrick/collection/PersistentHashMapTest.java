@@ -0,0 +1,171 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PersistentHashMapTest {
+
+    // hashCode 可以重复的 key，用于测试 hash 冲突
+    static final class Key {
+        final int id;
+        final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).id == id;
+        }
+
+        @Override
+        public String toString() {
+            return id + "#" + hash;
+        }
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        Random random = new Random(7);
+        // 0: 随机 hash，1: 少量 hash 值 (深层的冲突节点)，2: 只有低位不同 (共享前缀的 bitmap 节点)
+        for (int mode = 0; mode < 3; mode++) {
+            PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+            Map<Key, Integer> oracle = new HashMap<Key, Integer>();
+            List<PersistentHashMap<Key, Integer>> versions = new ArrayList<PersistentHashMap<Key, Integer>>();
+            List<Map<Key, Integer>> expectedVersions = new ArrayList<Map<Key, Integer>>();
+
+            for (int i = 0; i < 20000; i++) {
+                Key key = (random.nextInt(50) == 0) ? null : newKey(random, mode);
+                int op = random.nextInt(10);
+                if (op < 6) {
+                    Integer value = random.nextInt(100);
+                    map = map.plus(key, value);
+                    oracle.put(key, value);
+                } else if (op < 9) {
+                    map = map.minus(key);
+                    oracle.remove(key);
+                } else {
+                    Map<Key, Integer> batch = new HashMap<Key, Integer>();
+                    for (int j = random.nextInt(20); j > 0; j--) {
+                        batch.put(newKey(random, mode), random.nextInt(100));
+                    }
+                    map = map.plusAll(batch);
+                    oracle.putAll(batch);
+                }
+
+                Assert.assertEquals(oracle.size(), map.size());
+                Assert.assertEquals(oracle.get(key), map.get(key));
+                Assert.assertEquals(oracle.containsKey(key), map.containsKey(key));
+                if (i % 500 == 0) {
+                    versions.add(map);
+                    expectedVersions.add(new HashMap<Key, Integer>(oracle));
+                }
+            }
+            Assert.assertEquals(oracle, map);
+            Assert.assertEquals(map, oracle);
+            Assert.assertEquals(oracle.hashCode(), map.hashCode());
+
+            // 旧版本不受之后修改的影响
+            for (int i = 0; i < versions.size(); i++) {
+                Assert.assertEquals(expectedVersions.get(i), versions.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testBuilderAgainstHashMap() {
+        Random random = new Random(11);
+        for (int mode = 0; mode < 3; mode++) {
+            PersistentHashMap<Key, Integer> base = PersistentHashMap.empty();
+            for (int i = 0; i < 1000; i++) {
+                base = base.plus(newKey(random, mode), i);
+            }
+            Map<Key, Integer> baseExpected = new HashMap<Key, Integer>(base);
+
+            PersistentHashMap.Builder<Key, Integer> builder = base.toBuilder();
+            Map<Key, Integer> oracle = new HashMap<Key, Integer>(base);
+            PersistentHashMap<Key, Integer> built = null;
+            Map<Key, Integer> builtExpected = null;
+            for (int i = 0; i < 20000; i++) {
+                Key key = newKey(random, mode);
+                if (random.nextInt(3) == 0) {
+                    builder.remove(key);
+                    oracle.remove(key);
+                } else {
+                    builder.put(key, i);
+                    oracle.put(key, i);
+                }
+                Assert.assertEquals(oracle.size(), builder.size());
+                Assert.assertEquals(oracle.get(key), builder.get(key));
+
+                if (i == 10000) {
+                    // build 之后继续使用 builder，不能修改已经创建的 Map
+                    built = builder.build();
+                    builtExpected = new HashMap<Key, Integer>(oracle);
+                }
+            }
+            Assert.assertEquals(oracle, builder.build());
+            Assert.assertEquals(builtExpected, built);
+            Assert.assertEquals(baseExpected, base);
+        }
+    }
+
+    @Test
+    public void testRemoveAllCollidingKeys() {
+        PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 100; i++) {
+            map = map.plus(new Key(i, 42), i);
+        }
+        Assert.assertEquals(100, map.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(Integer.valueOf(i), map.get(new Key(i, 42)));
+            map = map.minus(new Key(i, 42));
+            Assert.assertNull(map.get(new Key(i, 42)));
+        }
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    private static Key newKey(Random random, int mode) {
+        int id = random.nextInt(2000);
+        switch (mode) {
+        case 0:
+            return new Key(id, id * 0x9E3779B9);
+        case 1:
+            return new Key(id, id % 5);
+        default:
+            return new Key(id, (id % 8) << 27);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import jetbrick.config.Config;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RadixTreeMapTest {
+
+    @Test
+    public void testRandomAgainstTreeMap() {
+        Random random = new Random(1);
+        RadixTreeMap<Integer> map = new RadixTreeMap<Integer>();
+        TreeMap<String, Integer> oracle = new TreeMap<String, Integer>();
+        for (int i = 0; i < 100000; i++) {
+            String key = newKey(random);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                Integer value = random.nextInt(10) == 0 ? null : random.nextInt(100);
+                Assert.assertEquals(oracle.put(key, value), map.put(key, value));
+            } else if (op < 9) {
+                Assert.assertEquals(oracle.remove(key), map.remove(key));
+            } else if (random.nextInt(500) == 0) {
+                map.clear();
+                oracle.clear();
+            }
+            Assert.assertEquals(oracle.size(), map.size());
+            Assert.assertEquals(oracle.containsKey(key), map.containsKey(key));
+            Assert.assertEquals(oracle.get(key), map.get(key));
+
+            if (i % 100 == 0) {
+                // 每次 put 拆分 edge，remove 合并 edge 之后，迭代顺序依然和 TreeMap 一致
+                Assert.assertEquals(new ArrayList<Map.Entry<String, Integer>>(oracle.entrySet()), new ArrayList<Map.Entry<String, Integer>>(map.entrySet()));
+                String prefix = newKey(random);
+                Assert.assertEquals(subMap(oracle, prefix), toTreeMap(map.prefixMap(prefix)));
+                Assert.assertEquals(new ArrayList<String>(subMap(oracle, prefix).keySet()), new ArrayList<String>(map.prefixMap(prefix).keySet()));
+                String input = newKey(random) + newKey(random);
+                Assert.assertEquals(longestPrefixOf(oracle, input), map.longestPrefixOf(input));
+            }
+        }
+        Assert.assertEquals(oracle, map);
+    }
+
+    @Test
+    public void testPrefixMapView() {
+        Random random = new Random(2);
+        RadixTreeMap<Integer> map = new RadixTreeMap<Integer>();
+        TreeMap<String, Integer> oracle = new TreeMap<String, Integer>();
+        for (int i = 0; i < 20000; i++) {
+            String prefix = newKey(random);
+            Map<String, Integer> view = map.prefixMap(prefix);
+            String key = prefix + newKey(random);
+            switch (random.nextInt(4)) {
+            case 0:
+                Assert.assertEquals(oracle.put(key, i), view.put(key, i));
+                break;
+            case 1:
+                Assert.assertEquals(oracle.remove(key), view.remove(key));
+                break;
+            case 2:
+                // 通过迭代器删除和修改 value
+                Iterator<Map.Entry<String, Integer>> it = view.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, Integer> entry = it.next();
+                    if (random.nextInt(3) == 0) {
+                        it.remove();
+                        oracle.remove(entry.getKey());
+                    } else if (random.nextInt(3) == 0) {
+                        entry.setValue(-i);
+                        oracle.put(entry.getKey(), -i);
+                    }
+                }
+                break;
+            default:
+                String other = newKey(random) + "~";
+                if (!other.startsWith(prefix)) {
+                    Assert.assertNull(view.get(other));
+                    try {
+                        view.put(other, i);
+                        Assert.fail();
+                    } catch (IllegalArgumentException e) {
+                        // expected
+                    }
+                }
+            }
+            Map<String, Integer> expected = subMap(oracle, prefix);
+            Assert.assertEquals(expected.size(), view.size());
+            Assert.assertEquals(expected.isEmpty(), view.isEmpty());
+            Assert.assertEquals(expected, toTreeMap(view));
+            Assert.assertEquals(oracle.size(), map.size());
+        }
+        Assert.assertEquals(oracle, map);
+    }
+
+    @Test
+    public void testLongestPrefixOf() {
+        RadixTreeMap<String> map = new RadixTreeMap<String>();
+        Assert.assertNull(map.longestPrefixOf("/api/users"));
+        map.put("/", "root");
+        map.put("/api/", "api");
+        map.put("/api/users/", "users");
+        Assert.assertEquals("api", map.longestPrefixOf("/api/users").getValue());
+        Assert.assertEquals("/api/", map.longestPrefixOf("/api/users").getKey());
+        Assert.assertEquals("root", map.longestPrefixOf("/apx").getValue());
+        map.put("", "empty");
+        Assert.assertEquals("empty", map.longestPrefixOf("x").getValue());
+    }
+
+    @Test
+    public void testConfigKeySet() {
+        Random random = new Random(3);
+        Properties props = new Properties();
+        for (int i = 0; i < 500; i++) {
+            props.setProperty(newKey(random), String.valueOf(i));
+        }
+        Config config = new Config(props);
+        Assert.assertEquals(props.stringPropertyNames(), config.keySet());
+        for (int i = 0; i < 200; i++) {
+            String prefix = newKey(random);
+            Set<String> expected = new LinkedHashSet<String>();
+            for (String key : props.stringPropertyNames()) {
+                if (key.startsWith(prefix)) {
+                    expected.add(key);
+                }
+            }
+            Assert.assertEquals(expected, config.keySet(prefix));
+        }
+    }
+
+    // 很小的字母表，保证 key 之间有大量的公共前缀，包括空字符串
+    private static String newKey(Random random) {
+        int length = random.nextInt(7);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append("ab./".charAt(random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, Integer> subMap(TreeMap<String, Integer> oracle, String prefix) {
+        TreeMap<String, Integer> result = new TreeMap<String, Integer>();
+        for (Map.Entry<String, Integer> entry : oracle.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private static TreeMap<String, Integer> toTreeMap(Map<String, Integer> map) {
+        TreeMap<String, Integer> result = new TreeMap<String, Integer>();
+        List<String> keys = new ArrayList<String>();
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            keys.add(entry.getKey());
+            result.put(entry.getKey(), entry.getValue());
+        }
+        Assert.assertEquals(new ArrayList<String>(result.keySet()), keys);
+        return result;
+    }
+
+    private static Map.Entry<String, Integer> longestPrefixOf(TreeMap<String, Integer> oracle, String input) {
+        for (int i = input.length(); i >= 0; i--) {
+            String key = input.substring(0, i);
+            if (oracle.containsKey(key)) {
+                return new AbstractMap.SimpleEntry<String, Integer>(key, oracle.get(key));
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimedSizeCacheTest {
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    static final class FakeClock implements LongSupplier {
+        volatile long time = 1000000000L;
+
+        @Override
+        public long getAsLong() {
+            return time;
+        }
+    }
+
+    static final class RecordingListener implements RemovalListener<String, String> {
+        final List<String> removed = new ArrayList<String>();
+
+        @Override
+        public synchronized void onRemoval(String key, String value, RemovalCause cause) {
+            removed.add(key + ":" + cause);
+        }
+    }
+
+    @Test
+    public void testExpire() {
+        FakeClock clock = new FakeClock();
+        TimedSizeCache<String, String> cache = new TimedSizeCache<String, String>(0, clock);
+        cache.put("a", "1", 500);
+        cache.put("b", "2");
+
+        clock.time += 400;
+        Assert.assertEquals("1", cache.get("a"));
+        clock.time += 200;
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals("2", cache.get("b"));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testExpireCascade() {
+        FakeClock clock = new FakeClock();
+        TimedSizeCache<String, String> cache = new TimedSizeCache<String, String>(0, clock);
+        RecordingListener listener = new RecordingListener();
+        cache.setRemovalListener(listener);
+
+        // 分别落在时间轮的每一层，只由 prune() 推进时间轮，不通过 get() 触发过期
+        long[] timeouts = { 800, 30 * 1000, 20 * MINUTE, 5 * HOUR, 3 * 24 * HOUR, 20 * 24 * HOUR };
+        long start = clock.time;
+        for (int i = 0; i < timeouts.length; i++) {
+            cache.put("k" + i, "v" + i, timeouts[i]);
+        }
+
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < timeouts.length; i++) {
+            // 到期之前推进时间，不会过期
+            advanceTo(cache, clock, start + timeouts[i] - 1);
+            Assert.assertEquals(expected, listener.removed);
+            Assert.assertEquals(timeouts.length - i, cache.size());
+
+            // 到期之后，最迟在下一个最小 tick (约 1 秒) 内过期
+            advanceTo(cache, clock, start + timeouts[i] + 2048);
+            expected.add("k" + i + ":" + RemovalCause.EXPIRED);
+            Assert.assertEquals(expected, listener.removed);
+            Assert.assertEquals(timeouts.length - i - 1, cache.size());
+        }
+        Assert.assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testExpireLargeJump() {
+        FakeClock clock = new FakeClock();
+        TimedSizeCache<String, String> cache = new TimedSizeCache<String, String>(0, clock);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("k" + i, "v" + i, (i + 1) * 10 * MINUTE);
+        }
+        // 一次跨越多个层级
+        clock.time += 500 * 10 * MINUTE + 1;
+        cache.prune();
+        Assert.assertEquals(500, cache.size());
+        Assert.assertNull(cache.get("k499"));
+        Assert.assertEquals("v500", cache.get("k500"));
+    }
+
+    @Test
+    public void testRescheduleOnPut() {
+        FakeClock clock = new FakeClock();
+        TimedSizeCache<String, String> cache = new TimedSizeCache<String, String>(0, clock);
+        RecordingListener listener = new RecordingListener();
+        cache.setRemovalListener(listener);
+
+        cache.put("a", "1", 5000);
+        clock.time += 4000;
+        cache.put("a", "2", 5000);
+
+        // 原来的超时时间已过，但是新的值不能被旧的 timer 删除
+        advanceTo(cache, clock, clock.time + 3000);
+        Assert.assertEquals("2", cache.get("a"));
+
+        advanceTo(cache, clock, clock.time + 4000);
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(2, listener.removed.size());
+        Assert.assertEquals("a:" + RemovalCause.REPLACED, listener.removed.get(0));
+        Assert.assertEquals("a:" + RemovalCause.EXPIRED, listener.removed.get(1));
+    }
+
+    @Test
+    public void testRemoveDeschedules() {
+        FakeClock clock = new FakeClock();
+        TimedSizeCache<String, String> cache = new TimedSizeCache<String, String>(0, clock);
+        RecordingListener listener = new RecordingListener();
+        cache.setRemovalListener(listener);
+
+        cache.put("a", "1", 1000);
+        Assert.assertEquals("1", cache.remove("a"));
+        cache.put("a", "2");
+        advanceTo(cache, clock, clock.time + 10000);
+        Assert.assertEquals("2", cache.get("a"));
+        Assert.assertEquals(1, listener.removed.size());
+    }
+
+    @Test
+    public void testLruEvictionOrder() {
+        TimedSizeCache<String, String> cache = new TimedSizeCache<String, String>(3);
+        RecordingListener listener = new RecordingListener();
+        cache.setRemovalListener(listener);
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        Assert.assertEquals("1", cache.get("a")); // a 变为最近访问
+        cache.put("d", "4");
+        Assert.assertNull(cache.get("b"));
+
+        Assert.assertEquals("3", cache.get("c"));
+        cache.put("e", "5"); // 淘汰 a (c 在 a 之后被访问)
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals("3", cache.get("c"));
+        Assert.assertEquals("4", cache.get("d"));
+        Assert.assertEquals("5", cache.get("e"));
+        Assert.assertEquals(3, cache.size());
+
+        List<String> expected = new ArrayList<String>();
+        expected.add("b:" + RemovalCause.SIZE);
+        expected.add("a:" + RemovalCause.SIZE);
+        Assert.assertEquals(expected, listener.removed);
+    }
+
+    @Test
+    public void testReadBufferDrain() {
+        // 读操作只记录在 ReadBuffer 中，写操作之前必须先应用，否则淘汰的是刚刚读过的对象
+        int maxSize = 100;
+        TimedSizeCache<Integer, Integer> cache = new TimedSizeCache<Integer, Integer>(maxSize);
+        for (int i = 0; i < maxSize; i++) {
+            cache.put(i, i);
+        }
+        // 访问前一半，次数超过 buffer 的容量，会触发读线程自己 drain
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < maxSize / 2; i++) {
+                Assert.assertEquals(Integer.valueOf(i), cache.get(i));
+            }
+        }
+        for (int i = 0; i < maxSize / 2; i++) {
+            cache.put(maxSize + i, i);
+        }
+        for (int i = 0; i < maxSize / 2; i++) {
+            Assert.assertEquals(Integer.valueOf(i), cache.get(i));
+            Assert.assertNull(cache.get(maxSize / 2 + i));
+        }
+    }
+
+    @Test
+    public void testConcurrentSizeBound() throws Exception {
+        final int maxSize = 500;
+        final int threadCount = 8;
+        final TimedSizeCache<Integer, Integer> cache = new TimedSizeCache<Integer, Integer>(maxSize);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    try {
+                        start.await();
+                        for (int i = 0; i < 50000; i++) {
+                            int key = random.nextInt(5000);
+                            if (random.nextBoolean()) {
+                                cache.put(key, key);
+                            } else {
+                                Integer value = cache.get(key);
+                                if (value != null && value.intValue() != key) {
+                                    failure.compareAndSet(null, "wrong value for key " + key);
+                                }
+                            }
+                            // 每个写线程最多有一个对象还没有被淘汰
+                            if (cache.size() > maxSize + threadCount) {
+                                failure.compareAndSet(null, "size exceeds bound: " + cache.size());
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertNull(failure.get());
+        Assert.assertTrue(cache.size() <= maxSize);
+        cache.put(-1, -1); // 静止之后的写操作会完成所有的淘汰
+        Assert.assertEquals(maxSize, cache.size());
+    }
+
+    // 以不超过 1 分钟的步长推进时钟
+    private static void advanceTo(TimedSizeCache<?, ?> cache, FakeClock clock, long time) {
+        while (clock.time < time) {
+            clock.time = Math.min(time, clock.time + MINUTE);
+            cache.prune();
+        }
+    }
+}
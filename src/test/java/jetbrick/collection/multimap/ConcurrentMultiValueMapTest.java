@@ -0,0 +1,118 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection.multimap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentMultiValueMapTest {
+
+    @Test
+    public void testAddAndMerge() {
+        ConcurrentMultiValueMap<String, Integer> map = new ConcurrentMultiValueMap<String, Integer>();
+        map.add("a", 1);
+        map.add("a", 2);
+        map.add("b", 3);
+
+        MultiValueHashMap<String, Integer> other = new MultiValueHashMap<String, Integer>();
+        other.put("a", 4);
+        other.put("c", 5);
+        map.merge(other);
+
+        Assert.assertEquals(5, map.size());
+        Assert.assertEquals(Arrays.asList(1, 2, 4), map.getList("a"));
+        Assert.assertEquals(Integer.valueOf(1), map.remove("a"));
+        Assert.assertEquals(2, map.size());
+        Assert.assertNull(map.getList("a"));
+    }
+
+    @Test
+    public void testConcurrentAddAndRemove() throws Exception {
+        final ConcurrentMultiValueMap<Integer, Integer> map = new ConcurrentMultiValueMap<Integer, Integer>();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> adders = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            final int seed = t;
+            adders.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 200000; i++) {
+                            if ((i & 63) == 0) {
+                                MultiValueHashMap<Integer, Integer> part = new MultiValueHashMap<Integer, Integer>();
+                                part.put(random.nextInt(8), i);
+                                part.put(random.nextInt(8), i);
+                                map.merge(part);
+                            } else {
+                                map.add(random.nextInt(8), i);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+        Thread remover = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random(99);
+                while (!done.get()) {
+                    map.remove(random.nextInt(8));
+                }
+            }
+        });
+
+        for (Thread thread : adders) {
+            thread.start();
+        }
+        remover.start();
+        start.countDown();
+        for (Thread thread : adders) {
+            thread.join();
+        }
+        done.set(true);
+        remover.join();
+        Assert.assertNull(error.get());
+
+        // size 必须和实际保存的 values 一致
+        int count = 0;
+        for (List<Integer> values : map.valuesList()) {
+            count += values.size();
+        }
+        Assert.assertEquals(count, map.size());
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertEquals(0, map.size());
+    }
+}
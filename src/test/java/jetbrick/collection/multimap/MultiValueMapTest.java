@@ -0,0 +1,140 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection.multimap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultiValueMapTest {
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        verifyRandom(new MultiValueHashMap<Integer, String>(), new HashMap<Integer, List<String>>(), 1);
+    }
+
+    @Test
+    public void testRandomAgainstLinkedHashMap() {
+        MultiValueLinkedHashMap<Integer, String> map = new MultiValueLinkedHashMap<Integer, String>();
+        Map<Integer, List<String>> oracle = new LinkedHashMap<Integer, List<String>>();
+        verifyRandom(map, oracle, 2);
+        Assert.assertEquals(new ArrayList<Integer>(oracle.keySet()), new ArrayList<Integer>(map.keySet()));
+        Assert.assertEquals(new ArrayList<List<String>>(oracle.values()), new ArrayList<List<String>>(map.valuesList()));
+    }
+
+    @Test
+    public void testSingleValueToList() {
+        MultiValueHashMap<String, String> map = new MultiValueHashMap<String, String>();
+        map.put("a", null);
+        Assert.assertTrue(map.containsKey("a"));
+        Assert.assertTrue(map.containsValue("a", null));
+        Assert.assertEquals(1, map.getList("a").size());
+        map.put("a", "x");
+        Assert.assertEquals(2, map.size());
+        Assert.assertNull(map.get("a"));
+        Assert.assertEquals("x", map.getList("a").get(1));
+        Assert.assertNull(map.remove("a"));
+        Assert.assertEquals(0, map.size());
+    }
+
+    // value 的总数、每个 key 的 List 以及各种视图都和 oracle 保持一致
+    private static void verifyRandom(MultiValueMap<Integer, String> map, Map<Integer, List<String>> oracle, long seed) {
+        Random random = new Random(seed);
+        int total = 0;
+        for (int i = 0; i < 50000; i++) {
+            Integer key = random.nextInt(64);
+            String value = random.nextInt(20) == 0 ? null : "v" + random.nextInt(8);
+            int op = random.nextInt(20);
+            if (op < 10) {
+                map.put(key, value);
+                List<String> values = oracle.get(key);
+                if (values == null) {
+                    values = new ArrayList<String>();
+                    oracle.put(key, values);
+                }
+                values.add(value);
+                total++;
+            } else if (op < 14) {
+                List<String> values = oracle.remove(key);
+                Assert.assertEquals(values == null ? null : values.get(0), map.remove(key));
+                total -= values == null ? 0 : values.size();
+            } else if (op < 16) {
+                Map<Integer, String> other = new HashMap<Integer, String>();
+                other.put(key, value);
+                other.put(key + 1, value);
+                map.putAll(other);
+                for (Map.Entry<Integer, String> entry : other.entrySet()) {
+                    List<String> values = oracle.get(entry.getKey());
+                    if (values == null) {
+                        values = new ArrayList<String>();
+                        oracle.put(entry.getKey(), values);
+                    }
+                    values.add(entry.getValue());
+                    total++;
+                }
+            } else if (op < 17) {
+                // 通过 keySet 的 iterator 删除
+                Iterator<Integer> it = map.keySet().iterator();
+                while (it.hasNext()) {
+                    Integer k = it.next();
+                    if (k.intValue() % 7 == key.intValue() % 7) {
+                        it.remove();
+                        total -= oracle.remove(k).size();
+                    }
+                }
+            } else if (op < 18 && random.nextInt(50) == 0) {
+                map.clear();
+                oracle.clear();
+                total = 0;
+            }
+
+            Assert.assertEquals(total, map.size());
+            Assert.assertEquals(oracle.isEmpty(), map.isEmpty());
+            Assert.assertEquals(oracle.containsKey(key), map.containsKey(key));
+            List<String> values = oracle.get(key);
+            Assert.assertEquals(values, map.getList(key));
+            Assert.assertEquals(values == null ? null : values.get(0), map.get(key));
+            Assert.assertEquals(values != null && values.contains(value), map.containsValue(key, value));
+        }
+
+        Assert.assertEquals(oracle.size(), map.keySet().size());
+        Assert.assertEquals(total, map.values().size());
+        Assert.assertEquals(total, map.entrySet().size());
+        Assert.assertEquals(oracle.size(), map.multiEntrySet().size());
+        for (Map.Entry<Integer, List<String>> entry : map.multiEntrySet()) {
+            Assert.assertEquals(oracle.get(entry.getKey()), entry.getValue());
+        }
+        for (String value : new String[] { null, "v0", "v7", "x" }) {
+            boolean expected = false;
+            for (List<String> values : oracle.values()) {
+                expected |= values.contains(value);
+            }
+            Assert.assertEquals(expected, map.containsValue(value));
+        }
+        Assert.assertTrue(map.equals(oracle));
+        Assert.assertEquals(oracle.hashCode(), map.hashCode());
+    }
+}
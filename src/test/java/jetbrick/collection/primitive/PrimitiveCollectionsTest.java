@@ -0,0 +1,422 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.collection.primitive;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.Stack;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 使用 JDK 的集合作为 oracle，对 primitive 集合进行随机测试.
+ * key 的范围很小并且包含 0 (单独保存) 和负数，保证出现大量的探测冲突和 backward-shift 删除.
+ */
+public class PrimitiveCollectionsTest {
+    private static final int OPERATIONS = 100000;
+
+    @Test
+    public void testIntIntMap() {
+        Random random = new Random(1);
+        IntIntMap map = new IntIntMap(4);
+        Map<Integer, Integer> oracle = new HashMap<Integer, Integer>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int key = newIntKey(random, i);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                int value = random.nextInt();
+                map.put(key, value);
+                oracle.put(key, value);
+            } else if (op < 6) {
+                int delta = random.nextInt(10);
+                Integer old = oracle.get(key);
+                oracle.put(key, (old == null ? 0 : old) + delta);
+                Assert.assertEquals(oracle.get(key).intValue(), map.addTo(key, delta));
+            } else if (op < 9) {
+                Assert.assertEquals(oracle.remove(key) != null, map.remove(key));
+            } else if (random.nextInt(100) == 0) {
+                map.clear();
+                oracle.clear();
+            }
+            Assert.assertEquals(oracle.size(), map.size());
+            Assert.assertEquals(oracle.containsKey(key), map.containsKey(key));
+            Assert.assertEquals(oracle.containsKey(key) ? oracle.get(key) : -1, map.get(key, -1));
+        }
+
+        final Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+        map.forEach(new IntIntMap.EntryConsumer() {
+            @Override
+            public void accept(int key, int value) {
+                entries.put(key, value);
+            }
+        });
+        Assert.assertEquals(oracle, entries);
+        Assert.assertEquals(oracle.keySet(), toSet(map.keys()));
+    }
+
+    @Test
+    public void testLongLongMap() {
+        Random random = new Random(2);
+        LongLongMap map = new LongLongMap(4);
+        Map<Long, Long> oracle = new HashMap<Long, Long>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long key = newLongKey(random, i);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                long value = random.nextLong();
+                map.put(key, value);
+                oracle.put(key, value);
+            } else if (op < 6) {
+                long delta = random.nextInt(10);
+                Long old = oracle.get(key);
+                oracle.put(key, (old == null ? 0 : old) + delta);
+                Assert.assertEquals(oracle.get(key).longValue(), map.addTo(key, delta));
+            } else if (op < 9) {
+                Assert.assertEquals(oracle.remove(key) != null, map.remove(key));
+            } else if (random.nextInt(100) == 0) {
+                map.clear();
+                oracle.clear();
+            }
+            Assert.assertEquals(oracle.size(), map.size());
+            Assert.assertEquals(oracle.containsKey(key), map.containsKey(key));
+            Assert.assertEquals(oracle.containsKey(key) ? oracle.get(key) : -1L, map.get(key, -1L));
+        }
+
+        final Map<Long, Long> entries = new HashMap<Long, Long>();
+        map.forEach(new LongLongMap.EntryConsumer() {
+            @Override
+            public void accept(long key, long value) {
+                entries.put(key, value);
+            }
+        });
+        Assert.assertEquals(oracle, entries);
+        Assert.assertEquals(oracle.keySet(), toSet(map.keys()));
+    }
+
+    @Test
+    public void testIntObjectMap() {
+        Random random = new Random(3);
+        IntObjectMap<String> map = new IntObjectMap<String>(4);
+        Map<Integer, String> oracle = new HashMap<Integer, String>();
+        IntFunction<String> function = new IntFunction<String>() {
+            @Override
+            public String apply(int key) {
+                return "c" + key;
+            }
+        };
+        for (int i = 0; i < OPERATIONS; i++) {
+            int key = newIntKey(random, i);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                String value = "v" + random.nextInt(100);
+                Assert.assertEquals(oracle.put(key, value), map.put(key, value));
+            } else if (op < 5) {
+                if (!oracle.containsKey(key)) {
+                    oracle.put(key, "c" + key);
+                }
+                Assert.assertEquals(oracle.get(key), map.computeIfAbsent(key, function));
+            } else if (op < 9) {
+                Assert.assertEquals(oracle.remove(key), map.remove(key));
+            } else if (random.nextInt(100) == 0) {
+                map.clear();
+                oracle.clear();
+            }
+            Assert.assertEquals(oracle.size(), map.size());
+            Assert.assertEquals(oracle.containsKey(key), map.containsKey(key));
+            Assert.assertEquals(oracle.get(key), map.get(key));
+            Assert.assertEquals(oracle.containsKey(key) ? oracle.get(key) : "-", map.getOrDefault(key, "-"));
+        }
+
+        final Map<Integer, String> entries = new HashMap<Integer, String>();
+        map.forEach(new IntObjectMap.EntryConsumer<String>() {
+            @Override
+            public void accept(int key, String value) {
+                entries.put(key, value);
+            }
+        });
+        Assert.assertEquals(oracle, entries);
+        Assert.assertEquals(oracle.keySet(), toSet(map.keys()));
+    }
+
+    @Test
+    public void testLongObjectMap() {
+        Random random = new Random(4);
+        LongObjectMap<String> map = new LongObjectMap<String>(4);
+        Map<Long, String> oracle = new HashMap<Long, String>();
+        LongFunction<String> function = new LongFunction<String>() {
+            @Override
+            public String apply(long key) {
+                return "c" + key;
+            }
+        };
+        for (int i = 0; i < OPERATIONS; i++) {
+            long key = newLongKey(random, i);
+            int op = random.nextInt(10);
+            if (op < 4) {
+                String value = "v" + random.nextInt(100);
+                Assert.assertEquals(oracle.put(key, value), map.put(key, value));
+            } else if (op < 5) {
+                if (!oracle.containsKey(key)) {
+                    oracle.put(key, "c" + key);
+                }
+                Assert.assertEquals(oracle.get(key), map.computeIfAbsent(key, function));
+            } else if (op < 9) {
+                Assert.assertEquals(oracle.remove(key), map.remove(key));
+            } else if (random.nextInt(100) == 0) {
+                map.clear();
+                oracle.clear();
+            }
+            Assert.assertEquals(oracle.size(), map.size());
+            Assert.assertEquals(oracle.containsKey(key), map.containsKey(key));
+            Assert.assertEquals(oracle.get(key), map.get(key));
+            Assert.assertEquals(oracle.containsKey(key) ? oracle.get(key) : "-", map.getOrDefault(key, "-"));
+        }
+
+        final Map<Long, String> entries = new HashMap<Long, String>();
+        map.forEach(new LongObjectMap.EntryConsumer<String>() {
+            @Override
+            public void accept(long key, String value) {
+                entries.put(key, value);
+            }
+        });
+        Assert.assertEquals(oracle, entries);
+        Assert.assertEquals(oracle.keySet(), toSet(map.keys()));
+    }
+
+    @Test
+    public void testIntHashSet() {
+        Random random = new Random(5);
+        IntHashSet set = new IntHashSet(4);
+        Set<Integer> oracle = new HashSet<Integer>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int e = newIntKey(random, i);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                Assert.assertEquals(oracle.add(e), set.add(e));
+            } else if (op < 9) {
+                Assert.assertEquals(oracle.remove(e), set.remove(e));
+            } else if (random.nextInt(100) == 0) {
+                set.clear();
+                oracle.clear();
+            }
+            Assert.assertEquals(oracle.size(), set.size());
+            Assert.assertEquals(oracle.contains(e), set.contains(e));
+        }
+
+        final Set<Integer> elements = new HashSet<Integer>();
+        set.forEach(new IntConsumer() {
+            @Override
+            public void accept(int e) {
+                elements.add(e);
+            }
+        });
+        Assert.assertEquals(oracle, elements);
+        Assert.assertEquals(oracle, toSet(set.toArray()));
+    }
+
+    @Test
+    public void testLongHashSet() {
+        Random random = new Random(6);
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> oracle = new HashSet<Long>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long e = newLongKey(random, i);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                Assert.assertEquals(oracle.add(e), set.add(e));
+            } else if (op < 9) {
+                Assert.assertEquals(oracle.remove(e), set.remove(e));
+            } else if (random.nextInt(100) == 0) {
+                set.clear();
+                oracle.clear();
+            }
+            Assert.assertEquals(oracle.size(), set.size());
+            Assert.assertEquals(oracle.contains(e), set.contains(e));
+        }
+
+        final Set<Long> elements = new HashSet<Long>();
+        set.forEach(new LongConsumer() {
+            @Override
+            public void accept(long e) {
+                elements.add(e);
+            }
+        });
+        Assert.assertEquals(oracle, elements);
+        Assert.assertEquals(oracle, toSet(set.toArray()));
+    }
+
+    @Test
+    public void testIntArrayList() {
+        Random random = new Random(7);
+        IntArrayList list = new IntArrayList(0);
+        List<Integer> oracle = new ArrayList<Integer>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int e = random.nextInt(100) - 50;
+            int op = random.nextInt(10);
+            if (op < 3) {
+                list.add(e);
+                oracle.add(e);
+            } else if (op < 5) {
+                int index = random.nextInt(oracle.size() + 1);
+                list.add(index, e);
+                oracle.add(index, e);
+            } else if (op < 6 && !oracle.isEmpty()) {
+                int index = random.nextInt(oracle.size());
+                Assert.assertEquals(oracle.set(index, e).intValue(), list.set(index, e));
+            } else if (op < 9 && !oracle.isEmpty()) {
+                int index = random.nextInt(oracle.size());
+                Assert.assertEquals(oracle.remove(index).intValue(), list.removeAt(index));
+            } else if (op == 9 && random.nextInt(20) == 0) {
+                int[] array = { e, e + 1, e + 2 };
+                list.addAll(array);
+                oracle.add(e);
+                oracle.add(e + 1);
+                oracle.add(e + 2);
+            }
+            Assert.assertEquals(oracle.size(), list.size());
+            Assert.assertEquals(oracle.indexOf(e), list.indexOf(e));
+            Assert.assertEquals(oracle.contains(e), list.contains(e));
+        }
+        Assert.assertEquals(oracle, toList(list.toArray()));
+
+        Collections.sort(oracle);
+        list.sort();
+        Assert.assertEquals(oracle, toList(list.toArray()));
+    }
+
+    @Test
+    public void testLongArrayList() {
+        Random random = new Random(8);
+        LongArrayList list = new LongArrayList(0);
+        List<Long> oracle = new ArrayList<Long>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long e = random.nextInt(100) - 50;
+            int op = random.nextInt(10);
+            if (op < 3) {
+                list.add(e);
+                oracle.add(e);
+            } else if (op < 5) {
+                int index = random.nextInt(oracle.size() + 1);
+                list.add(index, e);
+                oracle.add(index, e);
+            } else if (op < 6 && !oracle.isEmpty()) {
+                int index = random.nextInt(oracle.size());
+                Assert.assertEquals(oracle.set(index, e).longValue(), list.set(index, e));
+            } else if (op < 9 && !oracle.isEmpty()) {
+                int index = random.nextInt(oracle.size());
+                Assert.assertEquals(oracle.remove(index).longValue(), list.removeAt(index));
+            }
+            Assert.assertEquals(oracle.size(), list.size());
+            Assert.assertEquals(oracle.indexOf(e), list.indexOf(e));
+            Assert.assertEquals(oracle.contains(e), list.contains(e));
+        }
+        long[] expected = new long[oracle.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = oracle.get(i);
+        }
+        Assert.assertArrayEquals(expected, list.toArray());
+    }
+
+    @Test
+    public void testIntArrayStack() {
+        Random random = new Random(9);
+        IntArrayStack stack = new IntArrayStack(0);
+        Stack<Integer> oracle = new Stack<Integer>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int op = random.nextInt(10);
+            if (op < 5) {
+                int e = random.nextInt();
+                Assert.assertEquals(oracle.push(e).intValue(), stack.push(e));
+            } else if (op < 9 && !oracle.isEmpty()) {
+                Assert.assertEquals(oracle.pop().intValue(), stack.pop());
+            } else if (random.nextInt(100) == 0) {
+                stack.clear();
+                oracle.clear();
+            }
+            Assert.assertEquals(oracle.size(), stack.size());
+            Assert.assertEquals(oracle.empty(), stack.empty());
+            if (!oracle.isEmpty()) {
+                Assert.assertEquals(oracle.peek().intValue(), stack.peek());
+                int offset = random.nextInt(oracle.size());
+                Assert.assertEquals(oracle.get(oracle.size() - offset - 1).intValue(), stack.peek(offset));
+            }
+        }
+    }
+
+    // key 的范围随时间变化，表的大小会反复增长；包含 0、负数和极值
+    private static int newIntKey(Random random, int i) {
+        int range = 8 + (i / 5000 % 8) * 64;
+        switch (random.nextInt(50)) {
+        case 0:
+            return Integer.MIN_VALUE;
+        case 1:
+            return Integer.MAX_VALUE;
+        default:
+            return random.nextInt(range) - range / 2;
+        }
+    }
+
+    private static long newLongKey(Random random, int i) {
+        int range = 8 + (i / 5000 % 8) * 64;
+        switch (random.nextInt(50)) {
+        case 0:
+            return Long.MIN_VALUE;
+        case 1:
+            return Long.MAX_VALUE;
+        default:
+            // 高 32 位不同、低 32 位相同的 key
+            return ((long) (random.nextInt(range) - range / 2) << 32) | (random.nextInt(4));
+        }
+    }
+
+    private static Set<Integer> toSet(int[] array) {
+        Set<Integer> set = new HashSet<Integer>();
+        for (int e : array) {
+            Assert.assertTrue("duplicate element: " + e, set.add(e));
+        }
+        return set;
+    }
+
+    private static Set<Long> toSet(long[] array) {
+        Set<Long> set = new HashSet<Long>();
+        for (long e : array) {
+            Assert.assertTrue("duplicate element: " + e, set.add(e));
+        }
+        return set;
+    }
+
+    private static List<Integer> toList(int[] array) {
+        List<Integer> list = new ArrayList<Integer>(array.length);
+        for (int e : array) {
+            list.add(e);
+        }
+        return list;
+    }
+}
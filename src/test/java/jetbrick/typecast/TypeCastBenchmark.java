@@ -0,0 +1,219 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.typecast;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * TypeCastUtils 的性能测试 (ops/s, 以及 GC profiler 的 gc.alloc.rate.norm 即 bytes/op).
+ *
+ * <pre>
+ * make bench class=jetbrick.typecast.TypeCastBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeCastBenchmark {
+    public static List<Integer> integerList;
+
+    // -------- string -> number ---------------------------------------------
+
+    @State(Scope.Benchmark)
+    public static class NumberState {
+        public String intValue = "123456";
+        public String longValue = "1234567890123";
+        public String doubleValue = "12345.6789";
+        public String decimalValue = "12345.678901234567890";
+        public String badValue = "12x45";
+    }
+
+    @Benchmark
+    public Integer stringToInteger(NumberState s) {
+        return TypeCastUtils.convert(s.intValue, Integer.class);
+    }
+
+    @Benchmark
+    public Integer stringToIntegerJdk(NumberState s) {
+        return Integer.valueOf(s.intValue);
+    }
+
+    @Benchmark
+    public Long stringToLong(NumberState s) {
+        return TypeCastUtils.convert(s.longValue, Long.class);
+    }
+
+    @Benchmark
+    public long stringToLongJdk(NumberState s) {
+        return Long.parseLong(s.longValue);
+    }
+
+    @Benchmark
+    public Double stringToDouble(NumberState s) {
+        return TypeCastUtils.convert(s.doubleValue, Double.class);
+    }
+
+    @Benchmark
+    public double stringToDoubleJdk(NumberState s) {
+        return Double.parseDouble(s.doubleValue);
+    }
+
+    @Benchmark
+    public BigDecimal stringToBigDecimal(NumberState s) {
+        return TypeCastUtils.convert(s.decimalValue, BigDecimal.class);
+    }
+
+    @Benchmark
+    public Integer stringToIntegerMalformed(NumberState s) {
+        return TypeCastUtils.tryConvert(s.badValue, Integer.class, null);
+    }
+
+    // -------- string -> date -----------------------------------------------
+
+    @State(Scope.Benchmark)
+    public static class DateState {
+        //@formatter:off
+        @Param({
+            "2014-01-01 12:00:00",           // std
+            "2014/01/01 12:00:00.123",       // std, slash
+            "20140101120000",                // compact
+            "Wed, 01 Jan 2014 12:00:00 GMT", // rfc822
+            "2014-01-01T12:00:00Z",          // w3c
+            "1388577600000",                 // milliseconds
+        })
+        public String value;
+        //@formatter:on
+    }
+
+    @Benchmark
+    public Date stringToDate(DateState s) {
+        return TypeCastUtils.convert(s.value, Date.class);
+    }
+
+    @Benchmark
+    public LocalDateTime stringToLocalDateTime(DateState s) {
+        return TypeCastUtils.convert(s.value, LocalDateTime.class);
+    }
+
+    @State(Scope.Benchmark)
+    public static class StdDateState {
+        public String value = "2014-01-01 12:00:00";
+        public DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    }
+
+    @Benchmark
+    public Date stdDateSimpleDateFormat(StdDateState s) throws Exception {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse(s.value);
+    }
+
+    @Benchmark
+    public LocalDateTime stdDateJavaTime(StdDateState s) {
+        return LocalDateTime.parse(s.value, s.formatter);
+    }
+
+    // -------- object -> array/list -----------------------------------------
+
+    @State(Scope.Benchmark)
+    public static class ArrayState {
+        @Param({ "10", "1000", "100000" })
+        public int size;
+
+        public String[] values;
+        public String csv;
+        public Type listType;
+
+        @Setup
+        public void setup() throws Exception {
+            values = new String[size];
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                values[i] = String.valueOf(i);
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(i);
+            }
+            csv = sb.toString();
+            listType = TypeCastBenchmark.class.getField("integerList").getGenericType();
+        }
+    }
+
+    @Benchmark
+    public Object arrayToIntArray(ArrayState s) {
+        return TypeCastUtils.convertToArray(s.values, Integer.TYPE);
+    }
+
+    @Benchmark
+    public Object arrayToIntegerArray(ArrayState s) {
+        return TypeCastUtils.convertToArray(s.values, Integer.class);
+    }
+
+    @Benchmark
+    public Object arrayToIntArrayParallel(ArrayState s) {
+        return TypeCastUtils.convertArray(s.values, Integer.TYPE);
+    }
+
+    @Benchmark
+    public Object arrayToIntArrayJdk(ArrayState s) {
+        String[] values = s.values;
+        int[] results = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            results[i] = Integer.parseInt(values[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public Object arrayToIntegerList(ArrayState s) {
+        return TypeCastUtils.convert(s.values, s.listType);
+    }
+
+    @Benchmark
+    public Object csvToIntArray(ArrayState s) {
+        return TypeCastUtils.convertToArray(s.csv, Integer.TYPE);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include("^" + TypeCastBenchmark.class.getName() + "\\.").addProfiler(GCProfiler.class).build()).run();
+    }
+}
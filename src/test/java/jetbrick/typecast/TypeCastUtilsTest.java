@@ -20,12 +20,52 @@ package jetbrick.typecast;
 
 import java.io.File;
 import java.net.URL;
+import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TransferQueue;
+import jetbrick.bean.KlassInfo;
+import jetbrick.bean.PropertyInfo;
+import jetbrick.typecast.support.ParallelArrayConvertor;
 import org.junit.Assert;
 import org.junit.Test;
 
 public class TypeCastUtilsTest {
+    public static List<Integer> integerList;
+    public static Map<String, Long> longMap;
+    public static Set<Color> colorSet;
+    public static BlockingQueue<Integer> integerQueue;
+    public static TransferQueue<Integer> integerTransferQueue;
+
+    public enum Color {
+        RED, GREEN, BLUE
+    }
+
+    public static class GenericForm<T> {
+        private List<T> items;
+
+        public List<T> getItems() {
+            return items;
+        }
+
+        public void setItems(List<T> items) {
+            this.items = items;
+        }
+    }
+
+    public static class IntegerForm extends GenericForm<Integer> {
+    }
 
     @Test
     public void testConvertString() {
@@ -56,4 +96,137 @@ public class TypeCastUtilsTest {
     public void testConvertToArrayObject() {
         Assert.assertArrayEquals(new int[] { 1, 2, 3 }, (int[]) TypeCastUtils.convertToArray(Arrays.asList("1", 2, 3.0), Integer.TYPE));
     }
+
+    @Test
+    public void testConvertEnum() {
+        Assert.assertEquals(Color.GREEN, TypeCastUtils.convert("GREEN", Color.class));
+        Assert.assertEquals(Color.BLUE, TypeCastUtils.convert(2, Color.class));
+        Assert.assertArrayEquals(new Color[] { Color.RED, Color.BLUE }, (Object[]) TypeCastUtils.convertToArray("RED,BLUE", Color.class));
+    }
+
+    @Test
+    public void testConvertGenericType() throws Throwable {
+        Type listType = TypeCastUtilsTest.class.getField("integerList").getGenericType();
+        Type mapType = TypeCastUtilsTest.class.getField("longMap").getGenericType();
+        Type setType = TypeCastUtilsTest.class.getField("colorSet").getGenericType();
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3), TypeCastUtils.convert(new String[] { "1", "2", "3" }, listType));
+        Assert.assertEquals(Collections.singletonMap("a", 1L), TypeCastUtils.convert(Collections.singletonMap("a", "1"), mapType));
+        Assert.assertEquals(Collections.singletonMap("a", 1L), TypeCastUtils.convert("a=1", mapType));
+
+        Set<Color> colors = TypeCastUtils.convert("RED,GREEN,RED", setType);
+        Assert.assertEquals(2, colors.size());
+        Assert.assertTrue(colors.contains(Color.GREEN));
+    }
+
+    @Test
+    public void testConvertInheritedGenericType() {
+        PropertyInfo prop = KlassInfo.create(IntegerForm.class).getProperty("items");
+        Type type = prop.getGenericType(IntegerForm.class);
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3), TypeCastUtils.convert(new String[] { "1", "2", "3" }, type));
+    }
+
+    @Test
+    public void testConvertConcurrentQueue() throws Throwable {
+        Type queueType = TypeCastUtilsTest.class.getField("integerQueue").getGenericType();
+        Type transferQueueType = TypeCastUtilsTest.class.getField("integerTransferQueue").getGenericType();
+
+        BlockingQueue<Integer> queue = TypeCastUtils.convert("1,2", queueType);
+        Assert.assertEquals(Integer.valueOf(1), queue.poll());
+        TransferQueue<Integer> transferQueue = TypeCastUtils.convert("1,2", transferQueueType);
+        Assert.assertEquals(2, transferQueue.size());
+    }
+
+    @Test
+    public void testSupportEnum() {
+        Assert.assertTrue(TypeCastUtils.support(Color.class));
+        Assert.assertEquals(Color.BLUE, TypeCastUtils.lookup(Color.class).convert("BLUE"));
+    }
+
+    @Test
+    public void testConvertArrayParallel() {
+        String[] values = new String[100000];
+        long[] expected = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = String.valueOf(i);
+            expected[i] = i;
+        }
+        Assert.assertArrayEquals(expected, (long[]) TypeCastUtils.convertArray(values, Long.TYPE));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Integer[] results = TypeCastUtils.convertArray(values, Integer.class, executor);
+            Assert.assertEquals(Integer.valueOf(99999), results[99999]);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConvertArrayParallelRejected() throws Throwable {
+        String[] values = new String[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = String.valueOf(i);
+        }
+        // 只有一个线程，没有队列，大部分块会被拒绝，由调用线程执行
+        ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>());
+        try {
+            Integer[] results = TypeCastUtils.convertArray(values, Integer.class, executor);
+            for (int i = 0; i < values.length; i++) {
+                Assert.assertEquals(Integer.valueOf(i), results[i]);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConvertArrayParallelError() {
+        Object[] values = new Object[100000];
+        Arrays.fill(values, "1");
+        values[0] = "x"; // 第一个块由线程池执行
+        Convertor<Integer> convertor = new Convertor<Integer>() {
+            @Override
+            public Integer convert(String value) {
+                if ("x".equals(value)) {
+                    throw new AssertionError(value);
+                }
+                return Integer.valueOf(value);
+            }
+
+            @Override
+            public Integer convert(Object value) {
+                return convert(value.toString());
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new ParallelArrayConvertor(Integer.class, convertor, executor).convert(values);
+            Assert.fail();
+        } catch (AssertionError e) {
+            Assert.assertEquals("x", e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testTryConvert() {
+        Assert.assertEquals(Optional.of(123), TypeCastUtils.tryConvert("123", Integer.class));
+        Assert.assertEquals(Optional.empty(), TypeCastUtils.tryConvert("12a", Integer.class));
+        Assert.assertEquals(Optional.empty(), TypeCastUtils.tryConvert("99999999999", Integer.TYPE));
+        Assert.assertEquals(Long.valueOf(Long.MIN_VALUE), TypeCastUtils.tryConvert("-9223372036854775808", Long.class, 0L));
+        Assert.assertEquals(Long.valueOf(0L), TypeCastUtils.tryConvert("9223372036854775808", Long.class, 0L));
+        Assert.assertEquals(Double.valueOf(1.5e3), TypeCastUtils.tryConvert(" 1.5e3d ", Double.class, null));
+        Assert.assertEquals(null, TypeCastUtils.tryConvert("1.5e", Double.class, null));
+        Assert.assertEquals(Boolean.FALSE, TypeCastUtils.tryConvert("maybe", Boolean.class, false));
+        Assert.assertEquals(Optional.empty(), TypeCastUtils.tryConvert("not-a-date", Date.class));
+        Assert.assertEquals(Optional.of(Color.RED), TypeCastUtils.tryConvert("RED", Color.class));
+    }
+
+    @Test(expected = TypeCastException.class)
+    public void testConvertFailure() {
+        TypeCastUtils.convert("abc", Integer.class);
+    }
 }
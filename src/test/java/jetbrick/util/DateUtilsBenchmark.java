@@ -0,0 +1,122 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * DateUtils 的性能测试 (ops/s, 以及 GC profiler 的 gc.alloc.rate.norm 即 bytes/op).
+ *
+ * <pre>
+ * make bench class=jetbrick.util.DateUtilsBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ParseState {
+        //@formatter:off
+        @Param({
+            "2014-01-01 12:00:00",
+            "2014/01/01 12:00",
+            "20140101",
+            "Wed, 01 Jan 2014 12:00:00 GMT",
+            "2014-01-01T12:00:00.123Z",
+        })
+        public String value;
+        //@formatter:on
+    }
+
+    @Benchmark
+    public Date parse(ParseState s) {
+        return DateUtils.parse(s.value);
+    }
+
+    @State(Scope.Benchmark)
+    public static class FormatState {
+        public String pattern = DateUtils.STD_DATETIME_PATTERN;
+        public String value = "2014-01-01 12:00:00";
+        public Date date = new Date();
+        public DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DateUtils.STD_DATETIME_PATTERN).withZone(ZoneId.systemDefault());
+    }
+
+    @Benchmark
+    public Date parseWithPattern(FormatState s) {
+        return DateUtils.parse(s.value, s.pattern);
+    }
+
+    @Benchmark
+    public LocalDateTime parseJavaTime(FormatState s) {
+        return LocalDateTime.parse(s.value, s.formatter);
+    }
+
+    @Benchmark
+    public String format(FormatState s) {
+        return DateUtils.format(s.date, s.pattern);
+    }
+
+    @Benchmark
+    public String formatCached(FormatState s) {
+        return DateUtils.formatCached(System.currentTimeMillis(), s.pattern);
+    }
+
+    @Benchmark
+    public String formatSimpleDateFormat(FormatState s) {
+        return new SimpleDateFormat(s.pattern).format(s.date);
+    }
+
+    @Benchmark
+    public String formatJavaTime(FormatState s) {
+        return s.formatter.format(Instant.ofEpochMilli(s.date.getTime()));
+    }
+
+    @Benchmark
+    public String formatRFC822(FormatState s) {
+        return DateUtils.formatRFC822(s.date);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include("^" + DateUtilsBenchmark.class.getName() + "\\.").addProfiler(GCProfiler.class).build()).run();
+    }
+}
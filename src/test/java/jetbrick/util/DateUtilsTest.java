@@ -18,6 +18,8 @@
  */
 package jetbrick.util;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -28,4 +30,35 @@ public class DateUtilsTest {
         Assert.assertNotNull(DateUtils.parse("2014-01-01 12:00:00", "yyyy-MM-dd HH:mm:ss"));
         Assert.assertNotNull(DateUtils.parse("2014-01-01", "yyyy-MM-dd"));
     }
+
+    @Test
+    public void formatCached() {
+        //@formatter:off
+        String[] patterns = {
+            DateUtils.STD_DATETIME_PATTERN, "yyyy-MM-dd HH:mm:ss.SSS", "HH:mm:ss,SSS 'S'", "ss.S",
+            // 毫秒前面有变长的字段
+            "d/M/yyyy H:mm:ss.SSS", "MMMM d HH:mm:ss.SSS", "EEEE h:mm:ss.SSS a", "D m s SSS",
+        };
+        //@formatter:on
+        long now = System.currentTimeMillis();
+        long oct = 1792389906123L; // 2026-10-19 06:05:06.123 (UTC)
+        long[] times = { now, now + 1, now + 999, now + 1000, now - 86400000L, 0L, -1L, oct, oct - 18 * 86400000L, oct + 1000, oct - 9 * 3600000L };
+        for (String pattern : patterns) {
+            for (long time : times) {
+                String expected = new SimpleDateFormat(pattern).format(new Date(time));
+                Assert.assertEquals(expected, DateUtils.formatCached(time, pattern));
+            }
+        }
+    }
+
+    @Test
+    public void formatCachedManyPatterns() {
+        // 超过缓存数量的 pattern 不使用缓存，结果仍然正确
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < 200; i++) {
+            String pattern = "'#" + i + "' yyyy-MM-dd HH:mm:ss";
+            String expected = new SimpleDateFormat(pattern).format(new Date(time));
+            Assert.assertEquals(expected, DateUtils.formatCached(time, pattern));
+        }
+    }
 }
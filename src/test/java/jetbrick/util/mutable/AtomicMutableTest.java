@@ -0,0 +1,239 @@
+/**
+ * Copyright 2013-2023 Guoqiang Chen, Shanghai, China. All rights reserved.
+ *
+ *   Author: Guoqiang Chen
+ *    Email: subchen@gmail.com
+ *   WebURL: https://github.com/subchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jetbrick.util.mutable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AtomicMutableTest {
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 100000;
+
+    @Test
+    public void testConcurrentLong() throws Exception {
+        final AtomicMutableLong value = new AtomicMutableLong();
+        final long[] sums = new long[THREADS];
+        runConcurrently(new Task() {
+            @Override
+            public void run(int thread) {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    // getAndIncrement 返回的值不会重复
+                    sums[thread] += value.getAndIncrement();
+                    value.addAndGet(2);
+                    value.increment();
+                    value.add(-3);
+                }
+            }
+        });
+        long n = (long) THREADS * ITERATIONS;
+        Assert.assertEquals(n, value.getValue());
+        long total = 0;
+        for (long sum : sums) {
+            total += sum;
+        }
+        // getAndIncrement 与其他操作交错，返回值的总和不固定，但是所有的更新都不会丢失
+        Assert.assertTrue(total >= n * (n - 1) / 2);
+    }
+
+    @Test
+    public void testConcurrentInteger() throws Exception {
+        final AtomicMutableInteger value = new AtomicMutableInteger();
+        final boolean[] seen = new boolean[THREADS * ITERATIONS];
+        runConcurrently(new Task() {
+            @Override
+            public void run(int thread) {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    int old = value.getAndIncrement();
+                    // 每个值只会被一个线程取到
+                    synchronized (seen) {
+                        Assert.assertFalse(seen[old]);
+                        seen[old] = true;
+                    }
+                }
+            }
+        });
+        Assert.assertEquals(THREADS * ITERATIONS, value.getValue());
+
+        final AtomicMutableInteger counter = new AtomicMutableInteger(100);
+        runConcurrently(new Task() {
+            @Override
+            public void run(int thread) {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    counter.addAndGet(3);
+                    counter.decrement();
+                    counter.getAndAdd(-2);
+                }
+            }
+        });
+        Assert.assertEquals(100, counter.getValue());
+    }
+
+    @Test
+    public void testConcurrentDouble() throws Exception {
+        final AtomicMutableDouble value = new AtomicMutableDouble();
+        runConcurrently(new Task() {
+            @Override
+            public void run(int thread) {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    value.getAndIncrement();
+                    value.addAndGet(0.5);
+                }
+            }
+        });
+        // 整数和 0.5 的和可以精确表示
+        Assert.assertEquals(THREADS * ITERATIONS * 1.5, value.getValue(), 0.0);
+    }
+
+    @Test
+    public void testCompareAndSet() {
+        AtomicMutableLong l = new AtomicMutableLong(1);
+        Assert.assertFalse(l.compareAndSet(2, 3));
+        Assert.assertEquals(1, l.getValue());
+        Assert.assertTrue(l.compareAndSet(1, 3));
+        Assert.assertEquals(3, l.getValue());
+        Assert.assertEquals(3, l.getAndSet(5));
+        Assert.assertEquals(4, l.decrementAndGet());
+        Assert.assertEquals(4, l.getAndDecrement());
+        Assert.assertEquals(4, l.incrementAndGet());
+
+        AtomicMutableInteger i = new AtomicMutableInteger(1);
+        Assert.assertFalse(i.compareAndSet(2, 3));
+        Assert.assertTrue(i.compareAndSet(1, 3));
+        Assert.assertEquals(3, i.getAndSet(5));
+        Assert.assertEquals(5, i.getValue());
+    }
+
+    @Test
+    public void testDoubleCompareAndSetIsBitwise() {
+        AtomicMutableDouble d = new AtomicMutableDouble(0.0);
+        // 0.0 == -0.0，但是 bit 不相同
+        Assert.assertFalse(d.compareAndSet(-0.0, 1.0));
+        Assert.assertEquals(0.0, d.getValue(), 0.0);
+        Assert.assertTrue(d.compareAndSet(0.0, -0.0));
+        Assert.assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(d.getValue()));
+        Assert.assertFalse(d.compareAndSet(0.0, 1.0));
+        Assert.assertTrue(d.compareAndSet(-0.0, Double.NaN));
+
+        // NaN != NaN，但是 bit 相同
+        Assert.assertTrue(d.isNaN());
+        Assert.assertTrue(d.compareAndSet(Double.NaN, 2.0));
+        Assert.assertEquals(2.0, d.getValue(), 0.0);
+        Assert.assertEquals(2.0, d.getAndIncrement(), 0.0);
+        Assert.assertEquals(4.0, d.incrementAndGet(), 0.0);
+        Assert.assertEquals(3.0, d.decrementAndGet(), 0.0);
+        Assert.assertEquals(3.0, d.getAndSet(1.5), 0.0);
+    }
+
+    @Test
+    public void testLazySet() throws Exception {
+        AtomicMutableLong l = new AtomicMutableLong();
+        l.lazySet(7);
+        Assert.assertEquals(7, l.getValue());
+        AtomicMutableInteger i = new AtomicMutableInteger();
+        i.lazySet(7);
+        Assert.assertEquals(7, i.getValue());
+        AtomicMutableDouble d = new AtomicMutableDouble();
+        d.lazySet(-0.0);
+        Assert.assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(d.getValue()));
+
+        // lazySet 的值最终对其他线程可见
+        final AtomicMutableLong flag = new AtomicMutableLong();
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (flag.getValue() == 0) {
+                    Thread.yield();
+                }
+                done.countDown();
+            }
+        });
+        reader.start();
+        flag.lazySet(1);
+        reader.join(10000);
+        Assert.assertEquals(0, done.getCount());
+    }
+
+    @Test
+    public void testPaddedMatchesAtomic() {
+        PaddedMutableDouble pd = new PaddedMutableDouble(1.0);
+        AtomicMutableDouble ad = new AtomicMutableDouble(1.0);
+        Assert.assertEquals(ad.getAndIncrement(), pd.getAndIncrement(), 0.0);
+        Assert.assertEquals(ad.incrementAndGet(), pd.incrementAndGet(), 0.0);
+        Assert.assertEquals(ad.getAndDecrement(), pd.getAndDecrement(), 0.0);
+        Assert.assertEquals(ad.decrementAndGet(), pd.decrementAndGet(), 0.0);
+        pd.increment();
+        ad.increment();
+        pd.decrement();
+        pd.decrement();
+        ad.decrement();
+        ad.decrement();
+        Assert.assertEquals(ad.getAndSet(8.5), pd.getAndSet(8.5), 0.0);
+        Assert.assertEquals(ad.addAndGet(0.5), pd.addAndGet(0.5), 0.0);
+
+        PaddedMutableLong pl = new PaddedMutableLong(1);
+        AtomicMutableLong al = new AtomicMutableLong(1);
+        Assert.assertEquals(al.getAndDecrement(), pl.getAndDecrement());
+        Assert.assertEquals(al.decrementAndGet(), pl.decrementAndGet());
+        Assert.assertEquals(al.getAndSet(9), pl.getAndSet(9));
+        Assert.assertEquals(al.getValue(), pl.getValue());
+
+        PaddedMutableInteger pi = new PaddedMutableInteger(1);
+        AtomicMutableInteger ai = new AtomicMutableInteger(1);
+        Assert.assertEquals(ai.getAndDecrement(), pi.getAndDecrement());
+        Assert.assertEquals(ai.decrementAndGet(), pi.decrementAndGet());
+        Assert.assertEquals(ai.getAndSet(9), pi.getAndSet(9));
+        Assert.assertEquals(ai.getValue(), pi.getValue());
+    }
+
+    interface Task {
+        void run(int thread);
+    }
+
+    private static void runConcurrently(final Task task) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        task.run(index);
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+    }
+}